@@ -4,8 +4,6 @@ import controller.ImageControllerImpl;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Scanner;
 
 import controller.ImageProcessorGUIController;
@@ -13,11 +11,7 @@ import model.IImageProcessorInstance;
 import model.ImageProcessingModel;
 import model.ImageProcessorTextInstance;
 import model.MultipleImageProcessorInstance;
-import model.imaging.Color;
 import model.imaging.Image;
-import model.imaging.Posn;
-import model.imaging.pixel.IPixel;
-import model.imaging.pixel.PixelImpl;
 import view.ImageProcessorTextView;
 import view.ImageProcessorView;
 
@@ -39,12 +33,7 @@ public final class ImageProcessor {
         File file = new File(fileName);
         Readable rd = new InputStreamReader(System.in);
 
-        ArrayList<IPixel> pixelArray = new ArrayList<>();
-        pixelArray.add(new PixelImpl(new Posn(0, 0), new Color(0, 0, 0)));
-        List<ArrayList<IPixel>> list = new ArrayList<>();
-        list.add(pixelArray);
-
-        Image startingImage = new Image(list);
+        Image startingImage = new Image(1, 1, new int[1]);
         ImageProcessorTextInstance instance = new ImageProcessorTextInstance();
         ImageProcessorView view =
                 new ImageProcessorTextView(new ImageProcessingModel(startingImage),
@@ -57,12 +46,7 @@ public final class ImageProcessor {
     } else if (args.length == 1 && args[0].equals("-text")) {
       Readable rd = new InputStreamReader(System.in);
 
-      ArrayList<IPixel> pixelArray = new ArrayList<>();
-      pixelArray.add(new PixelImpl(new Posn(0, 0), new Color(0, 0, 0)));
-      List<ArrayList<IPixel>> list = new ArrayList<>();
-      list.add(pixelArray);
-
-      Image startingImage = new Image(list);
+      Image startingImage = new Image(1, 1, new int[1]);
       ImageProcessorTextInstance instance = new ImageProcessorTextInstance();
       ImageProcessorView view = new ImageProcessorTextView(new ImageProcessingModel(startingImage),
               System.out);
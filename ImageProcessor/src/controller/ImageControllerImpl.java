@@ -2,9 +2,14 @@ package controller;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.Locale;
 import java.util.Scanner;
 
+import controller.filereading.DecodeOptions;
+import controller.filewriting.PPMFormat;
+import controller.filewriting.SaveOptions;
+import controller.filewriting.SaveQueue;
 import model.ImageProcessorTextInstance;
 import view.ImageProcessorView;
 
@@ -21,9 +26,20 @@ public class ImageControllerImpl implements ImageProcessorController {
   private String modelName;
   private String newName;
   private ImageProcessorTextInstance model;
+  private SaveQueue saves;
 
   private static final String LOAD = "load";
   private static final String SAVE = "save";
+  private static final String MTRL = "materialize";
+
+  // load options
+  private static final String SUBS = "-subsample";
+  private static final String RGON = "-region";
+
+  // save options
+  private static final String QUAL = "-quality";
+  private static final String PROG = "-progressive";
+  private static final String COMP = "-compression";
 
   // component transformations
   private static final String RED = "red";
@@ -46,6 +62,7 @@ public class ImageControllerImpl implements ImageProcessorController {
   // Filters
   private static final String SHRP = "sharpen";
   private static final String BLUR = "blur";
+  private static final String GAUS = "gaussian";
 
   private static final String FILE = "-file";
 
@@ -101,12 +118,27 @@ public class ImageControllerImpl implements ImageProcessorController {
 
   /**
    * Runs the controller that handles the Processing session, view, and input to conduct the Image
-   * Processing.
+   * Processing. Files are saved on background threads while the next commands run, every save
+   * has finished by the time this returns, even if it stops because of an error.
    *
    * @throws IOException if given inputs fail to transmit inside the Image Processor.
    */
   @Override
   public void start() throws IOException {
+    this.saves = new SaveQueue(SaveQueue.defaultThreads());
+    try {
+      this.run();
+    } finally {
+      this.reportFailures(this.saves.shutdown());
+    }
+  }
+
+  /**
+   * Reads and runs commands until the exit command.
+   *
+   * @throws IOException if given inputs fail to transmit inside the Image Processor.
+   */
+  private void run() throws IOException {
     boolean over = false;
 
     view.renderMessage("Enter a command:");
@@ -122,6 +154,9 @@ public class ImageControllerImpl implements ImageProcessorController {
         case SAVE:
           saveCommand();
           break;
+        case MTRL:
+          materializeCommand();
+          break;
         case RED:
           redCommand();
           break;
@@ -141,6 +176,17 @@ public class ImageControllerImpl implements ImageProcessorController {
           blurCommand();
           break;
 
+        case GAUS:
+          double sigma;
+          try {
+            sigma = Double.parseDouble(in.next());
+          } catch (NumberFormatException e) {
+            this.view.renderMessage("\nMust enter a number");
+            break;
+          }
+          gaussianCommand(sigma);
+          break;
+
         case SHRP:
           sharpenCommand();
           break;
@@ -190,6 +236,7 @@ public class ImageControllerImpl implements ImageProcessorController {
           break;
 
         case EXIT:
+          this.reportFailures(this.saves.flush());
           over = true;
           break;
         default:
@@ -200,12 +247,15 @@ public class ImageControllerImpl implements ImageProcessorController {
   }
 
   /**
-   * Reads in the filepath and the model name. Used in load and save switch cases.
+   * Tells the user about the saves that failed.
+   *
+   * @param failures the messages of the failed saves.
+   * @throws IOException If the output cannot be transmitted.
    */
-  private void processFile() {
-    this.filepath = in.next();
-    this.modelName = in.next();
-
+  private void reportFailures(List<String> failures) throws IOException {
+    for (String failure : failures) {
+      this.view.renderMessage("\n" + failure);
+    }
   }
 
   /**
@@ -217,14 +267,43 @@ public class ImageControllerImpl implements ImageProcessorController {
   }
 
   /**
-   * Loads the image if the command is inputted correctly.
+   * Loads the image if the command is inputted correctly. The file path may be preceded by the
+   * options -subsample n, to keep every n-th column and row, and -region x y width height, to only
+   * load part of the image.
    *
    * @throws IOException If the output cannot be transmitted.
    */
   private void loadCommand() throws IOException {
-    this.processFile();
+    DecodeOptions options = DecodeOptions.full();
     try {
-      this.model.load(this.filepath, this.modelName);
+      String token = in.next();
+      while (token.startsWith("-")) {
+        switch (token.toLowerCase(Locale.ROOT)) {
+          case SUBS:
+            options = options.withSubsampling(Integer.parseInt(in.next()));
+            break;
+          case RGON:
+            options = options.withRegion(Integer.parseInt(in.next()),
+                    Integer.parseInt(in.next()), Integer.parseInt(in.next()),
+                    Integer.parseInt(in.next()));
+            break;
+          default:
+            throw new IllegalArgumentException("Invalid load option.");
+        }
+        token = in.next();
+      }
+      this.filepath = token;
+      this.modelName = in.next();
+    } catch (NumberFormatException e) {
+      this.view.renderMessage("\nMust enter an integer");
+      return;
+    } catch (IllegalArgumentException e) {
+      this.view.renderMessage("\n" + e.getMessage());
+      return;
+    }
+    try {
+      this.saves.awaitFile(this.filepath);
+      this.model.load(this.filepath, this.modelName, options);
       this.view.renderMessage("\nImage Loaded");
 
     } catch (IllegalArgumentException e) {
@@ -233,20 +312,69 @@ public class ImageControllerImpl implements ImageProcessorController {
   }
 
   /**
-   * Saves the image if the command is inputted correctly.
+   * Saves the image if the command is inputted correctly. The file path may be preceded by
+   * options: a PPM format such as -p6, -quality q from 0 to 1 and -progressive for jpeg files, and
+   * -compression n from 0 to 9 for png files. The image is computed straight away but the file is
+   * written in the background, a save that fails is reported when the saves are next flushed.
    *
    * @throws IOException If the output cannot be transmitted.
    */
   private void saveCommand() throws IOException {
-    this.processFile();
+    SaveOptions options = SaveOptions.defaults();
     try {
-      this.model.save(this.filepath, this.modelName);
-      this.view.renderMessage("\nImage saved");
+      String token = in.next();
+      while (token.startsWith("-")) {
+        switch (token.toLowerCase(Locale.ROOT)) {
+          case QUAL:
+            options = options.withQuality(Float.parseFloat(in.next()));
+            break;
+          case PROG:
+            options = options.withProgressive(true);
+            break;
+          case COMP:
+            options = options.withCompressionLevel(Integer.parseInt(in.next()));
+            break;
+          default:
+            options = options.withFormat(PPMFormat.fromOption(token.substring(1)));
+        }
+        token = in.next();
+      }
+      this.filepath = token;
+      this.modelName = in.next();
+    } catch (NumberFormatException e) {
+      this.view.renderMessage("\nMust enter a number");
+      return;
+    } catch (IllegalArgumentException e) {
+      this.view.renderMessage("\n" + e.getMessage());
+      return;
+    }
+    try {
+      if (this.saves.submit(this.filepath,
+              this.model.prepareSave(this.filepath, this.modelName, options))) {
+        this.view.renderMessage("\nImage saved");
+      } else {
+        this.view.renderMessage("\nImage queued for saving");
+      }
     } catch (IllegalArgumentException | IOException e) {
       this.view.renderMessage("\n" + e.getMessage());
     }
   }
 
+  /**
+   * Computes the image now instead of when it is saved, if the command is inputted correctly.
+   *
+   * @throws IOException If the output cannot be transmitted.
+   */
+  private void materializeCommand() throws IOException {
+    this.modelName = in.next();
+    try {
+      this.model.materialize(this.modelName);
+      this.view.renderMessage("\nImage materialized");
+    } catch (IllegalArgumentException e) {
+      this.view.renderMessage("\n" + e.getMessage());
+    }
+  }
+
   /**
    * Performs a blur filter on an image if the input is entered correctly.
    *
@@ -263,6 +391,22 @@ public class ImageControllerImpl implements ImageProcessorController {
   }
 
 
+  /**
+   * Performs a gaussian blur on an image if the input is entered correctly.
+   *
+   * @param sigma The standard deviation of the blur.
+   * @throws IOException If the output cannot be transmitted.
+   */
+  private void gaussianCommand(double sigma) throws IOException {
+    this.processModel();
+    try {
+      this.model.gaussian(sigma, this.modelName, this.newName);
+      this.view.renderMessage("\nImage blurred");
+    } catch (IllegalArgumentException e) {
+      this.view.renderMessage("\n" + e.getMessage());
+    }
+  }
+
   /**
    * Performs a sharpen filter on an image if the input is entered correctly.
    *
@@ -2,15 +2,22 @@ package controller;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.util.Map;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 import controller.filereading.ImageIOFileReader;
+import controller.filereading.ImageLoader;
+import controller.filereading.LayerContainerReader;
 import controller.filereading.PPMFileReader;
+import controller.filewriting.IImageFileWriter;
 import controller.filewriting.JPEGImageIOWriter;
+import controller.filewriting.LayerContainerWriter;
 import controller.filewriting.MultiLayerImageWriter;
 import controller.filewriting.PNGImageIOWriter;
 import controller.filewriting.PPMFileWriter;
 import model.IImageProcessorInstance;
+import model.imaging.BufferedImages;
 import model.imaging.PixelImage;
 import view.IViewListener;
 import view.ImageProcessorGUIView;
@@ -27,6 +34,9 @@ public class ImageProcessorGUIController implements ImageProcessorController, IV
   private final IImageProcessorInstance model;
   private final ImageProcessorGUIView view;
   private String current;
+  // where the layers were last saved or opened from, so the next save there can skip the layers
+  // that have not changed since
+  private String savedTo;
 
   /**
    * Constructor for the GUI controller.
@@ -42,6 +52,7 @@ public class ImageProcessorGUIController implements ImageProcessorController, IV
     this.model = model;
     this.view = new ImageProcessorGUIViewImpl(this);
     this.current = null;
+    this.savedTo = null;
   }
 
   @Override
@@ -59,46 +70,39 @@ public class ImageProcessorGUIController implements ImageProcessorController, IV
 
   @Override
   public void handleSaveImageEvent(String filename, String filetype) throws IOException {
-    switch (filetype.toLowerCase()) {
-      case "png":
-        try {
-          new PNGImageIOWriter().writeFile(filename + ".png",
-                  this.model.getImage(getTopmostVisibleLayerID()));
-        } catch (IllegalArgumentException e) {
-          renderHandler(e.getMessage());
-        } catch (IOException e) {
-          throw new IllegalStateException();
-        }
-        break;
-      case "jpeg":
-        try {
-          new JPEGImageIOWriter()
-                  .writeFile(filename + ".jpeg", this.model.getImage(getTopmostVisibleLayerID()));
-        } catch (IllegalArgumentException e) {
-          renderHandler(e.getMessage());
-        } catch (IOException e) {
-          throw new IllegalStateException();
-        }
-        break;
-      case "ppm":
-        try {
-          new PPMFileWriter()
-                  .writeFile(filename + ".ppm", this.model.getImage(getTopmostVisibleLayerID()));
-        } catch (IllegalArgumentException e) {
-          renderHandler(e.getMessage());
-        } catch (IOException e) {
-          throw new IllegalStateException();
-        }
-        break;
-      default:
-        view.renderMessage("File type must be ppm/jpeg/png");
+    this.handleSaveImageEvent(filename, filetype, -1);
+  }
+
+  @Override
+  public void handleSaveImageEvent(String filename, String filetype, int setting)
+          throws IOException {
+    String type = filetype.toLowerCase();
+    if (!type.equals("png") && !type.equals("jpeg") && !type.equals("ppm")) {
+      view.renderMessage("File type must be ppm/jpeg/png");
+      return;
+    }
+    try {
+      IImageFileWriter writer;
+      if (type.equals("png")) {
+        writer = setting < 0 ? new PNGImageIOWriter() : new PNGImageIOWriter(setting);
+      } else if (type.equals("jpeg")) {
+        writer = setting < 0 ? new JPEGImageIOWriter()
+                : new JPEGImageIOWriter(setting / 100f, false);
+      } else {
+        writer = new PPMFileWriter();
+      }
+      writer.writeFile(filename + "." + type, this.model.getImage(getTopmostVisibleLayerID()));
+    } catch (IllegalArgumentException e) {
+      renderHandler(e.getMessage());
+    } catch (IOException e) {
+      throw new IllegalStateException();
     }
   }
 
   private String getTopmostVisibleLayerID() throws IllegalArgumentException {
-    for (Map.Entry<String, PixelImage> item : this.model.getLayers().entrySet()) {
-      if (!this.model.getVisibility().contains(item.getKey())) {
-        return item.getKey();
+    for (String id : this.model.getLayerIds()) {
+      if (!this.model.getVisibility().contains(id)) {
+        return id;
       }
     }
     throw new IllegalArgumentException("No visible images.");
@@ -111,14 +115,14 @@ public class ImageProcessorGUIController implements ImageProcessorController, IV
       case "png":
       case "jpeg":
         try {
-          addHandler(layerName, new ImageIOFileReader().readImageFromFile(filename));
+          addHandler(layerName, ImageLoader.load(filename, new ImageIOFileReader()));
         } catch (IllegalArgumentException e) {
           renderHandler(e.getMessage());
         }
         break;
       case "ppm":
         try {
-          addHandler(layerName, new PPMFileReader().readImageFromFile(filename));
+          addHandler(layerName, ImageLoader.load(filename, new PPMFileReader()));
         } catch (IllegalArgumentException e) {
           renderHandler(e.getMessage());
         }
@@ -132,9 +136,12 @@ public class ImageProcessorGUIController implements ImageProcessorController, IV
   public void handleSaveAllImagesEvent(String fileName, String fileType)
           throws IllegalStateException {
     try {
+      String target = saveTarget(fileType, fileName);
       new MultiLayerImageWriter()
-              .writeFile(fileName, fileType, this.model.getLayers(),
-                      this.model.getVisibility());
+              .writeFile(fileName, fileType, this.model.getLayerIds(), this.model::getImage,
+                      this.model.getVisibility(), this.unchangedLayers(target));
+      this.model.markSaved();
+      this.savedTo = target;
     } catch (IllegalArgumentException e) {
       renderHandler(e.getMessage());
     } catch (IOException io) {
@@ -143,6 +150,38 @@ public class ImageProcessorGUIController implements ImageProcessorController, IV
 
   }
 
+  @Override
+  public void handleSaveProjectEvent(String fileName) throws IllegalStateException {
+    try {
+      String target = saveTarget("layers", fileName);
+      new LayerContainerWriter().writeFile(fileName, this.model.getLayerIds(),
+              this.model::getImage, this.model.getVisibility(), this.unchangedLayers(target));
+      // the layers that were never read may have moved within the file, or now only be in it
+      this.model.rebindLayers(LayerContainerReader.open(fileName));
+      this.model.markSaved();
+      this.savedTo = target;
+    } catch (IllegalArgumentException e) {
+      renderHandler(e.getMessage());
+    } catch (IOException io) {
+      throw new IllegalStateException();
+    }
+  }
+
+  @Override
+  public void handleOpenProjectEvent(String fileName) {
+    try {
+      this.model.openLayers(LayerContainerReader.open(fileName));
+      this.savedTo = saveTarget("layers", fileName);
+      this.current = null;
+      this.view.clearImages();
+      for (String id : this.model.getLayerIds()) {
+        this.view.updateImages(id);
+      }
+      this.view.updateImage(this.getTopVisibleLayer());
+    } catch (IllegalArgumentException | IOException e) {
+      renderHandler(e.getMessage());
+    }
+  }
 
   @Override
   public void handleBlurEvent() {
@@ -397,7 +436,7 @@ public class ImageProcessorGUIController implements ImageProcessorController, IV
 
   @Override
   public void setCurrentImageEvent(String layerID) {
-    if (this.model.getLayers().containsKey(layerID)) {
+    if (this.model.getLayerIds().contains(layerID)) {
       this.current = layerID;
     } else {
       renderHandler("This image does not exist");
@@ -405,6 +444,33 @@ public class ImageProcessorGUIController implements ImageProcessorController, IV
   }
 
 
+  /**
+   * Identifies where a save writes to.
+   *
+   * @param type     Type of the saved files.
+   * @param fileName Path of the saved file or folder.
+   * @return a string that is the same for every save to the same place.
+   */
+  private static String saveTarget(String type, String fileName) {
+    return type.toLowerCase() + " " + Paths.get(fileName).toAbsolutePath().normalize();
+  }
+
+  /**
+   * Gets the layers that don't need to be written again by a save to the given target, which are
+   * the layers that have not changed if the layers were last saved to or opened from there.
+   *
+   * @param target Where the save writes to.
+   * @return the ids of the unchanged layers, or none if the target is somewhere else.
+   */
+  private List<String> unchangedLayers(String target) {
+    List<String> unchanged = new ArrayList<>();
+    if (target.equals(this.savedTo)) {
+      unchanged.addAll(this.model.getLayerIds());
+      unchanged.removeAll(this.model.getChangedLayers());
+    }
+    return unchanged;
+  }
+
   /**
    * Generates a buffered image from the top visible layer in the model. If there is no visible
    * layers, returns a blank 1x1 image.
@@ -412,9 +478,9 @@ public class ImageProcessorGUIController implements ImageProcessorController, IV
    * @return Buffered image of the top visible layer in the model.
    */
   private BufferedImage getTopVisibleLayer() {
-    for (Map.Entry<String, PixelImage> layer : this.model.getLayers().entrySet()) {
-      if (!this.model.getVisibility().contains(layer.getKey())) {
-        return this.generateImage(layer.getValue());
+    for (String id : this.model.getLayerIds()) {
+      if (!this.model.getVisibility().contains(id)) {
+        return this.generateImage(this.model.getImage(id));
       }
     }
     return new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
@@ -427,22 +493,7 @@ public class ImageProcessorGUIController implements ImageProcessorController, IV
    * @return Buffered image representation of the given image.
    */
   private BufferedImage generateImage(PixelImage image) {
-    int height = image.getPixels().size();
-    int width = image.getPixels().get(0).size();
-
-    BufferedImage outputImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        int red = image.getPixels().get(i).get(j).getColor().getRed();
-        int green = image.getPixels().get(i).get(j).getColor().getGreen();
-        int blue = image.getPixels().get(i).get(j).getColor().getBlue();
-
-        java.awt.Color pixelColor = new java.awt.Color(red, green, blue);
-        outputImage.setRGB(j, i, pixelColor.getRGB());
-      }
-    }
-    return outputImage;
+    return BufferedImages.toBufferedImage(image);
   }
 
   /**
@@ -480,7 +531,7 @@ public class ImageProcessorGUIController implements ImageProcessorController, IV
    * Updates the histogram on the GUI.
    */
   private void updateHistogram() {
-    this.view.updateGraph(this.model.getImage(current).getLines());
+    this.view.updateGraph(this.model.getHistogram(current).getLines());
   }
 
 
@@ -0,0 +1,165 @@
+package controller.filereading;
+
+/**
+ * Class describing which part of an image file to decode: a rectangular region of the source,
+ * and a subsampling step that keeps only every n-th column and row of that region. Decoding a
+ * crop or a preview this way never holds the skipped pixels in memory. Options are immutable, the
+ * with methods return new options.
+ */
+public final class DecodeOptions {
+
+  private static final DecodeOptions FULL = new DecodeOptions(0, 0, Integer.MAX_VALUE,
+      Integer.MAX_VALUE, 1);
+
+  private final int x;
+  private final int y;
+  private final int width;
+  private final int height;
+  private final int step;
+
+  /**
+   * Constructs options for the given region and subsampling step.
+   *
+   * @param x      column of the first pixel of the region.
+   * @param y      row of the first pixel of the region.
+   * @param width  width of the region.
+   * @param height height of the region.
+   * @param step   distance between the columns and rows that are kept.
+   */
+  private DecodeOptions(int x, int y, int width, int height, int step) {
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+    this.step = step;
+  }
+
+  /**
+   * Gets the options that decode the whole image at full resolution.
+   *
+   * @return the default options.
+   */
+  public static DecodeOptions full() {
+    return FULL;
+  }
+
+  /**
+   * Creates options that only decode the given region of the image. Parts of the region outside
+   * of the image are ignored.
+   *
+   * @param x      column of the first pixel of the region.
+   * @param y      row of the first pixel of the region.
+   * @param width  width of the region.
+   * @param height height of the region.
+   * @return the new options.
+   * @throws IllegalArgumentException If the region is empty or starts at a negative position.
+   */
+  public DecodeOptions withRegion(int x, int y, int width, int height)
+      throws IllegalArgumentException {
+    if (x < 0 || y < 0 || width < 1 || height < 1) {
+      throw new IllegalArgumentException("Invalid region.");
+    }
+    return new DecodeOptions(x, y, width, height, this.step);
+  }
+
+  /**
+   * Creates options that keep only every n-th column and row, starting with the first of the
+   * region.
+   *
+   * @param step distance between the columns and rows that are kept, 1 keeps all of them.
+   * @return the new options.
+   * @throws IllegalArgumentException If the step is less than 1.
+   */
+  public DecodeOptions withSubsampling(int step) throws IllegalArgumentException {
+    if (step < 1) {
+      throw new IllegalArgumentException("Subsampling must be at least 1.");
+    }
+    return new DecodeOptions(this.x, this.y, this.width, this.height, step);
+  }
+
+  /**
+   * Checks if these options decode the whole image at full resolution.
+   *
+   * @return true if nothing is cropped or skipped.
+   */
+  public boolean isFull() {
+    return this.x == 0 && this.y == 0 && this.width == Integer.MAX_VALUE
+        && this.height == Integer.MAX_VALUE && this.step == 1;
+  }
+
+  /**
+   * Gets the column of the first pixel decoded.
+   *
+   * @return the column in the source image.
+   */
+  public int getX() {
+    return this.x;
+  }
+
+  /**
+   * Gets the row of the first pixel decoded.
+   *
+   * @return the row in the source image.
+   */
+  public int getY() {
+    return this.y;
+  }
+
+  /**
+   * Gets the number of source columns in the region, clipped to an image of the given width.
+   *
+   * @param imageWidth width of the source image.
+   * @return the width of the region inside the image.
+   * @throws IllegalArgumentException If the region is outside of the image.
+   */
+  public int getRegionWidth(int imageWidth) throws IllegalArgumentException {
+    return clip(this.x, this.width, imageWidth);
+  }
+
+  /**
+   * Gets the number of source rows in the region, clipped to an image of the given height.
+   *
+   * @param imageHeight height of the source image.
+   * @return the height of the region inside the image.
+   * @throws IllegalArgumentException If the region is outside of the image.
+   */
+  public int getRegionHeight(int imageHeight) throws IllegalArgumentException {
+    return clip(this.y, this.height, imageHeight);
+  }
+
+  /**
+   * Gets the distance between the columns and rows that are kept.
+   *
+   * @return the subsampling step, 1 if every pixel is kept.
+   */
+  public int getStep() {
+    return this.step;
+  }
+
+  /**
+   * Gets the number of pixels a region of the given length gives once subsampled.
+   *
+   * @param regionLength number of source columns or rows in the region.
+   * @return the number of columns or rows decoded.
+   */
+  public int decodedLength(int regionLength) {
+    return (regionLength + this.step - 1) / this.step;
+  }
+
+  /**
+   * Clips a span of the region to the image.
+   *
+   * @param start  start of the span.
+   * @param length length of the span.
+   * @param limit  length of the image along the span.
+   * @return the length of the span inside the image.
+   * @throws IllegalArgumentException If the span starts outside of the image.
+   */
+  private static int clip(int start, int length, int limit) throws IllegalArgumentException {
+    // a span starting at 0 is allowed on an empty image, so the full options always fit
+    if (start > 0 && start >= limit) {
+      throw new IllegalArgumentException("Region is outside of the image.");
+    }
+    return (int) Math.min(length, (long) limit - start);
+  }
+}
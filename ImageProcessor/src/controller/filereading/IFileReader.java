@@ -20,4 +20,30 @@ public interface IFileReader {
    */
   PixelImage readImageFromFile(String filename) throws IOException;
 
+  /**
+   * Reads only the part of an image file described by the given options, skipping the rest of
+   * the file where the format allows it.
+   *
+   * @param filename the path of the file.
+   * @param options  the region and subsampling to decode.
+   * @return the decoded part of the image.
+   * @throws IOException              If the file can't be read.
+   * @throws IllegalArgumentException If an argument is null, the file cannot be found, it is not a
+   *                                  valid file of the desired type, or the region is outside of
+   *                                  the image.
+   */
+  PixelImage readImageFromFile(String filename, DecodeOptions options) throws IOException;
+
+  /**
+   * Reads only the header of an image file in the specific format associated with the class,
+   * without decoding its pixels.
+   *
+   * @param filename the path of the file.
+   * @return the size and format of the image.
+   * @throws IOException              If the file can't be read.
+   * @throws IllegalArgumentException If the given filename is null, the file cannot be found, or if
+   *                                  it is not a valid file of the desired type.
+   */
+  ImageInfo probe(String filename) throws IOException;
+
 }
@@ -1,18 +1,24 @@
 package controller.filereading;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
 
+import model.imaging.BufferedImages;
 import model.imaging.Color;
 import model.imaging.Image;
 import model.imaging.PixelImage;
 import model.imaging.Posn;
-import model.imaging.pixel.IPixel;
 import model.imaging.pixel.PixelImpl;
 
 /**
@@ -33,22 +39,7 @@ public class ImageIOFileReader implements IFileReader {
       if (image == null) {
         throw new IllegalArgumentException("File could not be read.");
       }
-      int imageHeight = image.getHeight();
-      int imageWidth = image.getWidth();
-
-      List<ArrayList<IPixel>> pixels = new ArrayList<>();
-
-      for (int i = 0; i < imageHeight; i++) {
-        ArrayList<IPixel> row = new ArrayList<>();
-        for (int j = 0; j < imageWidth; j++) {
-          java.awt.Color pixelRGB = new java.awt.Color(image.getRGB(j, i));
-          row.add(new PixelImpl(new Posn(j, i),
-              new Color(pixelRGB.getRed(), pixelRGB.getGreen(), pixelRGB.getBlue())));
-        }
-        pixels.add(row);
-      }
-
-      return new Image(pixels);
+      return Image.adopt(image.getWidth(), image.getHeight(), BufferedImages.toRaster(image));
 
 
     } catch (IOException e) {
@@ -57,6 +48,101 @@ public class ImageIOFileReader implements IFileReader {
 
   }
 
+  /**
+   * Reads the part of the file described by the options. The region and subsampling are passed on
+   * to the ImageIO reader, which only decodes the pixels that are kept.
+   *
+   * @param filename the path of the file.
+   * @param options  the region and subsampling to decode.
+   * @return the decoded part of the image.
+   * @throws IOException              If the file can't be read.
+   * @throws IllegalArgumentException If an argument is null, the file cannot be found or read, or
+   *                                  the region is outside of the image.
+   */
+  @Override
+  public PixelImage readImageFromFile(String filename, DecodeOptions options)
+      throws IllegalArgumentException, IOException {
+    if (options == null) {
+      throw new IllegalArgumentException("Options cannot be null.");
+    }
+    if (options.isFull()) {
+      return this.readImageFromFile(filename);
+    }
+    ImageReader reader = openReader(filename);
+    try {
+      int width = reader.getWidth(0);
+      int height = reader.getHeight(0);
+      ImageReadParam param = reader.getDefaultReadParam();
+      param.setSourceRegion(new Rectangle(options.getX(), options.getY(),
+          options.getRegionWidth(width), options.getRegionHeight(height)));
+      param.setSourceSubsampling(options.getStep(), options.getStep(), 0, 0);
+      BufferedImage image = reader.read(0, param);
+      return Image.adopt(image.getWidth(), image.getHeight(), BufferedImages.toRaster(image));
+    } finally {
+      close(reader);
+    }
+  }
+
+  @Override
+  public ImageInfo probe(String filename) throws IllegalArgumentException, IOException {
+    ImageReader reader = openReader(filename);
+    try {
+      // only the header is read to answer these, no pixels are decoded
+      ImageTypeSpecifier type = reader.getRawImageType(0);
+      if (type == null) {
+        type = reader.getImageTypes(0).next();
+      }
+      return new ImageInfo(reader.getWidth(0), reader.getHeight(0),
+          reader.getFormatName().toLowerCase(), type.getSampleModel().getSampleSize(0));
+    } finally {
+      close(reader);
+    }
+  }
+
+  /**
+   * Finds an ImageIO reader for the given file and sets it to read from the file.
+   *
+   * @param filename the path of the file.
+   * @return the reader, which must be closed once it is done.
+   * @throws IOException              If the file can't be opened.
+   * @throws IllegalArgumentException If the filename is null, or the file does not exist or is
+   *                                  not a type supported by ImageIO.
+   */
+  private static ImageReader openReader(String filename)
+      throws IOException, IllegalArgumentException {
+    if (filename == null) {
+      throw new IllegalArgumentException("Filename cannot be null.");
+    }
+    File imageFile = new File(filename);
+    if (!imageFile.isFile()) {
+      throw new IllegalArgumentException("File does not exist.");
+    }
+    ImageInputStream stream = ImageIO.createImageInputStream(imageFile);
+    if (stream == null) {
+      throw new IllegalArgumentException("File could not be read.");
+    }
+    Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+    if (!readers.hasNext()) {
+      stream.close();
+      throw new IllegalArgumentException("File could not be read.");
+    }
+    ImageReader reader = readers.next();
+    reader.setInput(stream, true, true);
+    return reader;
+  }
+
+  /**
+   * Releases the given reader and closes the file it reads from.
+   *
+   * @param reader a reader returned by openReader.
+   * @throws IOException If the file can't be closed.
+   */
+  private static void close(ImageReader reader) throws IOException {
+    ImageInputStream stream = (ImageInputStream) reader.getInput();
+    reader.dispose();
+    stream.close();
+  }
+
   /**
    * Reads any images that are supported by the imageIO class, such as png and jpegs.
    * @param pathname The file path in string format.
@@ -72,6 +158,7 @@ public class ImageIOFileReader implements IFileReader {
     }
     int height = img.getHeight();
     int width = img.getWidth();
+    int[] raster = BufferedImages.toRaster(img);
 
     List pixels = new ArrayList();
 
@@ -83,11 +170,11 @@ public class ImageIOFileReader implements IFileReader {
       List temp = new ArrayList();
       for (int j = 0; j < width; j++) {
 
-        rgb = img.getRGB(j, i);
+        rgb = raster[i * width + j];
         red = (rgb >> 16) & 0xFF;
         green = (rgb >> 8) & 0xFF;
         blue = rgb & 0xFF;
-        Color color = new Color(red, green, blue);
+        Color color = Color.of(red, green, blue);
         temp.add(new PixelImpl(new Posn(j, i), color));
       }
       pixels.add(temp);
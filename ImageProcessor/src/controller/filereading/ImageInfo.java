@@ -0,0 +1,119 @@
+package controller.filereading;
+
+/**
+ * Class holding what the header of an image file says about the image, read without decoding any
+ * pixels. It is used to check that a file can be loaded, and how, before memory is allocated for
+ * it.
+ */
+public final class ImageInfo {
+
+  private final int width;
+  private final int height;
+  private final String format;
+  private final int bitDepth;
+  private final int maxValue;
+
+  /**
+   * Constructs the description of an image whose channels use their full bit depth.
+   *
+   * @param width    width of the image.
+   * @param height   height of the image.
+   * @param format   name of the format of the file, such as "P6" or "png".
+   * @param bitDepth number of bits stored for each channel of a pixel.
+   * @throws IllegalArgumentException If the format is null or a value is negative.
+   */
+  public ImageInfo(int width, int height, String format, int bitDepth)
+      throws IllegalArgumentException {
+    this(width, height, format, bitDepth, bitDepth >= 31 ? Integer.MAX_VALUE
+        : (1 << Math.max(bitDepth, 0)) - 1);
+  }
+
+  /**
+   * Constructs the description of an image.
+   *
+   * @param width    width of the image.
+   * @param height   height of the image.
+   * @param format   name of the format of the file, such as "P6" or "png".
+   * @param bitDepth number of bits stored for each channel of a pixel.
+   * @param maxValue largest value of a channel, which stands for full intensity.
+   * @throws IllegalArgumentException If the format is null or a value is negative.
+   */
+  public ImageInfo(int width, int height, String format, int bitDepth, int maxValue)
+      throws IllegalArgumentException {
+    if (format == null) {
+      throw new IllegalArgumentException("Format can't be null.");
+    }
+    if (width < 0 || height < 0 || bitDepth < 0 || maxValue < 0) {
+      throw new IllegalArgumentException("Invalid image size.");
+    }
+    this.width = width;
+    this.height = height;
+    this.format = format;
+    this.bitDepth = bitDepth;
+    this.maxValue = maxValue;
+  }
+
+  /**
+   * Gets the width of the image.
+   *
+   * @return the width in pixels.
+   */
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Gets the height of the image.
+   *
+   * @return the height in pixels.
+   */
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Gets the name of the format of the file.
+   *
+   * @return the format, such as "P6" or "png".
+   */
+  public String getFormat() {
+    return this.format;
+  }
+
+  /**
+   * Gets the number of bits stored for each channel of a pixel in the file.
+   *
+   * @return the bit depth, such as 8 or 16.
+   */
+  public int getBitDepth() {
+    return this.bitDepth;
+  }
+
+  /**
+   * Gets the largest value of a channel in the file, which stands for full intensity.
+   *
+   * @return the maximum value, such as 255.
+   */
+  public int getMaxValue() {
+    return this.maxValue;
+  }
+
+  /**
+   * Gets the number of pixels in the image.
+   *
+   * @return width times height.
+   */
+  public long getPixelCount() {
+    return (long) this.width * this.height;
+  }
+
+  /**
+   * Estimates the memory taken by the image once it is decoded, which is one packed int per
+   * pixel.
+   *
+   * @return the decoded size in bytes.
+   */
+  public long getDecodedSize() {
+    return this.getPixelCount() * Integer.BYTES;
+  }
+}
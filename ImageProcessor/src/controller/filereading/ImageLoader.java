@@ -0,0 +1,137 @@
+package controller.filereading;
+
+import java.io.IOException;
+
+import model.imaging.PixelImage;
+
+/**
+ * Class that loads image files of any supported type, choosing the reader from the extension of
+ * the file. The header of the file is probed first, so files that can't be loaded are rejected
+ * before any memory is allocated for their pixels, and binary PPM files too large for the heap are
+ * memory mapped instead of decoded. A region or a subsampled preview of a file can be loaded
+ * without decoding the rest of it.
+ */
+public final class ImageLoader {
+
+  /**
+   * Private constructor, this class only contains static methods.
+   */
+  private ImageLoader() {
+    // utility class
+  }
+
+  /**
+   * Gets the reader for the given file based on its extension.
+   *
+   * @param filename the path of the file.
+   * @return a PPM reader for ppm and pgm files, an ImageIO reader otherwise.
+   * @throws IllegalArgumentException If the filename is null.
+   */
+  public static IFileReader readerFor(String filename) throws IllegalArgumentException {
+    if (filename == null) {
+      throw new IllegalArgumentException("Filename cannot be null.");
+    }
+    String extension = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase();
+    if (extension.equals("ppm") || extension.equals("pgm")) {
+      return new PPMFileReader();
+    }
+    return new ImageIOFileReader();
+  }
+
+  /**
+   * Loads the given file with the reader for its extension.
+   *
+   * @param filename the path of the file.
+   * @return the image of the file.
+   * @throws IOException              If the file can't be read.
+   * @throws IllegalArgumentException If the filename is null, the file is not a valid image, or it
+   *                                  is too large to be loaded.
+   */
+  public static PixelImage load(String filename) throws IOException, IllegalArgumentException {
+    return load(filename, readerFor(filename), DecodeOptions.full());
+  }
+
+  /**
+   * Loads the part of the given file described by the options with the reader for its extension.
+   *
+   * @param filename the path of the file.
+   * @param options  the region and subsampling to decode.
+   * @return the decoded part of the image.
+   * @throws IOException              If the file can't be read.
+   * @throws IllegalArgumentException If an argument is null, the file is not a valid image, the
+   *                                  region is outside of the image, or it is too large to be
+   *                                  loaded.
+   */
+  public static PixelImage load(String filename, DecodeOptions options)
+      throws IOException, IllegalArgumentException {
+    return load(filename, readerFor(filename), options);
+  }
+
+  /**
+   * Loads the given file with the given reader.
+   *
+   * @param filename the path of the file.
+   * @param reader   the reader for the type of the file.
+   * @return the image of the file.
+   * @throws IOException              If the file can't be read.
+   * @throws IllegalArgumentException If an argument is null, the file is not a valid image, or it
+   *                                  is too large to be loaded.
+   */
+  public static PixelImage load(String filename, IFileReader reader)
+      throws IOException, IllegalArgumentException {
+    return load(filename, reader, DecodeOptions.full());
+  }
+
+  /**
+   * Loads the part of the given file described by the options with the given reader. The size of
+   * the decoded part is worked out from the header first. Whole binary 8 bit PPM and PGM files
+   * that would not fit in the free memory are memory mapped, other files are decoded.
+   *
+   * @param filename the path of the file.
+   * @param reader   the reader for the type of the file.
+   * @param options  the region and subsampling to decode.
+   * @return the decoded part of the image.
+   * @throws IOException              If the file can't be read.
+   * @throws IllegalArgumentException If an argument is null, the file is not a valid image, the
+   *                                  region is outside of the image, or it is too large to be
+   *                                  loaded.
+   */
+  public static PixelImage load(String filename, IFileReader reader, DecodeOptions options)
+      throws IOException, IllegalArgumentException {
+    if (reader == null || options == null) {
+      throw new IllegalArgumentException("Argument cannot be null.");
+    }
+    ImageInfo info = reader.probe(filename);
+    long pixels = (long) options.decodedLength(options.getRegionWidth(info.getWidth()))
+        * options.decodedLength(options.getRegionHeight(info.getHeight()));
+    if (pixels > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Image is too large to load.");
+    }
+    long decodedSize = pixels * Integer.BYTES;
+    Runtime runtime = Runtime.getRuntime();
+    long free = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+    if (decodedSize > free) {
+      if (options.isFull() && reader instanceof PPMFileReader && isMappable(info)) {
+        return ((PPMFileReader) reader).mapImageFromFile(filename);
+      }
+      // memory that is in use now might still be freed, but never more than the heap
+      if (decodedSize > runtime.maxMemory()) {
+        throw new IllegalArgumentException("Image is too large to load: it needs "
+            + (decodedSize >> 20) + " MB of memory.");
+      }
+    }
+    return reader.readImageFromFile(filename, options);
+  }
+
+  /**
+   * Checks if the described file can be memory mapped, which needs raw bytes of 8 bits that
+   * don't need scaling.
+   *
+   * @param info the header of the file.
+   * @return true if the file is a binary PPM or PGM file with a maximum value of 255.
+   */
+  private static boolean isMappable(ImageInfo info) {
+    return (info.getFormat().equals("P6") || info.getFormat().equals("P5"))
+        && info.getBitDepth() == 8 && info.getMaxValue() == 255;
+  }
+}
@@ -0,0 +1,219 @@
+package controller.filereading;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import controller.filewriting.LayerContainerWriter;
+import model.ILayerSource;
+import model.imaging.Image;
+import model.imaging.PixelImage;
+import model.imaging.RasterCodec;
+
+/**
+ * Class that reads a multi layer image written by LayerContainerWriter. Opening a file only reads
+ * its index, so the layers can be listed straight away however large they are. The raster of a
+ * layer is read and decompressed when the layer is asked for, and checked against the checksum
+ * in the index.
+ */
+public final class LayerContainerReader implements ILayerSource {
+
+  private final Path path;
+  private final Map<String, Entry> entries;
+  private final List<String> hidden;
+
+  /**
+   * The position and size of a layer in the file.
+   */
+  private static final class Entry {
+    private final int width;
+    private final int height;
+    private final long offset;
+    private final long length;
+    private final int checksum;
+
+    private Entry(int width, int height, long offset, long length, int checksum) {
+      this.width = width;
+      this.height = height;
+      this.offset = offset;
+      this.length = length;
+      this.checksum = checksum;
+    }
+  }
+
+  /**
+   * Constructs a reader for the given file with its index already read.
+   *
+   * @param path    the path of the file.
+   * @param entries the layers by id, in order.
+   * @param hidden  ids of the invisible layers.
+   */
+  private LayerContainerReader(Path path, Map<String, Entry> entries, List<String> hidden) {
+    this.path = path;
+    this.entries = entries;
+    this.hidden = hidden;
+  }
+
+  /**
+   * Opens the given file, reading its index.
+   *
+   * @param filename the path of the file.
+   * @return a reader for the layers of the file.
+   * @throws IOException              If the file can't be read.
+   * @throws IllegalArgumentException If the filename is null, or the file is not a valid layer
+   *                                  file.
+   */
+  public static LayerContainerReader open(String filename)
+      throws IOException, IllegalArgumentException {
+    if (filename == null) {
+      throw new IllegalArgumentException("Filename cannot be null.");
+    }
+    Path path = Paths.get(filename);
+    long size = Files.size(path);
+    Map<String, Entry> entries = new LinkedHashMap<>();
+    List<String> hidden = new ArrayList<>();
+    try (InputStream stream = Files.newInputStream(path)) {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+      if (in.readInt() != LayerContainerWriter.MAGIC) {
+        throw new IllegalArgumentException("File is not a layer file.");
+      }
+      if (in.readInt() != LayerContainerWriter.VERSION) {
+        throw new IllegalArgumentException("Unsupported layer file version.");
+      }
+      int count = in.readInt();
+      if (count < 0) {
+        throw new IllegalArgumentException("Invalid layer count.");
+      }
+      for (int i = 0; i < count; i++) {
+        String id = in.readUTF();
+        int flags = in.readUnsignedByte();
+        Entry entry = new Entry(in.readInt(), in.readInt(), in.readLong(), in.readLong(),
+            in.readInt());
+        if (entry.width < 0 || entry.height < 0
+            || (long) entry.width * entry.height > Integer.MAX_VALUE - 8) {
+          throw new IllegalArgumentException("Invalid size for layer " + id + ".");
+        }
+        if (entry.offset < 0 || entry.length < 0 || entry.length > Integer.MAX_VALUE - 8
+            || entry.offset + entry.length > size) {
+          throw new IllegalArgumentException("Layer " + id + " is outside of the file.");
+        }
+        if (entries.put(id, entry) != null) {
+          throw new IllegalArgumentException("Layer " + id + " is stored twice.");
+        }
+        if ((flags & LayerContainerWriter.HIDDEN) != 0) {
+          hidden.add(id);
+        }
+      }
+    } catch (EOFException e) {
+      throw new IllegalArgumentException("Layer file is truncated.");
+    }
+    return new LayerContainerReader(path, entries, hidden);
+  }
+
+  @Override
+  public List<String> getLayerIds() {
+    return new ArrayList<>(this.entries.keySet());
+  }
+
+  @Override
+  public List<String> getHiddenIds() {
+    return Collections.unmodifiableList(this.hidden);
+  }
+
+  /**
+   * Gets the size of the layer with the given id without reading it.
+   *
+   * @param id Id of the layer.
+   * @return the size of the layer, in the format "IPLY" with a bit depth of 8.
+   * @throws IllegalArgumentException If there is no layer with the id.
+   */
+  public ImageInfo probe(String id) throws IllegalArgumentException {
+    Entry entry = this.entry(id);
+    return new ImageInfo(entry.width, entry.height, "IPLY", 8);
+  }
+
+  /**
+   * Copies the compressed raster of the layer with the given id to the given stream, without
+   * decompressing it. The bytes are checked against the checksum of the layer as they are copied.
+   *
+   * @param id  Id of the layer.
+   * @param out the stream to copy to, which is not closed.
+   * @return the CRC-32 of the copied bytes.
+   * @throws IOException              If the file can't be read or the stream can't be written.
+   * @throws IllegalArgumentException If there is no layer with the id, or the copied bytes don't
+   *                                  match its checksum. Some bytes may have been copied already.
+   */
+  public int copyLayer(String id, OutputStream out) throws IOException, IllegalArgumentException {
+    Entry entry = this.entry(id);
+    CRC32 crc = new CRC32();
+    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(entry.length, 1 << 16));
+    try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+      long copied = 0;
+      while (copied < entry.length) {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), entry.length - copied));
+        int read = channel.read(buffer, entry.offset + copied);
+        if (read < 0) {
+          throw new IllegalArgumentException("Layer file is truncated.");
+        }
+        crc.update(buffer.array(), 0, read);
+        out.write(buffer.array(), 0, read);
+        copied += read;
+      }
+    }
+    if ((int) crc.getValue() != entry.checksum) {
+      throw new IllegalArgumentException("Layer " + id + " is corrupt.");
+    }
+    return entry.checksum;
+  }
+
+  @Override
+  public PixelImage readLayer(String id) throws IOException, IllegalArgumentException {
+    Entry entry = this.entry(id);
+    ByteBuffer data = ByteBuffer.allocate((int) entry.length);
+    try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+      while (data.hasRemaining()) {
+        if (channel.read(data, entry.offset + data.position()) < 0) {
+          throw new IllegalArgumentException("Layer file is truncated.");
+        }
+      }
+    }
+    CRC32 crc = new CRC32();
+    crc.update(data.array());
+    if ((int) crc.getValue() != entry.checksum) {
+      throw new IllegalArgumentException("Layer " + id + " is corrupt.");
+    }
+    return Image.adopt(entry.width, entry.height,
+        RasterCodec.decode(data.array(), entry.width, entry.height));
+  }
+
+  /**
+   * Gets the index entry of the layer with the given id.
+   *
+   * @param id Id of the layer.
+   * @return the entry of the layer.
+   * @throws IllegalArgumentException If there is no layer with the id.
+   */
+  private Entry entry(String id) throws IllegalArgumentException {
+    Entry entry = this.entries.get(id);
+    if (entry == null) {
+      throw new IllegalArgumentException("No layer with id " + id + ".");
+    }
+    return entry;
+  }
+}
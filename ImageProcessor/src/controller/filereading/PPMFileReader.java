@@ -2,72 +2,267 @@ package controller.filereading;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.util.ArrayList;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
-import model.imaging.Color;
 import model.imaging.Image;
+import model.imaging.MappedImage;
+import model.imaging.PackedColor;
 import model.imaging.PixelImage;
-import model.imaging.Posn;
-import model.imaging.pixel.IPixel;
-import model.imaging.pixel.PixelImpl;
 
 
 /**
- * This class contains utility methods to read a PPM image from file and simply print its contents.
- * Feel free to change this method as required.
+ * This class reads PPM images from file. Plain P3 files as well as binary P6 files and P5
+ * greyscale files are supported, with 8 or 16 bit values.
  */
 public class PPMFileReader implements IFileReader {
 
   @Override
-  public PixelImage readImageFromFile(String filename) throws IllegalArgumentException {
-    Scanner sc;
+  public PixelImage readImageFromFile(String filename)
+          throws IllegalArgumentException, IOException {
+    return this.readImageFromFile(filename, DecodeOptions.full());
+  }
 
+  /**
+   * Reads the part of the file described by the options. Rows above and below the region are
+   * skipped without being decoded, binary files skip the columns outside of the region as well.
+   * The file is not read past the last row of the region.
+   *
+   * @param filename the path of the file.
+   * @param options  the region and subsampling to decode.
+   * @return the decoded part of the image.
+   * @throws IOException              If the file can't be read.
+   * @throws IllegalArgumentException If an argument is null, the file cannot be found, it is not a
+   *                                  valid PPM file, or the region is outside of the image.
+   */
+  @Override
+  public PixelImage readImageFromFile(String filename, DecodeOptions options)
+          throws IllegalArgumentException, IOException {
     if (filename == null) {
       throw new IllegalArgumentException("Name cannot be null");
     }
+    if (options == null) {
+      throw new IllegalArgumentException("Options cannot be null");
+    }
 
+    InputStream in;
     try {
-      sc = new Scanner(new FileInputStream(filename));
+      in = new FileInputStream(filename);
     } catch (FileNotFoundException e) {
       throw new IllegalArgumentException("File could not be found");
     }
-    StringBuilder builder = new StringBuilder();
-    //read the file line by line, and populate a string. This will throw away any comment lines
-    while (sc.hasNextLine()) {
-      String s = sc.nextLine();
-      if (s.charAt(0) != '#') {
-        builder.append(s + System.lineSeparator());
-      }
+    try {
+      return readImage(new PPMTokenizer(in), options);
+    } finally {
+      in.close();
+    }
+  }
+
+  @Override
+  public ImageInfo probe(String filename) throws IllegalArgumentException, IOException {
+    if (filename == null) {
+      throw new IllegalArgumentException("Name cannot be null");
     }
 
-    //now set up the scanner to read from the string we just built
-    sc = new Scanner(builder.toString());
+    InputStream in;
+    try {
+      in = new FileInputStream(filename);
+    } catch (FileNotFoundException e) {
+      throw new IllegalArgumentException("File could not be found");
+    }
+    try {
+      PPMTokenizer tokens = new PPMTokenizer(in);
+      String magicNumber = readMagicNumber(tokens);
+      int width = tokens.nextInt();
+      int height = tokens.nextInt();
+      int maxValue = tokens.nextInt();
+      return new ImageInfo(width, height, magicNumber, maxValue > 255 ? 16 : 8, maxValue);
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Maps a binary P6 or P5 file with a maximum value of 255 into memory instead of reading it. The
+   * returned image reads its pixels straight from the file, so it can be larger than the heap. The
+   * file must not be changed while the image is in use.
+   *
+   * @param filename the path of the file.
+   * @return the image backed by the file.
+   * @throws IOException              If the file can't be read or mapped.
+   * @throws IllegalArgumentException If the filename is null, the file cannot be found, or it is
+   *                                  not a binary file with a maximum value of 255.
+   */
+  public PixelImage mapImageFromFile(String filename)
+          throws IllegalArgumentException, IOException {
+    if (filename == null) {
+      throw new IllegalArgumentException("Name cannot be null");
+    }
 
-    String token;
+    FileChannel channel;
+    try {
+      channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+    } catch (NoSuchFileException e) {
+      throw new IllegalArgumentException("File could not be found");
+    }
+    try {
+      PPMTokenizer tokens = new PPMTokenizer(Channels.newInputStream(channel));
+      String magicNumber = tokens.nextToken();
+      if (!magicNumber.equals("P6") && !magicNumber.equals("P5")) {
+        throw new IllegalArgumentException("Invalid PPM file: only P5 and P6 files can be mapped");
+      }
+      int width = tokens.nextInt();
+      int height = tokens.nextInt();
+      if (tokens.nextInt() != 255) {
+        throw new IllegalArgumentException("Invalid PPM file: only 8 bit files can be mapped");
+      }
+      tokens.skipHeaderEnd();
+      return MappedImage.map(channel, tokens.getOffset(), width, height,
+              magicNumber.equals("P5") ? 1 : 3);
+    } finally {
+      channel.close();
+    }
+  }
 
-    token = sc.next();
-    if (!token.equals("P3")) {
-      throw new IllegalArgumentException("Invalid PPM file: plain RAW file should begin with P3");
+  /**
+   * Reads a PPM image from the given tokens.
+   *
+   * @param tokens  the tokens of the file.
+   * @param options the region and subsampling to decode.
+   * @return the image.
+   * @throws IOException              If the file can't be read.
+   * @throws IllegalArgumentException If the file is not a valid PPM file or the region is outside
+   *                                  of the image.
+   */
+  private static PixelImage readImage(PPMTokenizer tokens, DecodeOptions options)
+          throws IOException, IllegalArgumentException {
+    String magicNumber = readMagicNumber(tokens);
+    int width = tokens.nextInt();
+    int height = tokens.nextInt();
+    int maxValue = tokens.nextInt();
+    if ((long) width * height > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid PPM file: image is too large");
+    }
+    if (!magicNumber.equals("P3")) {
+      if (maxValue < 1 || maxValue > 65535) {
+        throw new IllegalArgumentException("Invalid PPM file: maximum value must be 1-65535");
+      }
+      tokens.skipHeaderEnd();
+      return readBinary(tokens, width, height, maxValue, magicNumber.equals("P5") ? 1 : 3,
+              options);
     }
-    int width = sc.nextInt();
-    int height = sc.nextInt();
-    int maxValue = sc.nextInt();
 
-    ArrayList<ArrayList<IPixel>> pixels = new ArrayList<>();
-    for (int i = 0; i < height; i++) {
-      ArrayList<IPixel> row = new ArrayList<>();
+    int regionWidth = options.getRegionWidth(width);
+    int regionHeight = options.getRegionHeight(height);
+    int step = options.getStep();
+    int decodedWidth = options.decodedLength(regionWidth);
+    int[] pixels = new int[decodedWidth * options.decodedLength(regionHeight)];
+    // every value has to be tokenized, but only the ones in the region are kept
+    for (int i = 0; i < options.getY() + regionHeight; i++) {
+      int row = i - options.getY();
+      boolean keepRow = row >= 0 && row % step == 0;
       for (int j = 0; j < width; j++) {
-        int r = sc.nextInt();
-        int g = sc.nextInt();
-        int b = sc.nextInt();
-        row.add(new PixelImpl(new Posn(j, i), new Color(r, g, b)));
+        int r = tokens.nextInt();
+        int g = tokens.nextInt();
+        int b = tokens.nextInt();
+        if (r > 255 || g > 255 || b > 255) {
+          throw new IllegalArgumentException("Values must be between 0-255");
+        }
+        int column = j - options.getX();
+        if (keepRow && column >= 0 && column < regionWidth && column % step == 0) {
+          pixels[(row / step) * decodedWidth + column / step] = PackedColor.pack(r, g, b);
+        }
+      }
+    }
+    return Image.adopt(decodedWidth, options.decodedLength(regionHeight), pixels);
+  }
+
+  /**
+   * Reads the magic number at the start of a file.
+   *
+   * @param tokens the tokens of the file.
+   * @return "P3", "P5" or "P6".
+   * @throws IOException              If the file can't be read.
+   * @throws IllegalArgumentException If the file starts with anything else.
+   */
+  private static String readMagicNumber(PPMTokenizer tokens)
+          throws IOException, IllegalArgumentException {
+    String magicNumber = tokens.nextToken();
+    if (!magicNumber.equals("P3") && !magicNumber.equals("P6") && !magicNumber.equals("P5")) {
+      throw new IllegalArgumentException("Invalid PPM file: file should begin with P3, P5 or P6");
+    }
+    return magicNumber;
+  }
 
+  /**
+   * Reads the raster of a binary P6 or P5 file one row at a time. Values are scaled from the
+   * maximum value of the file to 0-255, values of more than 255 take two bytes each. Rows and
+   * columns outside of the region are skipped without being read.
+   *
+   * @param tokens   the tokens of the file, positioned at the start of the raster.
+   * @param width    width of the image.
+   * @param height   height of the image.
+   * @param maxValue the maximum value of the file.
+   * @param channels 3 for P6 files, 1 for P5 files.
+   * @param options  the region and subsampling to decode.
+   * @return the image.
+   * @throws IOException              If the file can't be read.
+   * @throws IllegalArgumentException If the file ends early, a value is over the maximum or the
+   *                                  region is outside of the image.
+   */
+  private static PixelImage readBinary(PPMTokenizer tokens, int width, int height, int maxValue,
+                                       int channels, DecodeOptions options)
+          throws IOException, IllegalArgumentException {
+    int bytesPerValue = maxValue > 255 ? 2 : 1;
+    int[] scale = null;
+    if (maxValue != 255) {
+      scale = new int[maxValue + 1];
+      for (int v = 0; v <= maxValue; v++) {
+        scale[v] = (int) ((v * 255L + maxValue / 2) / maxValue);
       }
-      pixels.add(row);
     }
-    return new Image(pixels);
+
+    int regionWidth = options.getRegionWidth(width);
+    int regionHeight = options.getRegionHeight(height);
+    int step = options.getStep();
+    int decodedWidth = options.decodedLength(regionWidth);
+    int decodedHeight = options.decodedLength(regionHeight);
+    int pixelBytes = channels * bytesPerValue;
+    long rowBytes = (long) width * pixelBytes;
+
+    int[] pixels = new int[decodedWidth * decodedHeight];
+    byte[] row = new byte[regionWidth * pixelBytes];
+    int[] values = new int[3];
+    tokens.skipBytes(options.getY() * rowBytes + (long) options.getX() * pixelBytes);
+    for (int i = 0; i < decodedHeight; i++) {
+      if (i > 0) {
+        // from the end of the region in the last row read to its start in the next row kept
+        tokens.skipBytes(step * rowBytes - row.length);
+      }
+      tokens.readBytes(row, 0, row.length);
+      for (int j = 0; j < decodedWidth; j++) {
+        int k = j * step * pixelBytes;
+        for (int c = 0; c < channels; c++) {
+          int v = row[k++] & 0xFF;
+          if (bytesPerValue == 2) {
+            v = (v << 8) | (row[k++] & 0xFF);
+          }
+          if (v > maxValue) {
+            throw new IllegalArgumentException("Values must be between 0-" + maxValue);
+          }
+          values[c] = scale == null ? v : scale[v];
+        }
+        pixels[i * decodedWidth + j] = channels == 1
+                ? PackedColor.pack(values[0], values[0], values[0])
+                : PackedColor.pack(values[0], values[1], values[2]);
+      }
+    }
+    return Image.adopt(decodedWidth, decodedHeight, pixels);
   }
 
 }
-
@@ -0,0 +1,214 @@
+package controller.filereading;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Class that splits the text of a PPM file into tokens. The stream is read in large blocks and
+ * numbers are parsed straight from the bytes. Comments start with a '#' anywhere a space could be,
+ * including in the middle of a line, and run to the end of the line. The raster of a binary file
+ * is read as raw bytes once the header has been tokenized.
+ */
+public final class PPMTokenizer {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final InputStream in;
+  private final byte[] buffer;
+  private int position;
+  private int limit;
+  // number of bytes taken from the stream so far
+  private long streamRead;
+
+  /**
+   * Constructs a tokenizer over the given stream. The stream is not closed by the tokenizer.
+   *
+   * @param in the stream to read from.
+   * @throws IllegalArgumentException If the stream is null.
+   */
+  public PPMTokenizer(InputStream in) throws IllegalArgumentException {
+    if (in == null) {
+      throw new IllegalArgumentException("Stream can't be null.");
+    }
+    this.in = in;
+    this.buffer = new byte[BUFFER_SIZE];
+    this.position = 0;
+    this.limit = 0;
+    this.streamRead = 0;
+  }
+
+  /**
+   * Gets the number of bytes of the stream that have been consumed, which after the header of a
+   * binary file is the position of its raster.
+   *
+   * @return the offset of the next unread byte.
+   */
+  public long getOffset() {
+    return this.streamRead - (this.limit - this.position);
+  }
+
+  /**
+   * Reads the next token, a run of characters up to a space or a comment.
+   *
+   * @return the token.
+   * @throws IOException              If the stream can't be read.
+   * @throws IllegalArgumentException If there are no more tokens.
+   */
+  public String nextToken() throws IOException, IllegalArgumentException {
+    skipSeparators();
+    StringBuilder token = new StringBuilder();
+    int c = peek();
+    while (c != -1 && !isSeparator(c)) {
+      token.append((char) c);
+      this.position++;
+      c = peek();
+    }
+    if (token.length() == 0) {
+      throw new IllegalArgumentException("Invalid PPM file: unexpected end of file");
+    }
+    return token.toString();
+  }
+
+  /**
+   * Reads the next token as a non negative integer.
+   *
+   * @return the value of the token.
+   * @throws IOException              If the stream can't be read.
+   * @throws IllegalArgumentException If there are no more tokens or the token is not a number.
+   */
+  public int nextInt() throws IOException, IllegalArgumentException {
+    skipSeparators();
+    int c = peek();
+    if (c == -1) {
+      throw new IllegalArgumentException("Invalid PPM file: unexpected end of file");
+    }
+    long value = 0;
+    int digits = 0;
+    while (c >= '0' && c <= '9') {
+      value = value * 10 + (c - '0');
+      if (value > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Invalid PPM file: number is too large");
+      }
+      digits++;
+      this.position++;
+      c = peek();
+    }
+    if (digits == 0 || (c != -1 && !isSeparator(c))) {
+      throw new IllegalArgumentException("Invalid PPM file: expected a number");
+    }
+    return (int) value;
+  }
+
+  /**
+   * Reads the single space that separates the header of a binary file from its raster.
+   *
+   * @throws IOException              If the stream can't be read.
+   * @throws IllegalArgumentException If the next byte is not a space.
+   */
+  public void skipHeaderEnd() throws IOException, IllegalArgumentException {
+    int c = peek();
+    if (c == -1 || c == '#' || !isSeparator(c)) {
+      throw new IllegalArgumentException("Invalid PPM file: expected a space after the header");
+    }
+    this.position++;
+  }
+
+  /**
+   * Reads exactly the given number of raw bytes.
+   *
+   * @param dest   the array to read into.
+   * @param offset index in the array of the first byte.
+   * @param length number of bytes to read.
+   * @throws IOException              If the stream can't be read.
+   * @throws IllegalArgumentException If the stream ends first.
+   */
+  public void readBytes(byte[] dest, int offset, int length)
+          throws IOException, IllegalArgumentException {
+    int buffered = Math.min(length, this.limit - this.position);
+    System.arraycopy(this.buffer, this.position, dest, offset, buffered);
+    this.position += buffered;
+    int read = buffered;
+    while (read < length) {
+      int n = this.in.read(dest, offset + read, length - read);
+      if (n < 0) {
+        throw new IllegalArgumentException("Invalid PPM file: unexpected end of file");
+      }
+      this.streamRead += n;
+      read += n;
+    }
+  }
+
+  /**
+   * Skips the given number of raw bytes. Bytes past the end of the stream are not noticed until
+   * something is read after them.
+   *
+   * @param length number of bytes to skip.
+   * @throws IOException If the stream can't be read.
+   */
+  public void skipBytes(long length) throws IOException {
+    int buffered = (int) Math.min(length, this.limit - this.position);
+    this.position += buffered;
+    long remaining = length - buffered;
+    while (remaining > 0) {
+      long n = this.in.skip(remaining);
+      if (n <= 0) {
+        // skip can stop early for no reason, reading tells if the stream really ended
+        if (this.in.read() < 0) {
+          return;
+        }
+        n = 1;
+      }
+      this.streamRead += n;
+      remaining -= n;
+    }
+  }
+
+  /**
+   * Skips spaces and comments up to the start of the next token.
+   *
+   * @throws IOException If the stream can't be read.
+   */
+  private void skipSeparators() throws IOException {
+    int c = peek();
+    while (c != -1 && isSeparator(c)) {
+      this.position++;
+      if (c == '#') {
+        c = peek();
+        while (c != -1 && c != '\n' && c != '\r') {
+          this.position++;
+          c = peek();
+        }
+      }
+      c = peek();
+    }
+  }
+
+  /**
+   * Returns the next byte of the stream without consuming it, refilling the buffer if needed.
+   *
+   * @return the next byte, or -1 at the end of the stream.
+   * @throws IOException If the stream can't be read.
+   */
+  private int peek() throws IOException {
+    if (this.position == this.limit) {
+      this.position = 0;
+      this.limit = Math.max(0, this.in.read(this.buffer));
+      this.streamRead += this.limit;
+      if (this.limit == 0) {
+        return -1;
+      }
+    }
+    return this.buffer[this.position] & 0xFF;
+  }
+
+  /**
+   * Checks if the given character separates tokens.
+   *
+   * @param c the character.
+   * @return true if the character is a space or starts a comment.
+   */
+  private static boolean isSeparator(int c) {
+    return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == 0x0B
+            || c == '#';
+  }
+}
@@ -1,14 +1,18 @@
 package controller.filewriting;
 
-import java.awt.Color;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Arrays;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
 
+import model.imaging.BufferedImages;
+import model.imaging.FileReplacer;
 import model.imaging.PixelImage;
 
 /**
@@ -48,31 +52,38 @@ public abstract class AbstractImageIOWriter implements IImageFileWriter {
     if (filename == null || image == null) {
       throw new IllegalArgumentException("Argument cannot be null.");
     }
-    File file = new File(filename);
-    File parent = file.getParentFile();
-    if (parent != null) {
-      parent.mkdirs();
-    }
-    FileOutputStream output = new FileOutputStream(file);
-
-    int height = image.getPixels().size();
-    int width = image.getPixels().get(0).size();
-
-    BufferedImage outputImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    BufferedImage outputImage = BufferedImages.toBufferedImage(image);
 
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        int red = image.getPixels().get(i).get(j).getColor().getRed();
-        int green = image.getPixels().get(i).get(j).getColor().getGreen();
-        int blue = image.getPixels().get(i).get(j).getColor().getBlue();
-
-        Color pixelColor = new Color(red, green, blue);
-        outputImage.setRGB(j, i, pixelColor.getRGB());
-      }
+    ImageWriter writer = ImageIO.getImageWritersByFormatName(this.fileType).next();
+    ImageWriteParam param = writer.getDefaultWriteParam();
+    this.configure(param);
+    try {
+      FileReplacer.replace(filename, file -> {
+        FileOutputStream output = new FileOutputStream(file.toFile());
+        try {
+          ImageOutputStream stream = ImageIO.createImageOutputStream(output);
+          try {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(outputImage, null, null), param);
+          } finally {
+            stream.close();
+          }
+        } finally {
+          output.close();
+        }
+      });
+    } finally {
+      writer.dispose();
     }
+  }
 
-    ImageIO.write(outputImage, this.fileType, output);
-    output.close();
-
+  /**
+   * Sets the encoding settings of this writer on the parameters passed to ImageIO. The default
+   * leaves the settings of ImageIO unchanged.
+   *
+   * @param param the parameters of the ImageIO writer for the file type.
+   */
+  protected void configure(ImageWriteParam param) {
+    // ImageIO defaults
   }
 }
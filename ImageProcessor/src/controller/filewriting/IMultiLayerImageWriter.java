@@ -1,8 +1,10 @@
 package controller.filewriting;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import model.imaging.PixelImage;
 
@@ -29,4 +31,23 @@ public interface IMultiLayerImageWriter {
       List<String> visibility)
       throws IllegalArgumentException, IOException;
 
+  /**
+   * Writes the txt file and the image files of the layers that have changed. The image file of an
+   * unchanged layer is kept if it is already there, and its image is never asked for.
+   *
+   * @param filename   Name of the txt file.
+   * @param type       File type for the images to be exported into.
+   * @param ids        Ids of the layers, in order.
+   * @param layers     Gets the image of a layer from its id.
+   * @param visibility List of ids of invisible images.
+   * @param unchanged  Ids of the layers whose image files are the same as the last time they were
+   *                   written.
+   * @throws IllegalArgumentException If any argument is null, or the given file type is not
+   *                                  supported.
+   * @throws IOException              If writing fails at any time.
+   */
+  void writeFile(String filename, String type, List<String> ids,
+      Function<String, PixelImage> layers, List<String> visibility, Collection<String> unchanged)
+      throws IllegalArgumentException, IOException;
+
 }
@@ -1,14 +1,50 @@
 package controller.filewriting;
 
+import javax.imageio.ImageWriteParam;
+
 /**
- * Function object to facilitate the writing of jpeg images.
+ * Function object to facilitate the writing of jpeg images. The quality trades the size of the
+ * file against how closely it matches the image, and progressive files are stored as a series of
+ * scans of increasing detail.
  */
 public class JPEGImageIOWriter extends AbstractImageIOWriter {
 
+  /**
+   * Quality used when none is given, the same as the default of ImageIO.
+   */
+  public static final float DEFAULT_QUALITY = 0.75f;
+
+  private final float quality;
+  private final boolean progressive;
+
   /**
    * Creates a new instance of the object using the type "jpeg".
    */
   public JPEGImageIOWriter() {
+    this(DEFAULT_QUALITY, false);
+  }
+
+  /**
+   * Creates a new instance of the object using the type "jpeg" with the given settings.
+   *
+   * @param quality     quality from 0, the smallest files, to 1, the closest to the image.
+   * @param progressive true to write a progressive file.
+   * @throws IllegalArgumentException If the quality is not between 0 and 1.
+   */
+  public JPEGImageIOWriter(float quality, boolean progressive) throws IllegalArgumentException {
     super("jpeg");
+    if (!(quality >= 0 && quality <= 1)) {
+      throw new IllegalArgumentException("Quality must be between 0 and 1.");
+    }
+    this.quality = quality;
+    this.progressive = progressive;
+  }
+
+  @Override
+  protected void configure(ImageWriteParam param) {
+    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+    param.setCompressionQuality(this.quality);
+    param.setProgressiveMode(this.progressive
+        ? ImageWriteParam.MODE_DEFAULT : ImageWriteParam.MODE_DISABLED);
   }
 }
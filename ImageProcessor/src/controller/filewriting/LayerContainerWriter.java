@@ -0,0 +1,234 @@
+package controller.filewriting;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import controller.filereading.ImageInfo;
+import controller.filereading.LayerContainerReader;
+import model.imaging.PixelImage;
+import model.imaging.RasterCodec;
+
+/**
+ * Function object that writes a multi layer image to a single binary file. The file starts with
+ * a header and an index of the layers, giving the id, visibility, size and position of each layer,
+ * followed by the compressed raster of each layer. A reader only needs the index to list the
+ * layers, and can then read any one layer without reading the others.
+ *
+ * <p>All numbers are big endian. The header is the magic number, the version and the number of
+ * layers, each an int. Each index entry is the id in modified UTF-8 as written by
+ * DataOutputStream, a byte of flags of which bit 0 marks an invisible layer, the width and height
+ * as ints, the offset and length of the raster as longs, and the CRC-32 of the raster as an int.
+ * Rasters are encoded by RasterCodec.
+ */
+public class LayerContainerWriter {
+
+  /**
+   * Magic number at the start of the file, "IPLY" in ASCII.
+   */
+  public static final int MAGIC = 0x49504C59;
+  /**
+   * Version of the format written.
+   */
+  public static final int VERSION = 1;
+  /**
+   * Flag of an invisible layer.
+   */
+  public static final int HIDDEN = 1;
+  /**
+   * Deflate level used when none is given.
+   */
+  public static final int DEFAULT_LEVEL = 4;
+
+  private final int level;
+
+  /**
+   * Creates a writer that compresses layers at the default level.
+   */
+  public LayerContainerWriter() {
+    this(DEFAULT_LEVEL);
+  }
+
+  /**
+   * Creates a writer that compresses layers at the given deflate level.
+   *
+   * @param level deflate level from 0, no compression, to 9, the smallest files.
+   * @throws IllegalArgumentException If the level is not between 0 and 9.
+   */
+  public LayerContainerWriter(int level) throws IllegalArgumentException {
+    if (level < 0 || level > 9) {
+      throw new IllegalArgumentException("Compression level must be between 0 and 9.");
+    }
+    this.level = level;
+  }
+
+  /**
+   * Writes the given layers to a file. The file is written under a temporary name and then
+   * replaces any file of the given name in one step.
+   *
+   * @param filename name of the file.
+   * @param layers   the layers by id, in the order they are stored.
+   * @param hidden   ids of the invisible layers.
+   * @throws IOException              If the file can't be written.
+   * @throws IllegalArgumentException If any argument is null.
+   */
+  public void writeFile(String filename, Map<String, PixelImage> layers, List<String> hidden)
+      throws IOException, IllegalArgumentException {
+    if (layers == null) {
+      throw new IllegalArgumentException("Null parameters.");
+    }
+    this.writeFile(filename, new ArrayList<>(layers.keySet()), layers::get, hidden,
+        Collections.emptySet());
+  }
+
+  /**
+   * Writes the given layers to a file, copying the layers that have not changed from the file
+   * that is already there instead of compressing them again. Only the layers that are compressed
+   * are asked for, so unchanged layers never need to be in memory. A layer is compressed anyway
+   * if the existing file doesn't hold it or its copy there is corrupt. The file is written under a
+   * temporary name and then replaces any file of the given name in one step.
+   *
+   * @param filename  name of the file.
+   * @param ids       ids of the layers, in the order they are stored.
+   * @param layers    gets the image of a layer from its id.
+   * @param hidden    ids of the invisible layers.
+   * @param unchanged ids of the layers that are the same as in the existing file.
+   * @throws IOException              If the file can't be written.
+   * @throws IllegalArgumentException If any argument is null.
+   */
+  public void writeFile(String filename, List<String> ids, Function<String, PixelImage> layers,
+                        List<String> hidden, Collection<String> unchanged)
+      throws IOException, IllegalArgumentException {
+    if (filename == null || ids == null || layers == null || hidden == null
+        || unchanged == null) {
+      throw new IllegalArgumentException("Null parameters.");
+    }
+    long[] offsets = new long[ids.size()];
+    long[] lengths = new long[ids.size()];
+    int[] widths = new int[ids.size()];
+    int[] heights = new int[ids.size()];
+    int[] checksums = new int[ids.size()];
+    int indexSize = index(ids, hidden, widths, heights, offsets, lengths, checksums).length;
+
+    Path target = Paths.get(filename).toAbsolutePath();
+    Files.createDirectories(target.getParent());
+    LayerContainerReader previous = null;
+    if (!unchanged.isEmpty() && Files.isRegularFile(target)) {
+      try {
+        previous = LayerContainerReader.open(target.toString());
+      } catch (IllegalArgumentException e) {
+        // not a valid layer file, every layer is compressed again
+      }
+    }
+    Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(),
+        ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+        long position = indexSize;
+        channel.position(position);
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+        for (int i = 0; i < ids.size(); i++) {
+          String id = ids.get(i);
+          boolean copied = false;
+          if (previous != null && unchanged.contains(id)
+              && previous.getLayerIds().contains(id)) {
+            try {
+              checksums[i] = previous.copyLayer(id, out);
+              ImageInfo info = previous.probe(id);
+              widths[i] = info.getWidth();
+              heights[i] = info.getHeight();
+              copied = true;
+            } catch (IllegalArgumentException e) {
+              // the old copy is corrupt, drop what was copied and compress the layer instead
+              out.flush();
+              channel.position(position);
+            }
+          }
+          if (!copied) {
+            PixelImage image = layers.apply(id);
+            if (image == null) {
+              throw new IllegalArgumentException("No image for layer " + id + ".");
+            }
+            CRC32 crc = new CRC32();
+            RasterCodec.encode(image, new CheckedOutputStream(out, crc), this.level);
+            checksums[i] = (int) crc.getValue();
+            widths[i] = image.getWidth();
+            heights[i] = image.getHeight();
+          }
+          out.flush();
+          offsets[i] = position;
+          lengths[i] = channel.position() - position;
+          position = channel.position();
+        }
+        // a dropped copy may have left bytes past the end
+        channel.truncate(position);
+        ByteBuffer index = ByteBuffer.wrap(index(ids, hidden, widths, heights, offsets, lengths,
+            checksums));
+        while (index.hasRemaining()) {
+          channel.write(index, index.position());
+        }
+      }
+      try {
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Creates the header and index of a file.
+   *
+   * @param ids       ids of the layers.
+   * @param hidden    ids of the invisible layers.
+   * @param widths    widths of the layers.
+   * @param heights   heights of the layers.
+   * @param offsets   offsets of the rasters in the file.
+   * @param lengths   lengths of the rasters in bytes.
+   * @param checksums CRC-32 of the rasters.
+   * @return the bytes of the header and index.
+   * @throws IOException If an id is too long to be stored.
+   */
+  private static byte[] index(List<String> ids, List<String> hidden, int[] widths,
+                              int[] heights, long[] offsets, long[] lengths, int[] checksums)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      out.writeUTF(ids.get(i));
+      out.writeByte(hidden.contains(ids.get(i)) ? HIDDEN : 0);
+      out.writeInt(widths[i]);
+      out.writeInt(heights[i]);
+      out.writeLong(offsets[i]);
+      out.writeLong(lengths[i]);
+      out.writeInt(checksums[i]);
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+}
@@ -1,62 +1,207 @@
 package controller.filewriting;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import model.imaging.PixelImage;
 
 /**
  * Function object to facilitate the writing of txt files and images representing a multi layer
- * image.
+ * image. Layers are encoded in parallel.
  */
 public class MultiLayerImageWriter implements IMultiLayerImageWriter {
 
+  private final PPMFormat ppmFormat;
+
+  /**
+   * Creates a writer that exports ppm layers as plain P3 files.
+   */
+  public MultiLayerImageWriter() {
+    this(PPMFormat.PLAIN);
+  }
+
+  /**
+   * Creates a writer that exports ppm layers in the given format.
+   *
+   * @param ppmFormat the format of ppm layers.
+   * @throws IllegalArgumentException If the format is null.
+   */
+  public MultiLayerImageWriter(PPMFormat ppmFormat) throws IllegalArgumentException {
+    if (ppmFormat == null) {
+      throw new IllegalArgumentException("Null parameters.");
+    }
+    this.ppmFormat = ppmFormat;
+  }
+
   @Override
   public void writeFile(String filename, String type, Map<String, PixelImage> layers,
       List<String> visibility) throws IllegalArgumentException, IOException {
-    if (filename == null || type == null || layers == null || visibility == null) {
+    if (layers == null) {
       throw new IllegalArgumentException("Null parameters.");
     }
+    this.writeFile(filename, type, new ArrayList<>(layers.keySet()), layers::get, visibility,
+        Collections.emptySet());
+  }
+
+  /**
+   * Writes the layers on a pool of threads, one layer per task, and then writes the txt file. The
+   * layers and the txt file are written to the directory of the given name, and the txt file is
+   * named after the directory. The txt file is only written once every layer has been written,
+   * and it replaces any earlier txt file in one step, so it never lists layers that are missing or
+   * only partly written.
+   */
+  @Override
+  public void writeFile(String filename, String type, List<String> ids,
+      Function<String, PixelImage> layers, List<String> visibility, Collection<String> unchanged)
+      throws IllegalArgumentException, IOException {
+    if (filename == null || type == null || ids == null || layers == null || visibility == null
+        || unchanged == null) {
+      throw new IllegalArgumentException("Null parameters.");
+    }
+    String extension = type.toLowerCase();
+    if (!extension.equals("png") && !extension.equals("jpeg") && !extension.equals("ppm")) {
+      throw new IllegalArgumentException("Invalid output type.");
+    }
+    Path directory = Paths.get(filename);
+    Files.createDirectories(directory);
     StringBuilder output = new StringBuilder().append(type).append("\n");
-    for (Map.Entry<String, PixelImage> item : layers.entrySet()) {
-      String imageFilename = "";
-      switch (type.toLowerCase()) {
-        case "png":
-          imageFilename = filename + "\\" + item.getKey() + ".png";
-          new PNGImageIOWriter().writeFile(imageFilename, item.getValue());
-          output.append(imageFilename).append(" ").append(item.getKey()).append(" ")
-              .append(this.visibilityStatus(item.getKey(), visibility));
-          break;
-        case "jpeg":
-          imageFilename = filename + "\\" + item.getKey() + ".jpeg";
-          new JPEGImageIOWriter().writeFile(imageFilename, item.getValue());
-          output.append(imageFilename).append(" ").append(item.getKey()).append(" ")
-              .append(this.visibilityStatus(item.getKey(), visibility));
-          break;
-        case "ppm":
-          imageFilename = filename + "\\" + item.getKey() + ".ppm";
-          new PPMFileWriter().writeFile(imageFilename, item.getValue());
-          output.append(imageFilename).append(" ").append(item.getKey()).append(" ")
-              .append(this.visibilityStatus(item.getKey(), visibility));
-          break;
-        default:
-          throw new IllegalArgumentException("Invalid output type.");
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (String id : ids) {
+      Path imageFile = directory.resolve(id + "." + extension);
+      String imageFilename = imageFile.toString();
+      if (!unchanged.contains(id) || !Files.isRegularFile(imageFile)) {
+        PixelImage image = layers.apply(id);
+        if (image == null) {
+          throw new IllegalArgumentException("No image for layer " + id + ".");
+        }
+        IImageFileWriter writer = this.writerFor(extension);
+        tasks.add(() -> {
+          writer.writeFile(imageFilename, image);
+          return null;
+        });
       }
-      output.append("\n");
+      output.append(imageFilename).append(" ").append(id).append(" ")
+          .append(this.visibilityStatus(id, visibility)).append("\n");
     }
-    String pattern = Pattern.quote(System.getProperty("file.separator"));
-    String[] tokens = filename.split(pattern);
-    File textFile = new File(filename + "\\" + tokens[tokens.length - 1] + ".txt");
-    textFile.getParentFile().mkdirs();
-    FileOutputStream stream = new FileOutputStream(textFile);
-    stream.write(output.toString().getBytes());
-    stream.close();
+    this.writeLayers(tasks);
 
+    Path textFile = directory.resolve(directory.getFileName() + ".txt");
+    Path temporary = Files.createTempFile(directory, directory.getFileName().toString(), ".tmp");
+    try {
+      Files.write(temporary, output.toString().getBytes());
+      try {
+        Files.move(temporary, textFile, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, textFile, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
 
+  /**
+   * Creates the writer for layers of the given type.
+   *
+   * @param extension the type of the layers, "png", "jpeg" or "ppm".
+   * @return a new writer.
+   */
+  private IImageFileWriter writerFor(String extension) {
+    switch (extension) {
+      case "png":
+        return new PNGImageIOWriter();
+      case "jpeg":
+        return new JPEGImageIOWriter();
+      default:
+        return new PPMFileWriter(this.ppmFormat);
+    }
+  }
+
+  /**
+   * Runs the writes of the layers, on as many threads as there are processors or layers. Once a
+   * write fails the other writes are cancelled.
+   *
+   * @param tasks the writes of the layers.
+   * @throws IOException If any write fails.
+   */
+  private void writeLayers(List<Callable<Void>> tasks) throws IOException {
+    int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+    if (threads <= 1) {
+      for (Callable<Void> task : tasks) {
+        call(task);
+      }
+      return;
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "layer-export");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      List<Future<Void>> writes = new ArrayList<>();
+      for (Callable<Void> task : tasks) {
+        writes.add(pool.submit(task));
+      }
+      for (Future<Void> write : writes) {
+        try {
+          write.get();
+        } catch (ExecutionException e) {
+          rethrow(e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while writing layers.");
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Runs a write of a layer on the calling thread.
+   *
+   * @param task the write.
+   * @throws IOException If the write fails.
+   */
+  private static void call(Callable<Void> task) throws IOException {
+    try {
+      task.call();
+    } catch (Exception e) {
+      rethrow(e);
+    }
+  }
+
+  /**
+   * Throws the given failure of a write as the exception the write threw.
+   *
+   * @param failure the failure.
+   * @throws IOException If the failure is an IOException.
+   */
+  private static void rethrow(Throwable failure) throws IOException {
+    if (failure instanceof IOException) {
+      throw (IOException) failure;
+    } else if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    throw new IOException(failure);
   }
 
   /**
@@ -1,14 +1,47 @@
 package controller.filewriting;
 
+import javax.imageio.ImageWriteParam;
+
 /**
- * Function object to facilitate the writing of png files.
+ * Function object to facilitate the writing of png files. The compression level is the deflate
+ * level, which trades the time taken to write the file against its size without changing the
+ * image.
  */
 public class PNGImageIOWriter extends AbstractImageIOWriter {
 
+  /**
+   * Compression level used when none is given, the same as the default of ImageIO.
+   */
+  public static final int DEFAULT_LEVEL = 4;
+
+  private final int level;
+
   /**
    * Creates a new instance of the object using the "png" filetype string.
    */
   public PNGImageIOWriter() {
+    this(DEFAULT_LEVEL);
+  }
+
+  /**
+   * Creates a new instance of the object using the "png" filetype string with the given
+   * compression level.
+   *
+   * @param level deflate level from 0, no compression, to 9, the smallest files.
+   * @throws IllegalArgumentException If the level is not between 0 and 9.
+   */
+  public PNGImageIOWriter(int level) throws IllegalArgumentException {
     super("png");
+    if (level < 0 || level > 9) {
+      throw new IllegalArgumentException("Compression level must be between 0 and 9.");
+    }
+    this.level = level;
+  }
+
+  @Override
+  protected void configure(ImageWriteParam param) {
+    // ImageIO picks the deflate level as 9 * (1 - quality), rounded
+    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+    param.setCompressionQuality(1 - this.level / 9f);
   }
 }
@@ -1,55 +1,248 @@
 package controller.filewriting;
 
-import java.io.File;
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.List;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
+import model.imaging.FileReplacer;
+import model.imaging.PPMTextOutput;
+import model.imaging.PackedColor;
 import model.imaging.PixelImage;
-import model.imaging.pixel.IPixel;
 
 /**
- * Class to write PPM ASCII image files from ImageInterface data.
+ * Class to write PPM image files from ImageInterface data, either as plain ASCII or as binary P6
+ * or P5 files.
  */
 public class PPMFileWriter implements IImageFileWriter {
 
+  private final PPMFormat format;
+
+  /**
+   * Creates a writer for plain P3 files.
+   */
+  public PPMFileWriter() {
+    this(PPMFormat.PLAIN);
+  }
+
+  /**
+   * Creates a writer for files of the given format.
+   *
+   * @param format the format to write.
+   * @throws IllegalArgumentException If the format is null.
+   */
+  public PPMFileWriter(PPMFormat format) throws IllegalArgumentException {
+    if (format == null) {
+      throw new IllegalArgumentException("Argument is null.");
+    }
+    this.format = format;
+  }
+
   @Override
   public void writeFile(String filename, PixelImage image)
       throws IOException, IllegalArgumentException {
     if (filename == null || image == null) {
       throw new IllegalArgumentException("Argument is null.");
     }
-    String ppmString = this.generatePPM(image);
-    File file = new File(filename);
-    File parent = file.getParentFile();
-    if (parent != null) {
-      parent.mkdirs();
+    FileReplacer.replace(filename, file -> {
+      if (this.format == PPMFormat.PLAIN) {
+        PPMTextOutput output = new PPMTextOutput(new FileOutputStream(file.toFile()));
+        try {
+          this.writePlain(output, image);
+        } finally {
+          output.close();
+        }
+      } else {
+        OutputStream output = new BufferedOutputStream(new FileOutputStream(file.toFile()),
+            1 << 16);
+        try {
+          this.writeBinary(output, image);
+        } finally {
+          output.close();
+        }
+      }
+    });
+  }
+
+  /**
+   * Writes a binary file through a memory mapped region of the file instead of a stream, one band
+   * of rows at a time, so large images are copied straight into the file.
+   *
+   * @param filename Filename and path of the desired output image
+   * @param image    Image data to be written.
+   * @throws IOException              If the file writing fails.
+   * @throws IllegalArgumentException If the image or filename is null, or the format of this
+   *                                  writer is plain.
+   */
+  public void writeFileMapped(String filename, PixelImage image)
+      throws IOException, IllegalArgumentException {
+    if (filename == null || image == null) {
+      throw new IllegalArgumentException("Argument is null.");
+    }
+    if (this.format == PPMFormat.PLAIN) {
+      throw new IllegalArgumentException("Only binary files can be mapped.");
+    }
+    FileReplacer.replace(filename, file -> this.writeMapped(file, image));
+  }
+
+  /**
+   * Writes a binary file of the given image through memory mapped regions of the file.
+   *
+   * @param file  the file to write.
+   * @param image Image to write.
+   * @throws IOException If writing fails.
+   */
+  private void writeMapped(Path file, PixelImage image) throws IOException {
+    byte[] header = this.header(image);
+    byte[] bytes = new byte[this.rowBytes(image)];
+    // whole rows are mapped at a time, up to about 1 GB per region
+    int rowsPerRegion = (int) Math.max(1, (1L << 30) / Math.max(1, bytes.length));
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    try {
+      MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, 0, header.length);
+      region.put(header);
+      long offset = header.length;
+      int[] row = null;
+      for (int i = 0; i < image.getHeight(); i += rowsPerRegion) {
+        int rows = Math.min(rowsPerRegion, image.getHeight() - i);
+        region = channel.map(FileChannel.MapMode.READ_WRITE, offset, (long) rows * bytes.length);
+        for (int r = 0; r < rows; r++) {
+          row = image.getRow(i + r, row);
+          this.encodeRow(row, image.getWidth(), bytes);
+          region.put(bytes);
+        }
+        offset += (long) rows * bytes.length;
+      }
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Writes the given image to the stream as a binary file of the format of this writer.
+   *
+   * @param output the stream to write to.
+   * @param image  Image to write.
+   * @throws IOException If writing fails.
+   */
+  private void writeBinary(OutputStream output, PixelImage image) throws IOException {
+    output.write(this.header(image));
+
+    int[] row = null;
+    byte[] bytes = new byte[this.rowBytes(image)];
+    for (int i = 0; i < image.getHeight(); i++) {
+      row = image.getRow(i, row);
+      this.encodeRow(row, image.getWidth(), bytes);
+      output.write(bytes);
+    }
+  }
+
+  /**
+   * Gets the header of a binary file of the format of this writer for the given image.
+   *
+   * @param image Image being written.
+   * @return the bytes of the header.
+   */
+  private byte[] header(PixelImage image) {
+    return (this.format.getMagicNumber() + "\n" + image.getWidth() + " " + image.getHeight()
+        + "\n" + this.format.getMaxValue() + "\n").getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Gets the number of bytes taken by a row of the given image in the format of this writer.
+   *
+   * @param image Image being written.
+   * @return the length of a row in bytes.
+   */
+  private int rowBytes(PixelImage image) {
+    return image.getWidth() * this.format.getChannels()
+        * (this.format.getMaxValue() > 255 ? 2 : 1);
+  }
+
+  /**
+   * Encodes a row of packed colors in the format of this writer. Values are written most
+   * significant byte first, as the format requires.
+   *
+   * @param row   the packed colors of the row.
+   * @param width width of the image.
+   * @param bytes the array to encode the row into.
+   */
+  private void encodeRow(int[] row, int width, byte[] bytes) {
+    int bytesPerValue = this.format.getMaxValue() > 255 ? 2 : 1;
+    int k = 0;
+    for (int j = 0; j < width; j++) {
+      int rgb = row[j];
+      if (this.format.getChannels() == 1) {
+        k = put(bytes, k, grey(rgb), bytesPerValue);
+      } else {
+        k = put(bytes, k, PackedColor.red(rgb), bytesPerValue);
+        k = put(bytes, k, PackedColor.green(rgb), bytesPerValue);
+        k = put(bytes, k, PackedColor.blue(rgb), bytesPerValue);
+      }
+    }
+  }
+
+  /**
+   * Puts an 8 bit value into the array, widened to 16 bits if needed.
+   *
+   * @param bytes         the array to write into.
+   * @param index         the index to write at.
+   * @param value         the value, 0-255.
+   * @param bytesPerValue 1 or 2.
+   * @return the index after the value.
+   */
+  private static int put(byte[] bytes, int index, int value, int bytesPerValue) {
+    if (bytesPerValue == 2) {
+      // 255 * 257 = 65535, so every value keeps the same brightness
+      int wide = value * 257;
+      bytes[index++] = (byte) (wide >> 8);
+      bytes[index++] = (byte) wide;
+    } else {
+      bytes[index++] = (byte) value;
     }
-    FileOutputStream fileStream = new FileOutputStream(file);
-    fileStream.write(ppmString.getBytes());
-    fileStream.close();
+    return index;
+  }
+
+  /**
+   * Gets the grey value of a color using the luma weights of the greyscale transformation, so
+   * colors that are already grey keep their value.
+   *
+   * @param rgb the color packed as 0xRRGGBB.
+   * @return the grey value, 0-255.
+   */
+  private static int grey(int rgb) {
+    return (int) Math.round(0.2126 * PackedColor.red(rgb) + 0.7152 * PackedColor.green(rgb)
+        + 0.0722 * PackedColor.blue(rgb));
   }
 
   /**
-   * Generates the string in the format of a PPM ASCII image for the given image data.
+   * Writes the given image as a PPM ASCII image, one row of pixels per line.
    *
-   * @param image Image to generate the string from.
-   * @return The generated PPM ASCII string.
+   * @param output the output to write to.
+   * @param image  Image to write.
+   * @throws IOException If writing fails.
    */
-  private String generatePPM(PixelImage image) {
-    List<List<IPixel>> imagePixels = image.getPixels();
-    StringBuilder ppmString = new StringBuilder().append("P3\n")
-        .append(imagePixels.get(0).size()).append(" ")
-        .append(imagePixels.size()).append("\n255\n");
-    for (int i = 0; i < imagePixels.size(); i++) {
-      for (int j = 0; j < imagePixels.get(0).size(); j++) {
-        IPixel currentPixel = imagePixels.get(i).get(j);
-        ppmString.append(currentPixel.getColor().getRed()).append(" ")
-            .append(currentPixel.getColor().getGreen()).append(" ")
-            .append(currentPixel.getColor().getBlue()).append(" ");
+  private void writePlain(PPMTextOutput output, PixelImage image) throws IOException {
+    output.writeText("P3\n" + image.getWidth() + " " + image.getHeight() + "\n255\n");
+    int[] row = null;
+    for (int i = 0; i < image.getHeight(); i++) {
+      row = image.getRow(i, row);
+      for (int j = 0; j < image.getWidth(); j++) {
+        int currentPixel = row[j];
+        output.writeValue(PackedColor.red(currentPixel));
+        output.writeChar(' ');
+        output.writeValue(PackedColor.green(currentPixel));
+        output.writeChar(' ');
+        output.writeValue(PackedColor.blue(currentPixel));
+        output.writeChar(' ');
       }
-      ppmString.append("\n");
+      output.writeChar('\n');
     }
-    return ppmString.toString();
   }
 }
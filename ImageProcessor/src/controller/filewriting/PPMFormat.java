@@ -0,0 +1,100 @@
+package controller.filewriting;
+
+/**
+ * Represents the encodings a PPM or PGM file can be written in. Plain files store every value as
+ * text, binary files store them as raw bytes, one byte per value for a maximum value of 255 or two
+ * bytes for a maximum value of 65535. Greyscale files store a single value per pixel.
+ */
+public enum PPMFormat {
+
+  /**
+   * Plain P3 files with a maximum value of 255.
+   */
+  PLAIN("p3", "P3", 255, 3),
+
+  /**
+   * Binary P6 files with a maximum value of 255.
+   */
+  BINARY("p6", "P6", 255, 3),
+
+  /**
+   * Binary P6 files with a maximum value of 65535.
+   */
+  BINARY_16("p6-16", "P6", 65535, 3),
+
+  /**
+   * Binary P5 greyscale files with a maximum value of 255.
+   */
+  GREY("p5", "P5", 255, 1),
+
+  /**
+   * Binary P5 greyscale files with a maximum value of 65535.
+   */
+  GREY_16("p5-16", "P5", 65535, 1);
+
+  private final String option;
+  private final String magicNumber;
+  private final int maxValue;
+  private final int channels;
+
+  PPMFormat(String option, String magicNumber, int maxValue, int channels) {
+    this.option = option;
+    this.magicNumber = magicNumber;
+    this.maxValue = maxValue;
+    this.channels = channels;
+  }
+
+  /**
+   * Gets the format for the given option name, as used by the save command.
+   *
+   * @param option one of "p3", "p6", "p6-16", "p5" or "p5-16", ignoring case.
+   * @return the format of the option.
+   * @throws IllegalArgumentException If the option is null or not a known format.
+   */
+  public static PPMFormat fromOption(String option) throws IllegalArgumentException {
+    if (option != null) {
+      for (PPMFormat format : values()) {
+        if (format.option.equalsIgnoreCase(option)) {
+          return format;
+        }
+      }
+    }
+    throw new IllegalArgumentException("Invalid PPM format.");
+  }
+
+  /**
+   * Gets the name of this format used by the save command.
+   *
+   * @return the option name of the format.
+   */
+  public String getOption() {
+    return this.option;
+  }
+
+  /**
+   * Gets the magic number that starts files of this format.
+   *
+   * @return the magic number, such as "P6".
+   */
+  public String getMagicNumber() {
+    return this.magicNumber;
+  }
+
+  /**
+   * Gets the maximum value written in files of this format.
+   *
+   * @return 255 or 65535.
+   */
+  public int getMaxValue() {
+    return this.maxValue;
+  }
+
+  /**
+   * Gets the number of values stored for each pixel.
+   *
+   * @return 3 for color formats, 1 for greyscale formats.
+   */
+  public int getChannels() {
+    return this.channels;
+  }
+}
@@ -0,0 +1,146 @@
+package controller.filewriting;
+
+/**
+ * Class describing how an image file is encoded when it is saved: the format of ppm and pgm files,
+ * the quality of jpeg files and whether they are progressive, and the compression level of png
+ * files. Settings that are not given use the default for the type of the file. Options are
+ * immutable, the with methods return new options.
+ */
+public final class SaveOptions {
+
+  private static final SaveOptions DEFAULTS = new SaveOptions(null, null, null, null);
+
+  private final PPMFormat format;
+  private final Float quality;
+  private final Boolean progressive;
+  private final Integer level;
+
+  /**
+   * Constructs options from the given settings, null for settings that are not given.
+   *
+   * @param format      the format of ppm and pgm files.
+   * @param quality     the quality of jpeg files.
+   * @param progressive whether jpeg files are progressive.
+   * @param level       the compression level of png files.
+   */
+  private SaveOptions(PPMFormat format, Float quality, Boolean progressive, Integer level) {
+    this.format = format;
+    this.quality = quality;
+    this.progressive = progressive;
+    this.level = level;
+  }
+
+  /**
+   * Gets the options that use the defaults for every type of file.
+   *
+   * @return the default options.
+   */
+  public static SaveOptions defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Creates options that save ppm and pgm files in the given format.
+   *
+   * @param format the format to write.
+   * @return the new options.
+   * @throws IllegalArgumentException If the format is null.
+   */
+  public SaveOptions withFormat(PPMFormat format) throws IllegalArgumentException {
+    if (format == null) {
+      throw new IllegalArgumentException("Format can't be null.");
+    }
+    return new SaveOptions(format, this.quality, this.progressive, this.level);
+  }
+
+  /**
+   * Creates options that save jpeg files with the given quality.
+   *
+   * @param quality quality from 0, the smallest files, to 1, the closest to the image.
+   * @return the new options.
+   * @throws IllegalArgumentException If the quality is not between 0 and 1.
+   */
+  public SaveOptions withQuality(float quality) throws IllegalArgumentException {
+    if (!(quality >= 0 && quality <= 1)) {
+      throw new IllegalArgumentException("Quality must be between 0 and 1.");
+    }
+    return new SaveOptions(this.format, quality, this.progressive, this.level);
+  }
+
+  /**
+   * Creates options that save jpeg files as progressive files or not.
+   *
+   * @param progressive true to write progressive files.
+   * @return the new options.
+   */
+  public SaveOptions withProgressive(boolean progressive) {
+    return new SaveOptions(this.format, this.quality, progressive, this.level);
+  }
+
+  /**
+   * Creates options that save png files with the given compression level.
+   *
+   * @param level deflate level from 0, no compression, to 9, the smallest files.
+   * @return the new options.
+   * @throws IllegalArgumentException If the level is not between 0 and 9.
+   */
+  public SaveOptions withCompressionLevel(int level) throws IllegalArgumentException {
+    if (level < 0 || level > 9) {
+      throw new IllegalArgumentException("Compression level must be between 0 and 9.");
+    }
+    return new SaveOptions(this.format, this.quality, this.progressive, level);
+  }
+
+  /**
+   * Gets the format given for ppm and pgm files.
+   *
+   * @return the format, or null if none was given.
+   */
+  public PPMFormat getFormat() {
+    return this.format;
+  }
+
+  /**
+   * Creates the writer for a file with the given extension. Files other than ppm, pgm, jpeg and
+   * png files have no settings, so there is no writer for them.
+   *
+   * @param extension the extension of the file, without the dot.
+   * @return the writer with these settings, or null for other types of file.
+   * @throws IllegalArgumentException If a setting is given that doesn't apply to the type of the
+   *                                  file.
+   */
+  public IImageFileWriter writerFor(String extension) throws IllegalArgumentException {
+    boolean jpegSettings = this.quality != null || this.progressive != null;
+    switch (extension.toLowerCase()) {
+      case "ppm":
+      case "pgm":
+        if (jpegSettings || this.level != null) {
+          throw new IllegalArgumentException("Only formats can be used for ppm or pgm files");
+        }
+        PPMFormat defaultFormat = extension.equalsIgnoreCase("pgm")
+            ? PPMFormat.GREY : PPMFormat.PLAIN;
+        return new PPMFileWriter(this.format == null ? defaultFormat : this.format);
+      case "jpeg":
+      case "jpg":
+        if (this.format != null || this.level != null) {
+          throw new IllegalArgumentException("Only quality and progressive can be used for jpeg "
+              + "files");
+        }
+        return new JPEGImageIOWriter(
+            this.quality == null ? JPEGImageIOWriter.DEFAULT_QUALITY : this.quality,
+            this.progressive != null && this.progressive);
+      case "png":
+        if (this.format != null || jpegSettings) {
+          throw new IllegalArgumentException("Only compression can be used for png files");
+        }
+        return new PNGImageIOWriter(this.level == null ? PNGImageIOWriter.DEFAULT_LEVEL
+            : this.level);
+      default:
+        if (this.format != null || jpegSettings || this.level != null) {
+          throw new IllegalArgumentException("Options can only be used for ppm, pgm, jpeg or png "
+              + "files");
+        }
+        return null;
+    }
+  }
+}
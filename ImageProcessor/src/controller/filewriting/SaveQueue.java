@@ -0,0 +1,206 @@
+package controller.filewriting;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class that writes image files on a bounded pool of background threads, so that encoding a file
+ * overlaps with whatever is done next. Only a few writes can wait in the queue at once, when it
+ * is full the write runs on the calling thread instead, which keeps the images held by pending
+ * writes from piling up. Writes to the same file are run in the order they were submitted.
+ * Failures of queued writes are collected and reported when the queue is flushed, writes that run
+ * on the calling thread fail straight away.
+ */
+public final class SaveQueue {
+
+  private final ThreadPoolExecutor pool;
+  // pending writes by the absolute path of their file, only used by the submitting thread
+  private final Map<String, Future<?>> pending;
+  private final List<String> failures;
+
+  /**
+   * Function object that writes one file.
+   */
+  public interface Job {
+
+    /**
+     * Writes the file.
+     *
+     * @throws IOException If the file can't be written.
+     */
+    void write() throws IOException;
+  }
+
+  /**
+   * Constructs a queue that writes files on the given number of threads. A queue without threads
+   * writes every file on the calling thread.
+   *
+   * @param threads number of background threads to use.
+   * @throws IllegalArgumentException If the number of threads is negative.
+   */
+  public SaveQueue(int threads) throws IllegalArgumentException {
+    if (threads < 0) {
+      throw new IllegalArgumentException("Threads can't be negative.");
+    }
+    this.pending = new HashMap<>();
+    this.failures = new ArrayList<>();
+    if (threads == 0) {
+      this.pool = null;
+    } else {
+      this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(threads), runnable -> {
+            Thread thread = new Thread(runnable, "image-save");
+            thread.setDaemon(true);
+            return thread;
+          });
+    }
+  }
+
+  /**
+   * Gets the number of threads from the "imageprocessor.savethreads" system property, or one less
+   * than the number of available processors if it is not set, leaving a processor for the
+   * commands that run while files are written. On a single processor files are written on the
+   * calling thread, since there is nothing for the writes to overlap with.
+   *
+   * @return the default number of threads.
+   */
+  public static int defaultThreads() {
+    int threads = Runtime.getRuntime().availableProcessors() - 1;
+    try {
+      return Math.max(0, Integer.getInteger("imageprocessor.savethreads", threads));
+    } catch (SecurityException e) {
+      return threads;
+    }
+  }
+
+  /**
+   * Submits a write of the given file. If the queue has no threads, has been shut down or is full,
+   * the file is written before this returns. Otherwise the write is queued, and if the file is
+   * still being written by an earlier write, that write is waited for first.
+   *
+   * @param path the path of the file.
+   * @param job  the write.
+   * @return true if the file has been written, false if the write was queued.
+   * @throws IOException              If the file was written on the calling thread and that
+   *                                  failed.
+   * @throws IllegalArgumentException If an argument is null.
+   */
+  public boolean submit(String path, Job job) throws IOException, IllegalArgumentException {
+    if (path == null || job == null) {
+      throw new IllegalArgumentException("Argument can't be null.");
+    }
+    if (this.pool == null || this.pool.isShutdown()) {
+      job.write();
+      return true;
+    }
+    String key = new File(path).getAbsolutePath();
+    Runnable task = () -> {
+      try {
+        job.write();
+      } catch (IOException | RuntimeException e) {
+        synchronized (this.failures) {
+          this.failures.add("Could not save " + path + ": " + e.getMessage());
+        }
+      }
+    };
+    this.await(key);
+    this.pending.values().removeIf(Future::isDone);
+    try {
+      this.pending.put(key, this.pool.submit(task));
+    } catch (RejectedExecutionException e) {
+      job.write();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Waits for any pending write of the given file, so that it can be read.
+   *
+   * @param path the path of the file.
+   * @throws IllegalArgumentException If the path is null.
+   */
+  public void awaitFile(String path) throws IllegalArgumentException {
+    if (path == null) {
+      throw new IllegalArgumentException("Path can't be null.");
+    }
+    this.await(new File(path).getAbsolutePath());
+  }
+
+  /**
+   * Waits for every pending write to finish.
+   *
+   * @return the messages of the writes that failed since the last flush, empty if none did.
+   */
+  public List<String> flush() {
+    Iterator<Future<?>> writes = this.pending.values().iterator();
+    while (writes.hasNext()) {
+      join(writes.next());
+      writes.remove();
+    }
+    synchronized (this.failures) {
+      List<String> result = new ArrayList<>(this.failures);
+      this.failures.clear();
+      return result;
+    }
+  }
+
+  /**
+   * Waits for every pending write to finish and stops the threads of the queue. Files submitted
+   * afterwards are written on the calling thread.
+   *
+   * @return the messages of the writes that failed since the last flush, empty if none did.
+   */
+  public List<String> shutdown() {
+    List<String> result = this.flush();
+    if (this.pool != null) {
+      this.pool.shutdown();
+    }
+    return result;
+  }
+
+  /**
+   * Waits for the pending write stored under the given key, if any.
+   *
+   * @param key the absolute path of the file.
+   */
+  private void await(String key) {
+    Future<?> write = this.pending.remove(key);
+    if (write != null) {
+      join(write);
+    }
+  }
+
+  /**
+   * Waits for a write to finish. Failures of the write itself are recorded by the write.
+   *
+   * @param write the write.
+   */
+  private static void join(Future<?> write) {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        write.get();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      } catch (ExecutionException e) {
+        break;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -1,38 +1,80 @@
 package filters;
 
-import java.lang.reflect.Array;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
-import model.imaging.Color;
 import model.imaging.Image;
+import model.imaging.PackedColor;
 import model.imaging.PixelImage;
-import model.imaging.Posn;
-import model.imaging.pixel.IPixel;
-import model.imaging.pixel.PixelImpl;
 
 /**
  * An abstract class to allow for a filter to be used on an image using a given kernel (must be
- * of odd dimensions).
+ * of odd dimensions). Neighbours that fall outside of the image are handled by the border mode of
+ * the filter. Each row is split into an interior, where every neighbour is inside the image and is
+ * read directly, and a thin border on each side where the border mode is consulted. Filters may
+ * ask for a separable kernel to be applied as two 1-D passes, which sums in floating point instead
+ * of truncating every tap and so can differ by one from the 2D result.
  */
 public abstract class AbstractFilter implements IFilter {
 
   protected final IKernel kernel;
+  protected final BorderMode border;
+
+  // the kernel flattened once at construction so filtering only does primitive arithmetic
+  private final int kernelWidth;
+  private final int kernelHeight;
+  private final double[] weights;
+  private final double[] rowVector;
+  private final double[] columnVector;
 
   /**
-   * Constructs an abstract filter with a given kernel.
+   * Constructs an abstract filter with a given kernel, treating neighbours outside of the image as
+   * black.
    *
    * @param kernel kernel being used for filtering.
    * @throws IllegalArgumentException If kernel is null, not square, or not of odd dimensions.
    */
   protected AbstractFilter(IKernel kernel) throws IllegalArgumentException {
-    if (kernel == null) {
+    this(kernel, BorderMode.ZERO);
+  }
+
+  /**
+   * Constructs an abstract filter with a given kernel and border mode, that always applies the
+   * kernel in 2D.
+   *
+   * @param kernel kernel being used for filtering.
+   * @param border how neighbours outside of the image are treated.
+   * @throws IllegalArgumentException If an argument is null, or the kernel is not of odd
+   *                                  dimensions.
+   */
+  protected AbstractFilter(IKernel kernel, BorderMode border) throws IllegalArgumentException {
+    this(kernel, border, false);
+  }
+
+  /**
+   * Constructs an abstract filter with a given kernel and border mode.
+   *
+   * @param kernel    kernel being used for filtering.
+   * @param border    how neighbours outside of the image are treated.
+   * @param separable whether a separable kernel is applied as two 1-D passes.
+   * @throws IllegalArgumentException If an argument is null, or the kernel is not of odd
+   *                                  dimensions.
+   */
+  protected AbstractFilter(IKernel kernel, BorderMode border, boolean separable)
+      throws IllegalArgumentException {
+    if (kernel == null || border == null) {
       throw new IllegalArgumentException("Argument can't be null.");
     }
     if (kernel.getHeight() % 2 == 0 || kernel.getWidth() % 2 == 0) {
       throw new IllegalArgumentException("Kernel dimensions must be odd");
     }
     this.kernel = kernel;
+    this.border = border;
+    this.kernelWidth = kernel.getWidth();
+    this.kernelHeight = kernel.getHeight();
+    this.weights = kernel.getFlattenedValues();
+    boolean passes = separable && kernel.isSeparable();
+    this.rowVector = passes ? kernel.getRowVector() : null;
+    this.columnVector = passes ? kernel.getColumnVector() : null;
   }
 
   @Override
@@ -40,89 +82,287 @@ public abstract class AbstractFilter implements IFilter {
     if (image == null) {
       throw new IllegalArgumentException("Image can't be null.");
     }
-    List<List<IPixel>> imagePixels = image.getPixels();
-
-    return new Image(filtered(imagePixels, image));
+    return Image.adopt(image.getWidth(), image.getHeight(), filtered(image));
   }
 
   /**
-   * Returns the filtered 2D array of pixels of the image.
+   * Returns the filtered raster of the image. Separable kernels of filters that asked for it are
+   * applied as a horizontal pass followed by a vertical pass.
    *
-   * @param pixels Pixels of the image being filtered.
-   * @param image  Image being filtered.
-   * @return The filtered 2D pixel array.
+   * @param image Image being filtered.
+   * @return The filtered raster, packed as 0xRRGGBB in row major order.
    */
-  protected List<ArrayList<IPixel>> filtered(List<List<IPixel>> pixels,
-                                             PixelImage image) {
-    List<ArrayList<IPixel>> newPixels = new ArrayList<>();
-    for (int i = 0; i < pixels.size(); i++) {
-      ArrayList<IPixel> r = new ArrayList<>();
-      for (int j = 0; j < pixels.get(0).size(); j++) {
-        r.add(filter(pixels.get(i).get(j), image));
-      }
-      newPixels.add(r);
+  protected int[] filtered(PixelImage image) {
+    if (this.rowVector != null) {
+      return separableFiltered(image);
     }
+    int width = image.getWidth();
+    int height = image.getHeight();
+    int[] newPixels = new int[width * height];
+    RowScheduler.forEachBand(width, height, (start, end) -> {
+      int[][] rows = window(image, start, end);
+      for (int i = start; i < end; i++) {
+        filterRow(rows, i - start, width, newPixels, i * width);
+      }
+    });
 
     return newPixels;
 
   }
 
   /**
-   * Applies a transformation to a given pixel by use of the given kernel. Values are clamped to 0
-   * or 255.
+   * Gathers the rows of the image needed to filter the given band of rows. Element k of the result
+   * is the image row start - radius + k after applying the border mode, rows that count as black
+   * are filled with zeros.
+   *
+   * @param image Image being filtered.
+   * @param start first row of the band.
+   * @param end   row after the last row of the band.
+   * @return the rows covered by the kernel for the band.
+   */
+  private int[][] window(PixelImage image, int start, int end) {
+    int radius = this.kernelHeight / 2;
+    int[][] rows = new int[end - start + 2 * radius][];
+    int[] black = null;
+    for (int k = 0; k < rows.length; k++) {
+      int source = border.resolve(start - radius + k, image.getHeight());
+      if (source < 0) {
+        black = black == null ? new int[image.getWidth()] : black;
+        rows[k] = black;
+      } else {
+        rows[k] = image.getRow(source, null);
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Filters a single row of the image.
+   *
+   * @param rows      the rows covered by the kernel, see {@link #window}.
+   * @param top       index in rows of the first row covered by the kernel.
+   * @param width     width of the image.
+   * @param out       the filtered raster.
+   * @param outOffset index in the filtered raster of the start of the row.
+   */
+  private void filterRow(int[][] rows, int top, int width, int[] out, int outOffset) {
+    int radius = this.kernelWidth / 2;
+    int interiorStart = Math.min(radius, width);
+    int interiorEnd = Math.max(width - radius, interiorStart);
+    for (int j = 0; j < interiorStart; j++) {
+      out[outOffset + j] = filterBorder(rows, top, j, width);
+    }
+    for (int j = interiorStart; j < interiorEnd; j++) {
+      out[outOffset + j] = filterInterior(rows, top, j);
+    }
+    for (int j = interiorEnd; j < width; j++) {
+      out[outOffset + j] = filterBorder(rows, top, j, width);
+    }
+  }
+
+  /**
+   * Applies the kernel to a pixel whose neighbours are all inside the image. Values are clamped to
+   * 0 or 255.
    *
-   * @param pixel pixel being filtered.
-   * @param image image being filtered.
-   * @return The filtered pixel
+   * @param rows the rows covered by the kernel, see {@link #window}.
+   * @param top  index in rows of the first row covered by the kernel.
+   * @param x    column of the pixel being filtered.
+   * @return The filtered pixel packed as 0xRRGGBB.
    */
-  protected IPixel filter(IPixel pixel, PixelImage image) {
+  private int filterInterior(int[][] rows, int top, int x) {
+    int left = x - this.kernelWidth / 2;
+
+    int r = 0;
+    int g = 0;
+    int b = 0;
+
+    for (int i = 0, tap = 0; i < this.kernelHeight; i++) {
+      int[] row = rows[top + i];
+      for (int j = 0; j < this.kernelWidth; j++, tap++) {
+        double kVal = this.weights[tap];
+        int rgb = row[left + j];
+        // each tap is truncated before it is summed
+        r += (int) (PackedColor.red(rgb) * kVal);
+        g += (int) (PackedColor.green(rgb) * kVal);
+        b += (int) (PackedColor.blue(rgb) * kVal);
+      }
+    }
 
-    List<List<IPixel>> imagePixels = image.getPixels();
+    return PackedColor.pack(FilterClamp.clamp(r), FilterClamp.clamp(g), FilterClamp.clamp(b));
+  }
 
-    int peripherals = kernel.getHeight() / 2;
+  /**
+   * Applies the kernel to a pixel near the left or right edge of the image, using the border mode
+   * for neighbours outside of the image. Values are clamped to 0 or 255.
+   *
+   * @param rows  the rows covered by the kernel, see {@link #window}.
+   * @param top   index in rows of the first row covered by the kernel.
+   * @param x     column of the pixel being filtered.
+   * @param width width of the image.
+   * @return The filtered pixel packed as 0xRRGGBB.
+   */
+  private int filterBorder(int[][] rows, int top, int x, int width) {
+    int left = x - this.kernelWidth / 2;
 
     int r = 0;
     int g = 0;
     int b = 0;
 
-    for (int i = peripherals * -1; i <= peripherals; i++) {
-      for (int j = peripherals * -1; j <= peripherals; j++) {
-        try {
-          double kVal = (double) Array
-                  .get(Array.get(kernel.getValues(), i + peripherals), j + peripherals);
-
-          int red = imagePixels.get(pixel.getPosn().getY() + i)
-                  .get(pixel.getPosn().getX() + j).getColor().getRed();
-          int green = imagePixels.get(pixel.getPosn().getY() + i)
-                  .get(pixel.getPosn().getX() + j).getColor().getGreen();
-          int blue = imagePixels.get(pixel.getPosn().getY() + i)
-                  .get(pixel.getPosn().getX() + j).getColor().getBlue();
-
-          red *= kVal;
-          green *= kVal;
-          blue *= kVal;
-
-          r += red;
-          g += green;
-          b += blue;
-
-        } catch (IndexOutOfBoundsException ignore) {
-          r += 0;
-          g += 0;
-          b += 0;
+    for (int i = 0, tap = 0; i < this.kernelHeight; i++) {
+      int[] row = rows[top + i];
+      for (int j = 0; j < this.kernelWidth; j++, tap++) {
+        int column = border.resolve(left + j, width);
+        if (column < 0) {
+          continue;
         }
+        double kVal = this.weights[tap];
+        int rgb = row[column];
+        r += (int) (PackedColor.red(rgb) * kVal);
+        g += (int) (PackedColor.green(rgb) * kVal);
+        b += (int) (PackedColor.blue(rgb) * kVal);
       }
     }
 
-    r = FilterClamp.clamp(r);
-    g = FilterClamp.clamp(g);
-    b = FilterClamp.clamp(b);
+    return PackedColor.pack(FilterClamp.clamp(r), FilterClamp.clamp(g), FilterClamp.clamp(b));
+  }
+
+  /**
+   * Filters the image with a separable kernel, convolving every row with the row vector of the
+   * kernel and then every column of the result with the column vector. Values are clamped to 0 or
+   * 255.
+   *
+   * @param image Image being filtered.
+   * @return The filtered raster, packed as 0xRRGGBB in row major order.
+   */
+  private int[] separableFiltered(PixelImage image) {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    double[] vertical = this.columnVector;
+    int horizontalRadius = this.rowVector.length / 2;
+    int verticalRadius = vertical.length / 2;
+    int interiorStart = Math.min(horizontalRadius, width);
+    int interiorEnd = Math.max(width - horizontalRadius, interiorStart);
 
-    return new PixelImpl(new Posn(pixel.getPosn().getX(), pixel.getPosn().getY()),
-            new Color(r, g, b));
+    // horizontal pass, kept unclamped per channel
+    float[][] channels = new float[3][width * height];
+    RowScheduler.forEachBand(width, height, (first, last) -> {
+      int[] row = null;
+      for (int i = first; i < last; i++) {
+        row = image.getRow(i, row);
+        int offset = i * width;
+        for (int j = 0; j < interiorStart; j++) {
+          horizontalBorder(row, j, width, channels, offset + j);
+        }
+        for (int j = interiorStart; j < interiorEnd; j++) {
+          horizontalInterior(row, j, channels, offset + j);
+        }
+        for (int j = interiorEnd; j < width; j++) {
+          horizontalBorder(row, j, width, channels, offset + j);
+        }
+      }
+    });
 
+    // vertical pass, only started once every row of the horizontal pass is done
+    int[] newPixels = new int[width * height];
+    RowScheduler.forEachBand(width, height, (first, last) -> {
+      double[][] sums = new double[3][width];
+      for (int i = first; i < last; i++) {
+        for (double[] sum : sums) {
+          Arrays.fill(sum, 0);
+        }
+        if (i >= verticalRadius && i < height - verticalRadius) {
+          for (int k = 0; k < vertical.length; k++) {
+            accumulate(channels, (i - verticalRadius + k) * width, vertical[k], sums);
+          }
+        } else {
+          for (int k = 0; k < vertical.length; k++) {
+            int source = border.resolve(i - verticalRadius + k, height);
+            if (source >= 0) {
+              accumulate(channels, source * width, vertical[k], sums);
+            }
+          }
+        }
+        for (int j = 0; j < width; j++) {
+          newPixels[i * width + j] = PackedColor.pack(FilterClamp.clamp((int) sums[0][j]),
+                  FilterClamp.clamp((int) sums[1][j]), FilterClamp.clamp((int) sums[2][j]));
+        }
+      }
+    });
+    return newPixels;
+  }
 
+  /**
+   * Convolves a pixel whose horizontal neighbours are all inside the image with the row vector of
+   * the kernel.
+   *
+   * @param row      the row of the image.
+   * @param x        column of the pixel.
+   * @param channels the red, green and blue results of the horizontal pass.
+   * @param index    index of the pixel in the results.
+   */
+  private void horizontalInterior(int[] row, int x, float[][] channels, int index) {
+    int left = x - this.rowVector.length / 2;
+    double r = 0;
+    double g = 0;
+    double b = 0;
+    for (int k = 0; k < this.rowVector.length; k++) {
+      int rgb = row[left + k];
+      r += PackedColor.red(rgb) * this.rowVector[k];
+      g += PackedColor.green(rgb) * this.rowVector[k];
+      b += PackedColor.blue(rgb) * this.rowVector[k];
+    }
+    channels[0][index] = (float) r;
+    channels[1][index] = (float) g;
+    channels[2][index] = (float) b;
   }
 
+  /**
+   * Convolves a pixel near the left or right edge of the image with the row vector of the kernel,
+   * using the border mode for neighbours outside of the image.
+   *
+   * @param row      the row of the image.
+   * @param x        column of the pixel.
+   * @param width    width of the image.
+   * @param channels the red, green and blue results of the horizontal pass.
+   * @param index    index of the pixel in the results.
+   */
+  private void horizontalBorder(int[] row, int x, int width, float[][] channels, int index) {
+    int left = x - this.rowVector.length / 2;
+    double r = 0;
+    double g = 0;
+    double b = 0;
+    for (int k = 0; k < this.rowVector.length; k++) {
+      int column = border.resolve(left + k, width);
+      if (column < 0) {
+        continue;
+      }
+      int rgb = row[column];
+      r += PackedColor.red(rgb) * this.rowVector[k];
+      g += PackedColor.green(rgb) * this.rowVector[k];
+      b += PackedColor.blue(rgb) * this.rowVector[k];
+    }
+    channels[0][index] = (float) r;
+    channels[1][index] = (float) g;
+    channels[2][index] = (float) b;
+  }
 
-}
\ No newline at end of file
+  /**
+   * Adds one row of the horizontal pass, weighted by one tap of the column vector, to the sums of
+   * a row of the vertical pass.
+   *
+   * @param channels the red, green and blue results of the horizontal pass.
+   * @param offset   index of the start of the row in the results.
+   * @param weight   the weight of the tap.
+   * @param sums     the red, green and blue sums of the row being filtered.
+   */
+  private static void accumulate(float[][] channels, int offset, double weight,
+                                 double[][] sums) {
+    for (int c = 0; c < 3; c++) {
+      float[] channel = channels[c];
+      double[] sum = sums[c];
+      for (int j = 0; j < sum.length; j++) {
+        sum[j] += channel[offset + j] * weight;
+      }
+    }
+  }
+}
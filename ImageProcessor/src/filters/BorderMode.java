@@ -0,0 +1,63 @@
+package filters;
+
+/**
+ * Represents how a filter treats neighbours that fall outside of the image. Each mode maps an
+ * index that may be out of range onto a row or column of the image.
+ */
+public enum BorderMode {
+
+  /**
+   * Neighbours outside of the image count as black.
+   */
+  ZERO {
+    @Override
+    public int resolve(int index, int length) {
+      return index >= 0 && index < length ? index : -1;
+    }
+  },
+
+  /**
+   * Neighbours outside of the image take the color of the closest edge pixel.
+   */
+  CLAMP {
+    @Override
+    public int resolve(int index, int length) {
+      return Math.min(Math.max(index, 0), length - 1);
+    }
+  },
+
+  /**
+   * The image is reflected across its edges without repeating the edge pixel.
+   */
+  MIRROR {
+    @Override
+    public int resolve(int index, int length) {
+      if (length == 1) {
+        return 0;
+      }
+      int period = 2 * (length - 1);
+      int i = Math.abs(index) % period;
+      return i < length ? i : period - i;
+    }
+  },
+
+  /**
+   * The image repeats, so neighbours past one edge come from the opposite edge.
+   */
+  WRAP {
+    @Override
+    public int resolve(int index, int length) {
+      int i = index % length;
+      return i < 0 ? i + length : i;
+    }
+  };
+
+  /**
+   * Maps the given row or column index onto the image.
+   *
+   * @param index  index of the neighbour, possibly outside of the image.
+   * @param length number of rows or columns in the image.
+   * @return the index to read from, or -1 if the neighbour counts as black.
+   */
+  public abstract int resolve(int index, int length);
+}
@@ -0,0 +1,133 @@
+package filters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.graph.Histogram;
+import model.imaging.PixelImage;
+
+/**
+ * Class representing a chain of point operations that is applied in a single pass over an image.
+ * Each pixel is run through every operation in turn, giving the same result as applying the
+ * operations one image at a time without creating the images in between. Consecutive lookup tables
+ * are composed into a single table when the pipeline is built.
+ */
+public final class ColorPipeline implements PointOperation {
+
+  private final PointOperation[] stages;
+
+  /**
+   * Constructs a pipeline of the given stages.
+   *
+   * @param stages the operations, in the order they are applied.
+   */
+  private ColorPipeline(PointOperation[] stages) {
+    this.stages = stages;
+  }
+
+  /**
+   * Creates a pipeline containing only the given operation.
+   *
+   * @param operation the operation.
+   * @return the pipeline.
+   * @throws IllegalArgumentException If the operation is null.
+   */
+  public static ColorPipeline of(PointOperation operation) throws IllegalArgumentException {
+    if (operation == null) {
+      throw new IllegalArgumentException("Operation can't be null.");
+    }
+    if (operation instanceof ColorPipeline) {
+      return (ColorPipeline) operation;
+    }
+    return new ColorPipeline(new PointOperation[]{operation});
+  }
+
+  /**
+   * Creates a pipeline that applies this pipeline followed by the given operation.
+   *
+   * @param next the operation applied after this pipeline.
+   * @return the combined pipeline.
+   * @throws IllegalArgumentException If the operation is null.
+   */
+  public ColorPipeline then(PointOperation next) throws IllegalArgumentException {
+    List<PointOperation> merged = new ArrayList<PointOperation>();
+    for (PointOperation stage : this.stages) {
+      merged.add(stage);
+    }
+    for (PointOperation stage : of(next).stages) {
+      int last = merged.size() - 1;
+      if (merged.get(last) instanceof LookupTable && stage instanceof LookupTable) {
+        merged.set(last, ((LookupTable) merged.get(last)).then((LookupTable) stage));
+      } else {
+        merged.add(stage);
+      }
+    }
+    return new ColorPipeline(merged.toArray(new PointOperation[0]));
+  }
+
+  /**
+   * Gets the number of operations each pixel goes through after composing lookup tables.
+   *
+   * @return the number of stages in the pipeline.
+   */
+  public int getStageCount() {
+    return this.stages.length;
+  }
+
+  @Override
+  public int apply(int rgb) {
+    for (PointOperation stage : this.stages) {
+      rgb = stage.apply(rgb);
+    }
+    return rgb;
+  }
+
+  /**
+   * Applies the pipeline to every pixel of the given image.
+   *
+   * @param image the image being transformed.
+   * @return the transformed raster, packed as 0xRRGGBB in row major order.
+   * @throws IllegalArgumentException If the image is null.
+   */
+  public int[] apply(PixelImage image) throws IllegalArgumentException {
+    return this.apply(image, null);
+  }
+
+  /**
+   * Applies the pipeline to every pixel of the given image, counting the transformed colors into
+   * the given histogram as each band of rows is finished, while the band is still in the cache.
+   *
+   * @param image     the image being transformed.
+   * @param histogram the histogram to count the result into, or null to not count it.
+   * @return the transformed raster, packed as 0xRRGGBB in row major order.
+   * @throws IllegalArgumentException If the image is null.
+   */
+  public int[] apply(PixelImage image, Histogram histogram) throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("Image can't be null.");
+    }
+    if (this.stages.length == 1 && this.stages[0] instanceof LookupTable) {
+      return ((LookupTable) this.stages[0]).apply(image, histogram);
+    }
+    int width = image.getWidth();
+    int[] updated = new int[width * image.getHeight()];
+    RowScheduler.forEachBand(width, image.getHeight(), (start, end) -> {
+      int[] row = null;
+      for (int i = start; i < end; i++) {
+        row = image.getRow(i, row);
+        int offset = i * width;
+        for (int j = 0; j < width; j++) {
+          int rgb = row[j];
+          for (PointOperation stage : this.stages) {
+            rgb = stage.apply(rgb);
+          }
+          updated[offset + j] = rgb;
+        }
+      }
+      if (histogram != null) {
+        histogram.count(updated, start * width, end * width);
+      }
+    });
+    return updated;
+  }
+}
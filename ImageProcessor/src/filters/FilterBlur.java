@@ -10,9 +10,20 @@ public class FilterBlur extends AbstractFilter {
    * blurred.
    */
   public FilterBlur() {
+    this(BorderMode.ZERO);
+  }
+
+  /**
+   * Constructor for a blur transformation that treats neighbours outside of the image using the
+   * given border mode.
+   *
+   * @param border how neighbours outside of the image are treated.
+   * @throws IllegalArgumentException If the border mode is null.
+   */
+  public FilterBlur(BorderMode border) throws IllegalArgumentException {
 
     super(new Kernel(3, 3, new double[][]{{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125},
-        {0.0625, 0.125, 0.0625}}));
+        {0.0625, 0.125, 0.0625}}), border);
   }
 
 }
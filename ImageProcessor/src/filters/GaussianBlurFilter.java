@@ -0,0 +1,55 @@
+package filters;
+
+/**
+ * Class to represent a gaussian blur filter on an image. The radius of the kernel grows with the
+ * standard deviation, and the kernel is applied as two 1-D passes.
+ */
+public class GaussianBlurFilter extends AbstractFilter {
+
+  /**
+   * Constructor for a gaussian blur with the given standard deviation. The kernel covers three
+   * standard deviations on each side of the pixel and its values sum to 1.
+   *
+   * @param sigma standard deviation of the gaussian, in pixels.
+   * @throws IllegalArgumentException If sigma is not a positive number.
+   */
+  public GaussianBlurFilter(double sigma) throws IllegalArgumentException {
+    this(sigma, BorderMode.ZERO);
+  }
+
+  /**
+   * Constructor for a gaussian blur with the given standard deviation that treats neighbours
+   * outside of the image using the given border mode.
+   *
+   * @param sigma  standard deviation of the gaussian, in pixels.
+   * @param border how neighbours outside of the image are treated.
+   * @throws IllegalArgumentException If sigma is not a positive number or the border mode is null.
+   */
+  public GaussianBlurFilter(double sigma, BorderMode border) throws IllegalArgumentException {
+    super(gaussianKernel(sigma), border, true);
+  }
+
+  /**
+   * Creates the separable kernel for a gaussian with the given standard deviation.
+   *
+   * @param sigma standard deviation of the gaussian, in pixels.
+   * @return The separable gaussian kernel.
+   * @throws IllegalArgumentException If sigma is not a positive number.
+   */
+  private static IKernel gaussianKernel(double sigma) throws IllegalArgumentException {
+    if (!(sigma > 0) || Double.isInfinite(sigma)) {
+      throw new IllegalArgumentException("Sigma must be a positive number.");
+    }
+    int radius = Math.max(1, (int) Math.ceil(3 * sigma));
+    double[] weights = new double[2 * radius + 1];
+    double sum = 0;
+    for (int i = -radius; i <= radius; i++) {
+      weights[i + radius] = Math.exp(-(i * i) / (2 * sigma * sigma));
+      sum += weights[i + radius];
+    }
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] /= sum;
+    }
+    return new Kernel(weights, weights);
+  }
+}
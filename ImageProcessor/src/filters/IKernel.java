@@ -33,4 +33,52 @@ public interface IKernel {
    * @param y index of the array representing the column
    */
   double getValueAt(int x, int y);
+
+  /**
+   * Returns the values of the kernel flattened in row major order, so the value at x and y is at
+   * index y * width + x. Filters convert the kernel into this form once so that applying it does
+   * not need to walk the matrix.
+   *
+   * @return a new array of length width * height holding the kernel's values
+   */
+  default double[] getFlattenedValues() {
+    double[] flat = new double[this.getWidth() * this.getHeight()];
+    for (int y = 0; y < this.getHeight(); y++) {
+      for (int x = 0; x < this.getWidth(); x++) {
+        flat[y * this.getWidth() + x] = this.getValueAt(x, y);
+      }
+    }
+    return flat;
+  }
+
+  /**
+   * Returns whether this kernel is the outer product of a column and a row vector, in which case
+   * it can be applied as a horizontal pass followed by a vertical pass. By default kernels are not
+   * known to be separable and are applied in one 2D pass.
+   *
+   * @return true if the kernel is separable, false otherwise
+   */
+  default boolean isSeparable() {
+    return false;
+  }
+
+  /**
+   * Returns the horizontal factor of a separable kernel, of length equal to the width.
+   *
+   * @return the row vector of the kernel
+   * @throws IllegalStateException If the kernel is not separable.
+   */
+  default double[] getRowVector() throws IllegalStateException {
+    throw new IllegalStateException("Kernel is not separable.");
+  }
+
+  /**
+   * Returns the vertical factor of a separable kernel, of length equal to the height.
+   *
+   * @return the column vector of the kernel
+   * @throws IllegalStateException If the kernel is not separable.
+   */
+  default double[] getColumnVector() throws IllegalStateException {
+    throw new IllegalStateException("Kernel is not separable.");
+  }
 }
@@ -6,25 +6,56 @@ package filters;
  */
 public class Kernel implements IKernel {
 
+  // relative tolerance used when checking if a kernel is separable
+  private static final double EPSILON = 1e-9;
+
   private int width;
   private int height;
   private double[][] values;
+  private double[] rowVector;
+  private double[] columnVector;
 
   /**
-   * Constructs a kernel of given width, height, and matrix values.
+   * Constructs a kernel of given width, height, and matrix values. The values are copied, and the
+   * kernel is checked for separability so that filters can apply it as two 1-D passes.
    *
    * @param width  width of the 2D kernel array
    * @param height height of the 2D kernel array
    * @param values List of List of Doubles representing the values of the kernel
    */
   public Kernel(int width, int height, double[][] values) {
-    if (width == 0 || height == 0 || values == null || values.length == 0) {
+    if (width <= 0 || height <= 0 || values == null || values.length == 0) {
       throw new IllegalArgumentException("Invalid Kernel");
     }
 
     this.width = width;
     this.height = height;
-    this.values = values;
+    this.values = copy(values);
+    this.factor();
+  }
+
+  /**
+   * Constructs a separable kernel from its vertical and horizontal factors. The values of the
+   * kernel are the outer product of the two vectors.
+   *
+   * @param column vertical factor of the kernel
+   * @param row    horizontal factor of the kernel
+   * @throws IllegalArgumentException If either vector is null or empty.
+   */
+  public Kernel(double[] column, double[] row) {
+    if (column == null || row == null || column.length == 0 || row.length == 0) {
+      throw new IllegalArgumentException("Invalid Kernel");
+    }
+    this.width = row.length;
+    this.height = column.length;
+    this.columnVector = column.clone();
+    this.rowVector = row.clone();
+    this.values = new double[this.height][this.width];
+    for (int i = 0; i < this.height; i++) {
+      for (int j = 0; j < this.width; j++) {
+        this.values[i][j] = this.columnVector[i] * this.rowVector[j];
+      }
+    }
   }
 
   /**
@@ -34,6 +65,58 @@ public class Kernel implements IKernel {
     // default empty constructor
   }
 
+  /**
+   * Copies a matrix row by row, keeping missing rows missing.
+   *
+   * @param values the matrix to copy.
+   * @return a copy that shares no arrays with the matrix.
+   */
+  private static double[][] copy(double[][] values) {
+    double[][] copy = new double[values.length][];
+    for (int i = 0; i < values.length; i++) {
+      copy[i] = values[i] == null ? null : values[i].clone();
+    }
+    return copy;
+  }
+
+  /**
+   * Splits the width by height values into a column and a row vector if they form a matrix of rank
+   * one. The row vector is taken from the row holding the largest value, and every row must be a
+   * multiple of it.
+   */
+  private void factor() {
+    double[] flat = this.getFlattenedValues();
+    int pivot = 0;
+    for (int k = 0; k < flat.length; k++) {
+      if (Math.abs(flat[k]) > Math.abs(flat[pivot])) {
+        pivot = k;
+      }
+    }
+    if (flat[pivot] == 0) {
+      return;
+    }
+    int pivotRow = pivot / this.width;
+    int pivotColumn = pivot % this.width;
+    double[] column = new double[this.height];
+    double[] row = new double[this.width];
+    for (int i = 0; i < this.height; i++) {
+      column[i] = flat[i * this.width + pivotColumn];
+    }
+    for (int j = 0; j < this.width; j++) {
+      row[j] = flat[pivotRow * this.width + j] / flat[pivot];
+    }
+    for (int i = 0; i < this.height; i++) {
+      for (int j = 0; j < this.width; j++) {
+        if (Math.abs(column[i] * row[j] - flat[i * this.width + j])
+            > EPSILON * Math.abs(flat[pivot])) {
+          return;
+        }
+      }
+    }
+    this.columnVector = column;
+    this.rowVector = row;
+  }
+
   @Override
   public final int getHeight() {
     return height;
@@ -46,7 +129,7 @@ public class Kernel implements IKernel {
 
   @Override
   public final double[][] getValues() {
-    return values;
+    return values == null ? null : copy(values);
   }
 
   @Override
@@ -58,5 +141,44 @@ public class Kernel implements IKernel {
     }
   }
 
+  @Override
+  public final double[] getFlattenedValues() {
+    double[] flat = new double[this.width * this.height];
+    if (this.values == null) {
+      return flat;
+    }
+    // entries missing from a ragged matrix count as 0
+    for (int i = 0; i < Math.min(this.height, this.values.length); i++) {
+      if (this.values[i] == null) {
+        continue;
+      }
+      for (int j = 0; j < Math.min(this.width, this.values[i].length); j++) {
+        flat[i * this.width + j] = this.values[i][j];
+      }
+    }
+    return flat;
+  }
+
+  @Override
+  public final boolean isSeparable() {
+    return this.rowVector != null;
+  }
+
+  @Override
+  public final double[] getRowVector() throws IllegalStateException {
+    if (!this.isSeparable()) {
+      throw new IllegalStateException("Kernel is not separable.");
+    }
+    return this.rowVector.clone();
+  }
+
+  @Override
+  public final double[] getColumnVector() throws IllegalStateException {
+    if (!this.isSeparable()) {
+      throw new IllegalStateException("Kernel is not separable.");
+    }
+    return this.columnVector.clone();
+  }
+
 
 }
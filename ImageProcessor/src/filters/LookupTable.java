@@ -0,0 +1,171 @@
+package filters;
+
+import java.util.function.IntUnaryOperator;
+
+import model.graph.Histogram;
+import model.imaging.PixelImage;
+
+/**
+ * Class representing a per channel transformation as lookup tables. Each channel of the result is
+ * read from a table of 256 values, indexed by one of the channels of the original color. This
+ * covers transformations that change every channel on its own, such as brightening, and ones that
+ * copy one channel into the others, such as the component greyscales. Values are clamped when the
+ * table is built, so applying it is just three array reads per pixel.
+ */
+public final class LookupTable implements PointOperation {
+
+  /**
+   * Index of the red channel.
+   */
+  public static final int RED = 0;
+  /**
+   * Index of the green channel.
+   */
+  public static final int GREEN = 1;
+  /**
+   * Index of the blue channel.
+   */
+  public static final int BLUE = 2;
+
+  // tables[c] maps the value of channel sources[c] of the original color onto channel c
+  private final byte[][] tables;
+  private final int[] sources;
+
+  /**
+   * Constructs a lookup table from its tables and the channels they read from.
+   *
+   * @param tables  a table of 256 values for each channel of the result.
+   * @param sources the channel of the original color each table is indexed by.
+   */
+  private LookupTable(byte[][] tables, int[] sources) {
+    this.tables = tables;
+    this.sources = sources;
+  }
+
+  /**
+   * Creates a lookup table that applies the given function to every channel. Results of the
+   * function outside of 0-255 are clamped.
+   *
+   * @param function function from a channel value to its new value.
+   * @return the lookup table for the function.
+   * @throws IllegalArgumentException If the function is null.
+   */
+  public static LookupTable map(IntUnaryOperator function) throws IllegalArgumentException {
+    if (function == null) {
+      throw new IllegalArgumentException("Function can't be null.");
+    }
+    byte[] table = new byte[256];
+    for (int i = 0; i < 256; i++) {
+      table[i] = (byte) FilterClamp.clamp(function.applyAsInt(i));
+    }
+    return new LookupTable(new byte[][]{table, table, table}, new int[]{RED, GREEN, BLUE});
+  }
+
+  /**
+   * Creates a lookup table that copies the given channel into every channel.
+   *
+   * @param channel one of RED, GREEN or BLUE.
+   * @return the lookup table selecting the channel.
+   * @throws IllegalArgumentException If the channel is not valid.
+   */
+  public static LookupTable select(int channel) throws IllegalArgumentException {
+    if (channel < RED || channel > BLUE) {
+      throw new IllegalArgumentException("Invalid channel.");
+    }
+    byte[] identity = new byte[256];
+    for (int i = 0; i < 256; i++) {
+      identity[i] = (byte) i;
+    }
+    return new LookupTable(new byte[][]{identity, identity, identity},
+            new int[]{channel, channel, channel});
+  }
+
+  /**
+   * Creates a lookup table that gives the same result as applying this table followed by the given
+   * table.
+   *
+   * @param next the table applied after this table.
+   * @return the composed lookup table.
+   * @throws IllegalArgumentException If the table is null.
+   */
+  public LookupTable then(LookupTable next) throws IllegalArgumentException {
+    if (next == null) {
+      throw new IllegalArgumentException("Table can't be null.");
+    }
+    byte[][] tables = new byte[3][256];
+    int[] sources = new int[3];
+    for (int c = RED; c <= BLUE; c++) {
+      // channel c of the result reads channel next.sources[c] of this table's result
+      byte[] first = this.tables[next.sources[c]];
+      sources[c] = this.sources[next.sources[c]];
+      for (int i = 0; i < 256; i++) {
+        tables[c][i] = next.tables[c][first[i] & 0xFF];
+      }
+    }
+    return new LookupTable(tables, sources);
+  }
+
+  @Override
+  public int apply(int rgb) {
+    int r = this.tables[RED][(rgb >> shift(this.sources[RED])) & 0xFF] & 0xFF;
+    int g = this.tables[GREEN][(rgb >> shift(this.sources[GREEN])) & 0xFF] & 0xFF;
+    int b = this.tables[BLUE][(rgb >> shift(this.sources[BLUE])) & 0xFF] & 0xFF;
+    return (r << 16) | (g << 8) | b;
+  }
+
+  /**
+   * Applies the lookup table to every pixel of the given image.
+   *
+   * @param image the image being transformed.
+   * @return the transformed raster, packed as 0xRRGGBB in row major order.
+   */
+  public int[] apply(PixelImage image) {
+    return this.apply(image, null);
+  }
+
+  /**
+   * Applies the lookup table to every pixel of the given image, counting the transformed colors
+   * into the given histogram as each band of rows is finished.
+   *
+   * @param image     the image being transformed.
+   * @param histogram the histogram to count the result into, or null to not count it.
+   * @return the transformed raster, packed as 0xRRGGBB in row major order.
+   */
+  public int[] apply(PixelImage image, Histogram histogram) {
+    int width = image.getWidth();
+    byte[] red = this.tables[RED];
+    byte[] green = this.tables[GREEN];
+    byte[] blue = this.tables[BLUE];
+    int redShift = shift(this.sources[RED]);
+    int greenShift = shift(this.sources[GREEN]);
+    int blueShift = shift(this.sources[BLUE]);
+    int[] updated = new int[width * image.getHeight()];
+    RowScheduler.forEachBand(width, image.getHeight(), (start, end) -> {
+      int[] row = null;
+      for (int i = start; i < end; i++) {
+        row = image.getRow(i, row);
+        int offset = i * width;
+        for (int j = 0; j < width; j++) {
+          int rgb = row[j];
+          updated[offset + j] = (red[(rgb >> redShift) & 0xFF] & 0xFF) << 16
+                  | (green[(rgb >> greenShift) & 0xFF] & 0xFF) << 8
+                  | (blue[(rgb >> blueShift) & 0xFF] & 0xFF);
+        }
+      }
+      if (histogram != null) {
+        histogram.count(updated, start * width, end * width);
+      }
+    });
+    return updated;
+  }
+
+  /**
+   * Gets how far the given channel is shifted in a packed color.
+   *
+   * @param channel one of RED, GREEN or BLUE.
+   * @return the shift of the channel.
+   */
+  private static int shift(int channel) {
+    return 16 - 8 * channel;
+  }
+}
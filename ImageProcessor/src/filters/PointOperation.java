@@ -0,0 +1,17 @@
+package filters;
+
+/**
+ * Interface representing an operation that changes the color of every pixel of an image without
+ * looking at its position or its neighbours. Chains of these operations can be run in a single
+ * pass over an image, see {@link ColorPipeline}.
+ */
+public interface PointOperation {
+
+  /**
+   * Applies the operation to a single color.
+   *
+   * @param rgb the color packed as 0xRRGGBB.
+   * @return the transformed color packed as 0xRRGGBB.
+   */
+  int apply(int rgb);
+}
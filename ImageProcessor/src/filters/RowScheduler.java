@@ -0,0 +1,221 @@
+package filters;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class that runs a per row operation over an image on a fork join pool. The rows of the image are
+ * split into bands which are processed in parallel, every row is processed exactly once so as long
+ * as each row only writes to its own part of the output the result is the same as running the
+ * operation sequentially. Small images are always processed on the calling thread. When the
+ * parallelism is changed the old pool is only shut down once every image it is processing is done.
+ */
+public final class RowScheduler {
+
+  // images with fewer pixels than this are not worth splitting up
+  private static final int SEQUENTIAL_THRESHOLD = 1 << 15;
+  // bands are split until they hold about this many pixels
+  private static final int BAND_PIXELS = 1 << 14;
+
+  private static volatile Workers workers = createWorkers(defaultParallelism());
+
+  /**
+   * Function object that processes a band of rows of an image.
+   */
+  public interface RowBand {
+
+    /**
+     * Processes the rows from start (inclusive) to end (exclusive).
+     *
+     * @param start first row of the band.
+     * @param end   row after the last row of the band.
+     */
+    void apply(int start, int end);
+  }
+
+  /**
+   * Private constructor, this class only contains static methods.
+   */
+  private RowScheduler() {
+    // utility class
+  }
+
+  /**
+   * Runs the given operation over every row of an image with the given dimensions, returning once
+   * every row has been processed.
+   *
+   * @param width  width of the image.
+   * @param height height of the image.
+   * @param band   operation to run on each band of rows.
+   * @throws IllegalArgumentException If the band is null.
+   */
+  public static void forEachBand(int width, int height, RowBand band)
+          throws IllegalArgumentException {
+    if (band == null) {
+      throw new IllegalArgumentException("Band can't be null.");
+    }
+    if ((long) width * height < SEQUENTIAL_THRESHOLD) {
+      band.apply(0, height);
+      return;
+    }
+    Workers current = acquire();
+    if (current == null) {
+      band.apply(0, height);
+      return;
+    }
+    try {
+      int rowsPerBand = Math.max(1, BAND_PIXELS / Math.max(1, width));
+      current.pool.invoke(new BandTask(band, 0, height, rowsPerBand));
+    } finally {
+      current.release();
+    }
+  }
+
+  /**
+   * Sets how many threads are used to process images. A parallelism of 1 processes every image on
+   * the calling thread.
+   *
+   * @param parallelism number of threads to use.
+   * @throws IllegalArgumentException If the parallelism is less than 1.
+   */
+  public static void setParallelism(int parallelism) throws IllegalArgumentException {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be at least 1.");
+    }
+    Workers old = workers;
+    workers = createWorkers(parallelism);
+    if (old != null) {
+      old.retire();
+    }
+  }
+
+  /**
+   * Gets how many threads are used to process images.
+   *
+   * @return the parallelism level.
+   */
+  public static int getParallelism() {
+    Workers current = workers;
+    return current == null ? 1 : current.pool.getParallelism();
+  }
+
+  /**
+   * Gets the parallelism from the "imageprocessor.parallelism" system property, or the number of
+   * available processors if it is not set.
+   *
+   * @return the default parallelism level.
+   */
+  private static int defaultParallelism() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    try {
+      return Math.max(1, Integer.getInteger("imageprocessor.parallelism", processors));
+    } catch (SecurityException e) {
+      return processors;
+    }
+  }
+
+  /**
+   * Creates the pool for the given parallelism, or null if images should be processed on the
+   * calling thread.
+   *
+   * @param parallelism number of threads to use.
+   * @return the pool, or null.
+   */
+  private static Workers createWorkers(int parallelism) {
+    return parallelism == 1 ? null : new Workers(new ForkJoinPool(parallelism));
+  }
+
+  /**
+   * Gets the current pool and counts the caller as one of its users, so that it is not shut down
+   * until the caller releases it.
+   *
+   * @return the current pool, or null if images are processed on the calling thread.
+   */
+  private static Workers acquire() {
+    while (true) {
+      Workers current = workers;
+      if (current == null || current.use()) {
+        return current;
+      }
+    }
+  }
+
+  /**
+   * A pool along with the number of images it is processing. A pool that has been replaced is
+   * shut down by whichever of the replacement and its last user comes last.
+   */
+  private static final class Workers {
+    private final ForkJoinPool pool;
+    private final AtomicInteger users = new AtomicInteger();
+    private volatile boolean retired;
+
+    private Workers(ForkJoinPool pool) {
+      this.pool = pool;
+    }
+
+    /**
+     * Counts a new user of the pool.
+     *
+     * @return true if the pool can be used, false if it has been replaced.
+     */
+    private boolean use() {
+      this.users.incrementAndGet();
+      if (this.retired) {
+        this.release();
+        return false;
+      }
+      return true;
+    }
+
+    /**
+     * Stops counting a user of the pool, shutting it down if it has been replaced and this was
+     * its last user.
+     */
+    private void release() {
+      if (this.users.decrementAndGet() == 0 && this.retired) {
+        this.pool.shutdown();
+      }
+    }
+
+    /**
+     * Marks the pool as replaced, shutting it down straight away if nothing is using it.
+     */
+    private void retire() {
+      this.retired = true;
+      if (this.users.get() == 0) {
+        this.pool.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Task that splits a range of rows in half until it is small enough to process directly.
+   */
+  private static final class BandTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final RowBand band;
+    private final int start;
+    private final int end;
+    private final int rowsPerBand;
+
+    private BandTask(RowBand band, int start, int end, int rowsPerBand) {
+      this.band = band;
+      this.start = start;
+      this.end = end;
+      this.rowsPerBand = rowsPerBand;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.end - this.start <= this.rowsPerBand) {
+        this.band.apply(this.start, this.end);
+      } else {
+        int middle = (this.start + this.end) >>> 1;
+        invokeAll(new BandTask(this.band, this.start, middle, this.rowsPerBand),
+                new BandTask(this.band, middle, this.end, this.rowsPerBand));
+      }
+    }
+  }
+}
@@ -10,11 +10,22 @@ public class SharpenFilter extends AbstractFilter {
    * to be sharpened.
    */
   public SharpenFilter() {
+    this(BorderMode.ZERO);
+  }
+
+  /**
+   * Constructor for a sharpening transformation that treats neighbours outside of the image using
+   * the given border mode.
+   *
+   * @param border how neighbours outside of the image are treated.
+   * @throws IllegalArgumentException If the border mode is null.
+   */
+  public SharpenFilter(BorderMode border) throws IllegalArgumentException {
 
     super(new Kernel(5, 5, new double[][]{{-0.125, -0.125, -0.125, -0.125, -0.125},
         {-0.125, 0.25, 0.25, 0.25, -0.125},
         {-0.125, 0.25, 1, 0.25, -0.12},
         {-0.125, 0.25, 0.25, 0.25, -0.125},
-        {-0.125, -0.125, -0.125, -0.125, -0.125}}));
+        {-0.125, -0.125, -0.125, -0.125, -0.125}}), border);
   }
 }
@@ -1,11 +1,10 @@
 package filters.colortransformation;
 
-import java.util.ArrayList;
-import java.util.List;
-
+import filters.LookupTable;
+import filters.PointOperation;
+import filters.RowScheduler;
 import model.imaging.Image;
 import model.imaging.PixelImage;
-import model.imaging.pixel.IPixel;
 
 /**
  * Abstract class for any Color transformations.
@@ -22,29 +21,63 @@ public abstract class AbstractColorTransformation implements IColorTransform {
     if (image == null) {
       throw new IllegalArgumentException("Image can't be null.");
     }
-    List<List<IPixel>> imagePixels = image.getPixels();
-    return new Image(transform(imagePixels));
+    return Image.adopt(image.getWidth(), image.getHeight(), transform(image));
   }
 
   /**
-   * Applies the given transformation to each pixel in the given image.
+   * Gets this transformation as an operation on a single color, so that it can be combined with
+   * other operations into a single pass over an image.
    *
-   * @param imagePixels the image's pixels.
-   * @return a list of list of transformed pixels
+   * @return the transformation as a point operation.
    */
-  protected List<ArrayList<IPixel>> transform(List<List<IPixel>> imagePixels) {
-    List<ArrayList<IPixel>> updatedPixels = new ArrayList<>();
-    for (List<IPixel> l : imagePixels) {
-      ArrayList<IPixel> row = new ArrayList<>();
-      for (IPixel p : l) {
-        row.add(colorTransform(p));
-      }
-      updatedPixels.add(row);
+  public PointOperation pointOperation() {
+    LookupTable table = lookupTable();
+    return table != null ? table : this::colorTransform;
+  }
+
+  /**
+   * Applies the given transformation to each pixel in the given image. Transformations that have a
+   * lookup table are applied through it.
+   *
+   * @param image the image being transformed.
+   * @return the transformed raster, packed as 0xRRGGBB in row major order.
+   */
+  protected int[] transform(PixelImage image) {
+    LookupTable table = lookupTable();
+    if (table != null) {
+      return table.apply(image);
     }
+    int width = image.getWidth();
+    int[] updatedPixels = new int[width * image.getHeight()];
+    RowScheduler.forEachBand(width, image.getHeight(), (start, end) -> {
+      int[] row = null;
+      for (int i = start; i < end; i++) {
+        row = image.getRow(i, row);
+        for (int j = 0; j < width; j++) {
+          updatedPixels[i * width + j] = colorTransform(row[j]);
+        }
+      }
+    });
     return updatedPixels;
   }
 
-  protected abstract IPixel colorTransform(IPixel p);
+  /**
+   * Applies the color transformation to a single packed color.
+   *
+   * @param rgb the color packed as 0xRRGGBB.
+   * @return the transformed color packed as 0xRRGGBB.
+   */
+  protected abstract int colorTransform(int rgb);
+
+  /**
+   * Gets the lookup table that gives the same result as this transformation, for transformations
+   * where each channel only depends on a single channel of the original color.
+   *
+   * @return the lookup table, or null if the transformation can't be expressed as one.
+   */
+  protected LookupTable lookupTable() {
+    return null;
+  }
 
 
 
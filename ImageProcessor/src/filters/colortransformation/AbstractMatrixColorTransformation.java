@@ -3,15 +3,11 @@ package filters.colortransformation;
 import filters.FilterClamp;
 import filters.IFilter;
 import filters.IKernel;
-import model.imaging.Color;
+import filters.PointOperation;
+import filters.RowScheduler;
 import model.imaging.Image;
+import model.imaging.PackedColor;
 import model.imaging.PixelImage;
-import model.imaging.Posn;
-import model.imaging.pixel.IPixel;
-import model.imaging.pixel.PixelImpl;
-
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Represents an abstracted version of a transformation processor in order to be extended by any
@@ -51,52 +47,67 @@ public abstract class AbstractMatrixColorTransformation implements IFilter {
     if (iop == null) {
       throw new IllegalArgumentException("Image can't be null.");
     }
-    List<List<IPixel>> imagePix = iop.getPixels();
-    return new Image(applyTransform(imagePix));
+    return Image.adopt(iop.getWidth(), iop.getHeight(), applyTransform(iop));
   }
 
   /**
-   * Applies a color transformation to every pixel in a given image of pixels.
+   * Gets this transformation as an operation on a single color, so that it can be combined with
+   * other operations into a single pass over an image.
    *
-   * @param imagePix the image's pixels.
-   * @return the transformed 2D pixel array.
+   * @return the transformation as a point operation.
    */
-  protected List<ArrayList<IPixel>> applyTransform(List<List<IPixel>> imagePix) {
-    List<ArrayList<IPixel>> newPixels = new ArrayList<>();
-    for (List<IPixel> c : imagePix) {
-      ArrayList<IPixel> r = new ArrayList<>();
-      for (IPixel p : c) {
-        r.add(colorTransform(p));
+  public PointOperation pointOperation() {
+    return this::colorTransform;
+  }
+
+  /**
+   * Applies a color transformation to every pixel in a given image.
+   *
+   * @param iop the image being transformed.
+   * @return the transformed raster, packed as 0xRRGGBB in row major order.
+   */
+  protected int[] applyTransform(PixelImage iop) {
+    int width = iop.getWidth();
+    int[] newPixels = new int[width * iop.getHeight()];
+    RowScheduler.forEachBand(width, iop.getHeight(), (start, end) -> {
+      int[] row = null;
+      for (int i = start; i < end; i++) {
+        row = iop.getRow(i, row);
+        for (int j = 0; j < width; j++) {
+          newPixels[i * width + j] = colorTransform(row[j]);
+        }
       }
-      newPixels.add(r);
-    }
+    });
     return newPixels;
   }
 
   /**
-   * Applies the color transformation to the given pixel. Values are clamped to 0 255.
+   * Applies the color transformation to the given color. Values are clamped to 0 255.
    *
-   * @param pixel Pixel being transformed.
-   * @return The transformed pixel.
+   * @param rgb Color being transformed, packed as 0xRRGGBB.
+   * @return The transformed color, packed as 0xRRGGBB.
    */
-  protected IPixel colorTransform(IPixel pixel) {
-
-    int changedRed = (int) (pixel.getColor().getRed() * this.kernelValues[0][0]
-            + pixel.getColor().getGreen() * this.kernelValues[0][1]
-            + pixel.getColor().getBlue() * this.kernelValues[0][2]);
-    int changedGreen = (int) (pixel.getColor().getRed() * this.kernelValues[1][0]
-            + pixel.getColor().getGreen() * this.kernelValues[1][1]
-            + pixel.getColor().getBlue() * this.kernelValues[1][2]);
-    int changedBlue = (int) (pixel.getColor().getRed() * this.kernelValues[2][0]
-            + pixel.getColor().getGreen() * this.kernelValues[2][1]
-            + pixel.getColor().getBlue() * this.kernelValues[2][2]);
+  protected int colorTransform(int rgb) {
+
+    int red = PackedColor.red(rgb);
+    int green = PackedColor.green(rgb);
+    int blue = PackedColor.blue(rgb);
+
+    int changedRed = (int) (red * this.kernelValues[0][0]
+            + green * this.kernelValues[0][1]
+            + blue * this.kernelValues[0][2]);
+    int changedGreen = (int) (red * this.kernelValues[1][0]
+            + green * this.kernelValues[1][1]
+            + blue * this.kernelValues[1][2]);
+    int changedBlue = (int) (red * this.kernelValues[2][0]
+            + green * this.kernelValues[2][1]
+            + blue * this.kernelValues[2][2]);
 
     changedRed = FilterClamp.clamp(changedRed);
     changedGreen = FilterClamp.clamp(changedGreen);
     changedBlue = FilterClamp.clamp(changedBlue);
 
-    return new PixelImpl(new Posn(pixel.getPosn().getX(), pixel.getPosn().getY()),
-            new Color(changedRed, changedGreen, changedBlue));
+    return PackedColor.pack(changedRed, changedGreen, changedBlue);
 
   }
 
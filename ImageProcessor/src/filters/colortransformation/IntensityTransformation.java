@@ -1,9 +1,6 @@
 package filters.colortransformation;
 
-import model.imaging.Color;
-import model.imaging.Posn;
-import model.imaging.pixel.IPixel;
-import model.imaging.pixel.PixelImpl;
+import model.imaging.PackedColor;
 
 /**
  * Class to represent an intensity change on a pixel.
@@ -21,18 +18,17 @@ public class IntensityTransformation extends AbstractColorTransformation {
    * Applies the color transformation to the given pixel by updating its rgb values. Any out of
    * range rgb value is clamped to the minimum value of 0 or the maximum value of 255.
    *
-   * @param pixel Pixel being transformed.
-   * @return The transformed pixel.
+   * @param rgb Color being transformed, packed as 0xRRGGBB.
+   * @return The transformed color, packed as 0xRRGGBB.
    */
   @Override
-  protected IPixel colorTransform(IPixel pixel) {
+  protected int colorTransform(int rgb) {
 
-    int avg = clampValues(pixel.getColor().getRed()
-            + pixel.getColor().getGreen()
-            + pixel.getColor().getGreen()) / 3;
+    int avg = clampValues(PackedColor.red(rgb)
+            + PackedColor.green(rgb)
+            + PackedColor.green(rgb)) / 3;
 
-    return new PixelImpl(new Posn(pixel.getPosn().getX(), pixel.getPosn().getY()), new Color(avg,
-            avg, avg));
+    return PackedColor.pack(avg, avg, avg);
   }
 
   /**
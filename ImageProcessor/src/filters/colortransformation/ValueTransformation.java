@@ -1,9 +1,6 @@
 package filters.colortransformation;
 
-import model.imaging.Color;
-import model.imaging.Posn;
-import model.imaging.pixel.IPixel;
-import model.imaging.pixel.PixelImpl;
+import model.imaging.PackedColor;
 
 /**
  * Class to represent a value change on a pixel.
@@ -22,17 +19,16 @@ public class ValueTransformation extends AbstractColorTransformation {
    * Applies the color transformation to the given pixel by updating its rgb values. Any out of
    * range rgb value is clamped to the minimum value of 0 or the maximum value of 255.
    *
-   * @param pixel Pixel being transformed.
-   * @return The transformed pixel.
+   * @param rgb Color being transformed, packed as 0xRRGGBB.
+   * @return The transformed color, packed as 0xRRGGBB.
    */
-  protected IPixel colorTransform(IPixel pixel) {
+  protected int colorTransform(int rgb) {
 
-    int largest = getMaxColor(pixel.getColor().getRed(),
-            pixel.getColor().getGreen(),
-            pixel.getColor().getBlue());
+    int largest = getMaxColor(PackedColor.red(rgb),
+            PackedColor.green(rgb),
+            PackedColor.blue(rgb));
 
-    return new PixelImpl(new Posn(pixel.getPosn().getX(), pixel.getPosn().getY()),
-            new Color(largest, largest, largest));
+    return PackedColor.pack(largest, largest, largest);
 
   }
 
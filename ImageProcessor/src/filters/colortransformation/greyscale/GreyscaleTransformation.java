@@ -1,16 +1,12 @@
 package filters.colortransformation.greyscale;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import filters.colortransformation.IColorTransform;
 import filters.FilterClamp;
-import model.imaging.Color;
+import filters.PointOperation;
+import filters.RowScheduler;
 import model.imaging.Image;
+import model.imaging.PackedColor;
 import model.imaging.PixelImage;
-import model.imaging.Posn;
-import model.imaging.pixel.IPixel;
-import model.imaging.pixel.PixelImpl;
 
 /**
  * Class representing a grey scale filter on a pixel.
@@ -38,45 +34,64 @@ public class GreyscaleTransformation implements IColorTransform {
     if (image == null) {
       throw new IllegalArgumentException("Image can't be null.");
     }
-    List<List<IPixel>> imagePixels = image.getPixels();
-    return new Image(transform(image, imagePixels));
+    return Image.adopt(image.getWidth(), image.getHeight(), transform(image));
+  }
+
+  /**
+   * Gets this transformation as an operation on a single color, so that it can be combined with
+   * other operations into a single pass over an image.
+   *
+   * @return the transformation as a point operation.
+   */
+  public PointOperation pointOperation() {
+    return this::colorTransform;
   }
 
-  protected List<ArrayList<IPixel>> transform(PixelImage image,
-                                              List<List<IPixel>> imagePixels) {
-    List<ArrayList<IPixel>> updatedPixels = new ArrayList<>();
-    for (List<IPixel> l : imagePixels) {
-      ArrayList<IPixel> row = new ArrayList<>();
-      for (IPixel p : l) {
-        row.add(colorTransform(p));
+  /**
+   * Applies the transformation to each pixel in the given image.
+   *
+   * @param image the image being transformed.
+   * @return the transformed raster, packed as 0xRRGGBB in row major order.
+   */
+  protected int[] transform(PixelImage image) {
+    int width = image.getWidth();
+    int[] updatedPixels = new int[width * image.getHeight()];
+    RowScheduler.forEachBand(width, image.getHeight(), (start, end) -> {
+      int[] row = null;
+      for (int i = start; i < end; i++) {
+        row = image.getRow(i, row);
+        for (int j = 0; j < width; j++) {
+          updatedPixels[i * width + j] = colorTransform(row[j]);
+        }
       }
-      updatedPixels.add(row);
-    }
+    });
     return updatedPixels;
   }
 
   /**
-   * Applies the color transformation to the given pixel. Any out of
+   * Applies the color transformation to the given color. Any out of
    * range rgb value is clamped to the minimum value of 0 or the maximum value of 255.
    *
-   * @param pixel pixel being transformed.
-   * @return The transformed pixel.
+   * @param rgb color being transformed, packed as 0xRRGGBB.
+   * @return The transformed color, packed as 0xRRGGBB.
    */
-  protected IPixel colorTransform(IPixel pixel) {
+  protected int colorTransform(int rgb) {
+
+    int red = PackedColor.red(rgb);
+    int green = PackedColor.green(rgb);
+    int blue = PackedColor.blue(rgb);
 
-    int changedRed = FilterClamp.clamp((int) (pixel.getColor().getRed() * this.lumaVals[0][0]
-            + pixel.getColor().getGreen() * this.lumaVals[0][1]
-            + pixel.getColor().getBlue() * this.lumaVals[0][2]));
-    int changedGreen = FilterClamp.clamp((int) (pixel.getColor().getRed() * this.lumaVals[1][0]
-            + pixel.getColor().getGreen() * this.lumaVals[1][1]
-            + pixel.getColor().getBlue() * this.lumaVals[1][2]));
-    int changedBlue = FilterClamp.clamp((int) (pixel.getColor().getRed() * this.lumaVals[2][0]
-            + pixel.getColor().getGreen() * this.lumaVals[2][1]
-            + pixel.getColor().getBlue() * this.lumaVals[2][2]));
+    int changedRed = FilterClamp.clamp((int) (red * this.lumaVals[0][0]
+            + green * this.lumaVals[0][1]
+            + blue * this.lumaVals[0][2]));
+    int changedGreen = FilterClamp.clamp((int) (red * this.lumaVals[1][0]
+            + green * this.lumaVals[1][1]
+            + blue * this.lumaVals[1][2]));
+    int changedBlue = FilterClamp.clamp((int) (red * this.lumaVals[2][0]
+            + green * this.lumaVals[2][1]
+            + blue * this.lumaVals[2][2]));
 
-    return new PixelImpl(new Posn(pixel.getPosn().getX(), pixel.getPosn().getY()),
-            new Color(changedRed,
-                    changedGreen, changedBlue));
+    return PackedColor.pack(changedRed, changedGreen, changedBlue);
 
   }
 }
\ No newline at end of file
@@ -1,16 +1,16 @@
 package filters.colortransformation.greyscale;
 
+import filters.LookupTable;
 import filters.colortransformation.AbstractColorTransformation;
-import model.imaging.Color;
-import model.imaging.Posn;
-import model.imaging.pixel.IPixel;
-import model.imaging.pixel.PixelImpl;
+import model.imaging.PackedColor;
 
 /**
  * Class to represent a pixel being greyscale in terms of its red component.
  */
 public class RedComponent extends AbstractColorTransformation {
 
+  private static final LookupTable TABLE = LookupTable.select(LookupTable.RED);
+
   /**
    * Empty constructor for a RedGreyscale filter.
    */
@@ -22,19 +22,23 @@ public class RedComponent extends AbstractColorTransformation {
    * Applies the color transformation to the given pixel by updating its rgb values. Any out of
    * range rgb value is clamped to the minimum value of 0 or the maximum value of 255.
    *
-   * @param pixel Pixel being transformed.
-   * @return The transformed pixel.
+   * @param rgb Color being transformed, packed as 0xRRGGBB.
+   * @return The transformed color, packed as 0xRRGGBB.
    */
-  protected IPixel colorTransform(IPixel pixel) {
+  protected int colorTransform(int rgb) {
 
 
-    int red = pixel.getColor().getRed();
+    int red = PackedColor.red(rgb);
 
     int changedGreen = red;
     int changedBlue = red;
 
-    return new PixelImpl(new Posn(pixel.getPosn().getX(), pixel.getPosn().getY()), new Color(red,
-            changedGreen, changedBlue));
+    return PackedColor.pack(red, changedGreen, changedBlue);
+
+  }
 
+  @Override
+  protected LookupTable lookupTable() {
+    return TABLE;
   }
 }
@@ -1,11 +1,7 @@
 package filters.flippingtransformation;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import model.imaging.Image;
 import model.imaging.PixelImage;
-import model.imaging.pixel.IPixel;
 
 /**
  * Class to represent an image flipped horizontally down the middle.
@@ -24,18 +20,18 @@ public class FlipHorizontal implements IFlipTransform {
     if (image == null) {
       throw new IllegalArgumentException("Image can't be null");
     }
-    List<List<IPixel>> imagePixels = new ArrayList<>(image.getPixels());
-    List<ArrayList<IPixel>> newImagePixels = new ArrayList<>();
+    int width = image.getWidth();
+    int height = image.getHeight();
+    int[] newImagePixels = new int[width * height];
+    int[] oldPixels = null;
 
-    for (int i = 0; i < imagePixels.size(); i++) {
-      List<IPixel> oldPixels = imagePixels.get(i);
-      ArrayList<IPixel> newPixels = new ArrayList<>();
-      for (int j = oldPixels.size() - 1; j >= 0; j--) {
-        newPixels.add(oldPixels.get(j));
+    for (int i = 0; i < height; i++) {
+      oldPixels = image.getRow(i, oldPixels);
+      for (int j = 0; j < width; j++) {
+        newImagePixels[i * width + j] = oldPixels[width - 1 - j];
       }
-      newImagePixels.add(newPixels);
     }
-    return new Image(newImagePixels);
+    return Image.adopt(width, height, newImagePixels);
   }
 
 }
\ No newline at end of file
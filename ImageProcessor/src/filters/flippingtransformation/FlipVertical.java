@@ -1,11 +1,7 @@
 package filters.flippingtransformation;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import model.imaging.Image;
 import model.imaging.PixelImage;
-import model.imaging.pixel.IPixel;
 
 /**
  * Class to represent an image being flipped vertically down the lateral middle.
@@ -32,17 +28,15 @@ public class FlipVertical implements IFlipTransform {
     if (image == null) {
       throw new IllegalArgumentException("Image can't be null");
     }
-    List<List<IPixel>> imagePixels = image.getPixels();
-    List<ArrayList<IPixel>> newImagePixels = new ArrayList<>();
+    int width = image.getWidth();
+    int height = image.getHeight();
+    int[] newImagePixels = new int[width * height];
+    int[] pixels = null;
 
-    for (int i = imagePixels.size() - 1; i >= 0; i--) {
-      List<IPixel> pixels = imagePixels.get(i);
-      ArrayList<IPixel> newPixels = new ArrayList<>();
-      for (int j = 0; j < pixels.size(); j++) {
-        newPixels.add(pixels.get(j));
-      }
-      newImagePixels.add(newPixels);
+    for (int i = height - 1; i >= 0; i--) {
+      pixels = image.getRow(i, pixels);
+      System.arraycopy(pixels, 0, newImagePixels, (height - 1 - i) * width, width);
     }
-    return new Image(newImagePixels);
+    return Image.adopt(width, height, newImagePixels);
   }
 }
\ No newline at end of file
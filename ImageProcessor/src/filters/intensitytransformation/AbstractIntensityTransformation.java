@@ -1,12 +1,10 @@
 package filters.intensitytransformation;
 
-import java.util.ArrayList;
-import java.util.List;
-
-
+import filters.LookupTable;
+import filters.PointOperation;
+import filters.RowScheduler;
 import model.imaging.Image;
 import model.imaging.PixelImage;
-import model.imaging.pixel.IPixel;
 
 /**
  * Abstract class for an intensity transformation on an image.
@@ -21,13 +19,25 @@ public abstract class AbstractIntensityTransformation implements IIntensityTrans
   }
 
   /**
-   * Applies the intensity transformation to the given pixel. If the RGB value is out of range
+   * Applies the intensity transformation to the given color. If the RGB value is out of range
    * 0-255, it will be clamped to the value.
    *
-   * @param pixel the pixel being transformed
-   * @return the transformed pixel
+   * @param rgb the color being transformed, packed as 0xRRGGBB
+   * @param val the value that the color is being intensified by
+   * @return the transformed color, packed as 0xRRGGBB
    */
-  protected abstract IPixel intensityTransform(IPixel pixel, int val);
+  protected abstract int intensityTransform(int rgb, int val);
+
+  /**
+   * Gets the lookup table that gives the same result as this transformation for the given value,
+   * for transformations that change each channel on its own.
+   *
+   * @param val the value that the color is being intensified by
+   * @return the lookup table, or null if the transformation can't be expressed as one.
+   */
+  protected LookupTable lookupTable(int val) {
+    return null;
+  }
 
   /**
    * Applies some transformation on the intensity of a given image.
@@ -41,27 +51,45 @@ public abstract class AbstractIntensityTransformation implements IIntensityTrans
     if (image == null) {
       throw new IllegalArgumentException("Image can't' be null.");
     }
-    List<List<IPixel>> imagePixels = image.getPixels();
-    return new Image(transform(imagePixels, val));
+    return Image.adopt(image.getWidth(), image.getHeight(), transform(image, val));
   }
 
   /**
-   * Applies the intensity transformation on a given image.
+   * Gets this transformation for the given value as an operation on a single color, so that it can
+   * be combined with other operations into a single pass over an image.
    *
-   * @param imageOfPixels the image's pixels.
-   * @param val           the value that the image is being intensified by.
-   * @return the list of transformed pixels.
+   * @param val the value that the image is being intensified by.
+   * @return the transformation as a point operation.
    */
-  protected List transform(List<List<IPixel>> imageOfPixels,
-                           int val) {
-    List<ArrayList<IPixel>> updated = new ArrayList<>();
-    for (List<IPixel> r : imageOfPixels) {
-      ArrayList<IPixel> row = new ArrayList<>();
-      for (IPixel p : r) {
-        row.add(intensityTransform(p, val));
-      }
-      updated.add(row);
+  public PointOperation pointOperation(int val) {
+    LookupTable table = lookupTable(val);
+    return table != null ? table : rgb -> intensityTransform(rgb, val);
+  }
+
+  /**
+   * Applies the intensity transformation on a given image. Transformations that have a lookup
+   * table are applied through it.
+   *
+   * @param image the image being transformed.
+   * @param val   the value that the image is being intensified by.
+   * @return the transformed raster, packed as 0xRRGGBB in row major order.
+   */
+  protected int[] transform(PixelImage image, int val) {
+    LookupTable table = lookupTable(val);
+    if (table != null) {
+      return table.apply(image);
     }
+    int width = image.getWidth();
+    int[] updated = new int[width * image.getHeight()];
+    RowScheduler.forEachBand(width, image.getHeight(), (start, end) -> {
+      int[] row = null;
+      for (int i = start; i < end; i++) {
+        row = image.getRow(i, row);
+        for (int j = 0; j < width; j++) {
+          updated[i * width + j] = intensityTransform(row[j], val);
+        }
+      }
+    });
     return updated;
   }
 
@@ -1,10 +1,8 @@
 package filters.intensitytransformation;
 
 import filters.FilterClamp;
-import model.imaging.Color;
-import model.imaging.pixel.IPixel;
-import model.imaging.pixel.PixelImpl;
-import model.imaging.Posn;
+import filters.LookupTable;
+import model.imaging.PackedColor;
 
 /**
  * Class to represent a brightening filter on a pixel.
@@ -22,21 +20,22 @@ public class BrightenTransformation extends AbstractIntensityTransformation {
    * Applies a brightening on a pixel.
    * If the RGB value is out of range 0-255, it will be clamped to the value.
    *
-   * @param pixel pixel being transformed
+   * @param rgb   color being transformed, packed as 0xRRGGBB
    * @param val   the value that the pixel will be brightened by
-   * @return the transformed pixel.
+   * @return the transformed color, packed as 0xRRGGBB.
    */
   @Override
-  protected IPixel intensityTransform(IPixel pixel, int val) {
+  protected int intensityTransform(int rgb, int val) {
 
-    int changedRed = FilterClamp.clamp((int) (pixel.getColor().getRed() + val));
-    int changedGreen = FilterClamp.clamp((int) (pixel.getColor().getGreen() + val));
-    int changedBlue = FilterClamp.clamp((int) (pixel.getColor().getBlue() + val));
+    int changedRed = FilterClamp.clamp(PackedColor.red(rgb) + val);
+    int changedGreen = FilterClamp.clamp(PackedColor.green(rgb) + val);
+    int changedBlue = FilterClamp.clamp(PackedColor.blue(rgb) + val);
 
-    return new PixelImpl(new Posn(pixel.getPosn().getX(), pixel.getPosn().getY()),
-            new Color(changedRed,
-                    changedGreen, changedBlue));
+    return PackedColor.pack(changedRed, changedGreen, changedBlue);
   }
 
-
+  @Override
+  protected LookupTable lookupTable(int val) {
+    return LookupTable.map(value -> value + val);
+  }
 }
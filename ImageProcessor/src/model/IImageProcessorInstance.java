@@ -1,7 +1,9 @@
 package model;
 
+import model.graph.Histogram;
 import model.imaging.PixelImage;
 
+import java.awt.Rectangle;
 import java.util.List;
 import java.util.Map;
 
@@ -42,6 +44,46 @@ public interface IImageProcessorInstance {
   void addMultipleImages(Map<String, PixelImage> images, List<String> invisibleLayers)
           throws IllegalArgumentException;
 
+  /**
+   * Replaces all layers with the layers of the given source. The image of each layer is only read
+   * from the source when it is first asked for.
+   *
+   * @param source Stored multi layer image to open.
+   * @throws IllegalArgumentException If the source is null.
+   */
+  void openLayers(ILayerSource source) throws IllegalArgumentException;
+
+  /**
+   * Reads the layers that have not been read yet from the given source from now on, keeping every
+   * layer that is already in memory. This is needed after the layers are saved over the file they
+   * were opened from, since the old source no longer matches the file.
+   *
+   * @param source Stored multi layer image holding the current layers.
+   * @throws IllegalArgumentException If the source is null, or doesn't hold a layer that has not
+   *                                  been read yet.
+   */
+  void rebindLayers(ILayerSource source) throws IllegalArgumentException;
+
+  /**
+   * Returns the ids of the layers in order, without reading any layer.
+   *
+   * @return The list of layer ids.
+   */
+  List<String> getLayerIds();
+
+  /**
+   * Returns the ids of the layers that were added or replaced since the layers were last marked
+   * as saved, or were opened, in order.
+   *
+   * @return The list of changed layer ids.
+   */
+  List<String> getChangedLayers();
+
+  /**
+   * Marks every layer as saved, so that none of them counts as changed.
+   */
+  void markSaved();
+
   /**
    * Returns the list of ids of invisible images for this multi layer image.
    *
@@ -50,7 +92,7 @@ public interface IImageProcessorInstance {
   List<String> getVisibility();
 
   /**
-   * Gets a map assigning the image ids to the image represented by it.
+   * Gets a map assigning the image ids to the image represented by it, in the order of the layers.
    *
    * @return Map of all ids and their respective images.
    */
@@ -66,6 +108,29 @@ public interface IImageProcessorInstance {
    */
   void replaceImage(String id, PixelImage image) throws IllegalArgumentException;
 
+  /**
+   * Replaces the image associated with the given id with an image that only differs from it
+   * inside the given region. A histogram of the old image that is already known is updated from
+   * the region instead of being counted again.
+   *
+   * @param id     Id of image to be replaced.
+   * @param image  Image to replace with.
+   * @param region The region outside of which the images are the same.
+   * @throws IllegalArgumentException If any argument is null, there is no such id in the map, or
+   *                                  the region is not inside the image.
+   */
+  void replaceImage(String id, PixelImage image, Rectangle region)
+          throws IllegalArgumentException;
+
+  /**
+   * Gets the histogram of the image associated with the given id.
+   *
+   * @param id Id of the image.
+   * @return The histogram of the image.
+   * @throws IllegalArgumentException If the id is null or there is no such id in the map.
+   */
+  Histogram getHistogram(String id) throws IllegalArgumentException;
+
   /**
    * Adds the given image to the map with the given id as the key.
    *
@@ -76,12 +141,14 @@ public interface IImageProcessorInstance {
   void addImage(String id, PixelImage image) throws IllegalArgumentException;
 
   /**
-   * Returns the image associated with the given id.
+   * Returns the image associated with the given id, reading it first if it was opened from a
+   * layer source and has not been read yet.
    *
    * @param id Key to grab the image.
    * @return The image associated with the id.
    * @throws IllegalArgumentException If the id is null, or there is no image associated with that
-   *                                  id.
+   *                                  id, or the stored layer is not a valid image.
+   * @throws IllegalStateException    If the stored layer can't be read.
    */
   PixelImage getImage(String id) throws IllegalArgumentException;
 
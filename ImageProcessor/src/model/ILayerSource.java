@@ -0,0 +1,39 @@
+package model;
+
+import java.io.IOException;
+import java.util.List;
+
+import model.imaging.PixelImage;
+
+/**
+ * Interface to represent a stored multi layer image whose layers can be read one at a time. The
+ * ids and visibility of the layers are known up front, the image of a layer is only read when it
+ * is asked for.
+ */
+public interface ILayerSource {
+
+  /**
+   * Gets the ids of the layers, in order.
+   *
+   * @return the ids of all layers.
+   */
+  List<String> getLayerIds();
+
+  /**
+   * Gets the ids of the invisible layers.
+   *
+   * @return the ids of the invisible layers.
+   */
+  List<String> getHiddenIds();
+
+  /**
+   * Reads the image of the layer with the given id.
+   *
+   * @param id Id of the layer.
+   * @return The image of the layer.
+   * @throws IOException              If the layer can't be read.
+   * @throws IllegalArgumentException If there is no layer with the id, or its data is not a valid
+   *                                  image.
+   */
+  PixelImage readLayer(String id) throws IOException, IllegalArgumentException;
+}
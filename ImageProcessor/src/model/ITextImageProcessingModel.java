@@ -87,6 +87,14 @@ public interface ITextImageProcessingModel {
    */
   PixelImage blur();
 
+  /**
+   * Filters the image with a gaussian blur of the given standard deviation.
+   * @param sigma standard deviation of the blur, in pixels.
+   * @return The blurred image.
+   * @throws IllegalArgumentException if sigma is not positive.
+   */
+  PixelImage gaussianBlur(double sigma) throws IllegalArgumentException;
+
   /**
    * Filters the image by sharpening the image.
    * @return The sharpened image.
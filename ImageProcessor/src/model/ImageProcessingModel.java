@@ -1,6 +1,7 @@
 package model;
 
 import filters.FilterBlur;
+import filters.GaussianBlurFilter;
 import filters.SharpenFilter;
 import filters.colortransformation.GreyscaleTransformationMatrix;
 import filters.colortransformation.SepiaTransformation;
@@ -195,6 +196,18 @@ public class ImageProcessingModel implements ITextImageProcessingModel {
     return new FilterBlur().transform(this.image);
   }
 
+  /**
+   * Filters the image with a gaussian blur of the given standard deviation.
+   *
+   * @param sigma standard deviation of the blur, in pixels.
+   * @return The blurred image.
+   * @throws IllegalArgumentException if sigma is not positive.
+   */
+  @Override
+  public PixelImage gaussianBlur(double sigma) throws IllegalArgumentException {
+    return new GaussianBlurFilter(sigma).transform(this.image);
+  }
+
   /**
    * Filters the image by sharpening the image.
    *
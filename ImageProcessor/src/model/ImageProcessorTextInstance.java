@@ -2,24 +2,200 @@ package model;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.function.Function;
 
-import controller.filereading.ImageIOFileReader;
+import controller.filereading.DecodeOptions;
+import controller.filereading.ImageLoader;
+import controller.filewriting.IImageFileWriter;
+import controller.filewriting.PPMFormat;
+import controller.filewriting.SaveOptions;
+import controller.filewriting.SaveQueue;
+import filters.ColorPipeline;
+import filters.PointOperation;
+import filters.colortransformation.GreyscaleTransformationMatrix;
+import filters.colortransformation.IntensityTransformation;
+import filters.colortransformation.SepiaTransformation;
+import filters.colortransformation.ValueTransformation;
+import filters.colortransformation.greyscale.BlueComponent;
+import filters.colortransformation.greyscale.GreenComponent;
+import filters.colortransformation.greyscale.RedComponent;
+import filters.intensitytransformation.BrightenTransformation;
+import filters.intensitytransformation.DarkenTransformation;
 import model.imaging.Image;
-import util.ImageUtil;
+import model.imaging.PixelImage;
 
 /**
  * Represents an image processing session where multiple images are loaded and manipulated.
+ * Commands do not compute their image straight away. Each named image is a node in a graph of
+ * operations on other images, and an image is only computed when it is saved or materialized.
+ * Images that are never asked for are never computed, and once an image has been computed the
+ * parts of the graph it was made from are dropped so that unused images can be freed. Chains of
+ * commands that only change the color of each pixel are run in a single pass.
  */
 public class ImageProcessorTextInstance {
 
-  private HashMap<String, ITextImageProcessingModel> images;
+  private HashMap<String, Node> images;
 
   /**
    * Initializes a new image processing session by making a hashmap to store images that are loaded
    * and manipulated.
    */
   public ImageProcessorTextInstance() {
-    this.images = new HashMap<String, ITextImageProcessingModel>();
+    this.images = new HashMap<String, Node>();
+  }
+
+  /**
+   * A node in the graph of images. A node either holds an image that has already been computed, or
+   * an operation on the image of its input node that has not been run yet.
+   */
+  private static final class Node {
+    private Node input;
+    // exactly one of these is set until the node has been computed
+    private Function<ITextImageProcessingModel, PixelImage> operation;
+    private PointOperation point;
+    private PixelImage image;
+    // how many names refer to this node, and how many nodes that have not been computed yet use it
+    // as their input
+    private int names;
+    private int uses;
+
+    private Node(PixelImage image) {
+      this.image = image;
+    }
+
+    private Node(Node input, Function<ITextImageProcessingModel, PixelImage> operation,
+                 PointOperation point) {
+      this.input = input;
+      this.operation = operation;
+      this.point = point;
+      input.uses++;
+    }
+  }
+
+  /**
+   * Stores the given node under the given name, replacing any image stored under it.
+   *
+   * @param name the name to store the node under.
+   * @param node the node.
+   */
+  private void store(String name, Node node) {
+    Node old = this.images.put(name, node);
+    node.names++;
+    if (old != null) {
+      old.names--;
+      if (old.names == 0 && old.uses == 0) {
+        // nothing can ask for the old node any more, so it no longer needs its input
+        Node input = old.input;
+        forget(old);
+        release(input);
+      }
+    }
+  }
+
+  /**
+   * Records that a node no longer needs its input, dropping the image of the input if nothing
+   * else can ask for it, and then the input of the input in turn.
+   *
+   * @param input the input that is no longer needed, or null.
+   */
+  private static void release(Node input) {
+    while (input != null) {
+      input.uses--;
+      if (input.uses > 0 || input.names > 0) {
+        return;
+      }
+      Node next = input.input;
+      input.image = null;
+      forget(input);
+      input = next;
+    }
+  }
+
+  /**
+   * Drops the operation and input of a node.
+   *
+   * @param node the node.
+   */
+  private static void forget(Node node) {
+    node.input = null;
+    node.operation = null;
+    node.point = null;
+  }
+
+  /**
+   * Gets the node stored under the given name.
+   *
+   * @param modelName the name of the image.
+   * @return the node of the image.
+   * @throws IllegalArgumentException if there is no image of the given name.
+   */
+  private Node node(String modelName) throws IllegalArgumentException {
+    Node node = this.images.get(modelName);
+    if (node == null) {
+      throw new IllegalArgumentException("invalid inputs");
+    }
+    return node;
+  }
+
+  /**
+   * Adds an operation on the image of the given name to the graph under the new name.
+   *
+   * @param operation the operation to apply.
+   * @param modelName the name of the image the operation is applied to.
+   * @param newName   the name the result is stored under.
+   * @throws IllegalArgumentException if there is no image of the given name.
+   */
+  private void defer(Function<ITextImageProcessingModel, PixelImage> operation, String modelName,
+                     String newName) throws IllegalArgumentException {
+    store(newName, new Node(node(modelName), operation, null));
+  }
+
+  /**
+   * Adds a point operation on the image of the given name to the graph under the new name.
+   *
+   * @param operation the operation to apply.
+   * @param modelName the name of the image the operation is applied to.
+   * @param newName   the name the result is stored under.
+   * @throws IllegalArgumentException if there is no image of the given name.
+   */
+  private void chain(PointOperation operation, String modelName, String newName)
+          throws IllegalArgumentException {
+    store(newName, new Node(node(modelName), null, operation));
+  }
+
+  /**
+   * Computes the image of the given node. A chain of point operations that have not been computed
+   * is run as one pass, without computing the images in between. The result is kept if the node
+   * can still be asked for, by a name or by more than one other node, and the node then forgets
+   * its input. An input that no other node or name needs then drops its image.
+   *
+   * @param node the node to compute.
+   * @return the image of the node.
+   */
+  private static PixelImage evaluate(Node node) {
+    if (node.image != null) {
+      return node.image;
+    }
+    PixelImage result;
+    if (node.point != null) {
+      ColorPipeline operations = ColorPipeline.of(node.point);
+      Node source = node.input;
+      while (source.image == null && source.point != null) {
+        operations = ColorPipeline.of(source.point).then(operations);
+        source = source.input;
+      }
+      PixelImage input = evaluate(source);
+      result = Image.adopt(input.getWidth(), input.getHeight(), operations.apply(input));
+    } else {
+      result = node.operation.apply(new ImageProcessingModel(evaluate(node.input)));
+    }
+    if (node.names > 0 || node.uses > 1) {
+      Node input = node.input;
+      node.image = result;
+      forget(node);
+      release(input);
+    }
+    return result;
   }
 
   /**
@@ -29,15 +205,19 @@ public class ImageProcessorTextInstance {
    * @param modelName The name the file is stored under during the session.
    */
   public void load(String filepath, String modelName) throws IOException {
+    this.load(filepath, modelName, DecodeOptions.full());
+  }
 
-    String[] splitAtFormat = filepath.split("\\.", 2);
-    if (splitAtFormat[1].equals("ppm")) {
-      images.put(modelName,
-              new ImageProcessingModel(new Image(ImageUtil.getPixels(filepath))));
-    } else {
-      images.put(modelName,
-              new ImageProcessingModel(new Image(ImageIOFileReader.readImage(filepath))));
-    }
+  /**
+   * Loads part of an image into the image processing instance, as described by the options.
+   *
+   * @param filepath  The location and name of the file.
+   * @param modelName The name the file is stored under during the session.
+   * @param options   The region and subsampling to decode.
+   * @throws IOException if the file can't be read.
+   */
+  public void load(String filepath, String modelName, DecodeOptions options) throws IOException {
+    store(modelName, new Node(ImageLoader.load(filepath, options)));
   }
 
   /**
@@ -48,19 +228,90 @@ public class ImageProcessorTextInstance {
    * @throws IOException if there is an issue writing to the output file.
    */
   public void save(String saveLocation, String modelName) throws IOException {
+    this.save(saveLocation, modelName, SaveOptions.defaults());
+  }
+
+  /**
+   * Saves an image from the image processing instance to a specified file output, using the given
+   * encoding for ppm and pgm files. Without a format ppm files are saved as plain P3 files and pgm
+   * files as binary P5 files.
+   *
+   * @param saveLocation The name and location of the file to output.
+   * @param modelName    The name of the image that will be saved.
+   * @param format       The encoding of the file, or null for the default of its extension.
+   * @throws IOException if there is an issue writing to the output file.
+   * @throws IllegalArgumentException if the model name is invalid, or a format is given for a file
+   *                                  that is not a ppm or pgm file.
+   */
+  public void save(String saveLocation, String modelName, PPMFormat format) throws IOException {
+    this.save(saveLocation, modelName,
+        format == null ? SaveOptions.defaults() : SaveOptions.defaults().withFormat(format));
+  }
+
+  /**
+   * Saves an image from the image processing instance to a specified file output, encoded with
+   * the given options. Settings that are not given use the default for the type of the file, ppm
+   * files are saved as plain P3 files and pgm files as binary P5 files.
+   *
+   * @param saveLocation The name and location of the file to output.
+   * @param modelName    The name of the image that will be saved.
+   * @param options      The encoding settings of the file.
+   * @throws IOException if there is an issue writing to the output file.
+   * @throws IllegalArgumentException if the model name is invalid, or a setting is given that
+   *                                  doesn't apply to the type of the file.
+   */
+  public void save(String saveLocation, String modelName, SaveOptions options)
+      throws IOException {
+    this.prepareSave(saveLocation, modelName, options).write();
+  }
+
+  /**
+   * Computes the image to save and returns the write of its file, without writing it yet. The
+   * write only uses the computed image, so it can run on another thread while the session goes
+   * on.
+   *
+   * @param saveLocation The name and location of the file to output.
+   * @param modelName    The name of the image that will be saved.
+   * @param options      The encoding settings of the file.
+   * @return the write of the file.
+   * @throws IllegalArgumentException if the model name is invalid, or a setting is given that
+   *                                  doesn't apply to the type of the file.
+   */
+  public SaveQueue.Job prepareSave(String saveLocation, String modelName, SaveOptions options)
+      throws IllegalArgumentException {
+    if (options == null) {
+      throw new IllegalArgumentException("Options cannot be null");
+    }
     if (this.images.containsKey(modelName)) {
 
       String[] splitAtFormat = saveLocation.split("\\.", 2);
-      if (splitAtFormat[1].equals("ppm")) {
-        this.images.get(modelName).saveImageAsPPM(saveLocation);
+      IImageFileWriter writer = options.writerFor(splitAtFormat[1]);
+      boolean plain = splitAtFormat[1].equals("ppm")
+          && (options.getFormat() == null || options.getFormat() == PPMFormat.PLAIN);
+      PixelImage image = evaluate(this.images.get(modelName));
+      ITextImageProcessingModel model = new ImageProcessingModel(image);
+      if (plain) {
+        return () -> model.saveImageAsPPM(saveLocation);
+      } else if (writer != null) {
+        return () -> writer.writeFile(saveLocation, image);
       } else {
-        this.images.get(modelName).saveImageAs(saveLocation);
+        return () -> model.saveImageAs(saveLocation);
       }
     } else {
       throw new IllegalArgumentException("Invalid model name");
     }
   }
 
+  /**
+   * Computes the image of the given name now rather than when it is next saved.
+   *
+   * @param modelName The name of the image to compute.
+   * @throws IllegalArgumentException if there is no image of the given name.
+   */
+  public void materialize(String modelName) throws IllegalArgumentException {
+    evaluate(node(modelName));
+  }
+
   /**
    * Given the name of the stored image and a name to save the image, this
    * method performs a RedTransformation on an image if the input is entered correctly.
@@ -69,12 +320,7 @@ public class ImageProcessorTextInstance {
    * @param newName The new name the image is being saved as
    */
   public void red(String modelName, String newName) {
-    if (this.images.containsKey(modelName)) {
-      images.put(newName,
-              new ImageProcessingModel(this.images.get(modelName).redComponent()));
-    } else {
-      throw new IllegalArgumentException("invalid inputs");
-    }
+    chain(new RedComponent().pointOperation(), modelName, newName);
   }
 
   /**
@@ -85,12 +331,7 @@ public class ImageProcessorTextInstance {
    * @param newName The new name the image is being saved as
    */
   public void green(String modelName, String newName) {
-    if (this.images.containsKey(modelName)) {
-      images.put(newName,
-              new ImageProcessingModel(this.images.get(modelName).greenComponent()));
-    } else {
-      throw new IllegalArgumentException("invalid inputs");
-    }
+    chain(new GreenComponent().pointOperation(), modelName, newName);
   }
 
   /**
@@ -101,12 +342,7 @@ public class ImageProcessorTextInstance {
    * @param newName The new name the image is being saved as
    */
   public void blue(String modelName, String newName) {
-    if (this.images.containsKey(modelName)) {
-      images.put(newName,
-              new ImageProcessingModel(this.images.get(modelName).blueComponent()));
-    } else {
-      throw new IllegalArgumentException("invalid inputs");
-    }
+    chain(new BlueComponent().pointOperation(), modelName, newName);
   }
 
   /**
@@ -117,12 +353,7 @@ public class ImageProcessorTextInstance {
    * @param newName The new name the image is being saved as
    */
   public void value(String modelName, String newName) {
-    if (this.images.containsKey(modelName)) {
-      images.put(newName,
-              new ImageProcessingModel(this.images.get(modelName).valueImage()));
-    } else {
-      throw new IllegalArgumentException("invalid inputs");
-    }
+    chain(new ValueTransformation().pointOperation(), modelName, newName);
   }
 
   /**
@@ -133,12 +364,7 @@ public class ImageProcessorTextInstance {
    * @param newName The new name the image is being saved as
    */
   public void intensity(String modelName, String newName) {
-    if (this.images.containsKey(modelName)) {
-      images.put(newName,
-              new ImageProcessingModel(this.images.get(modelName).intensity()));
-    } else {
-      throw new IllegalArgumentException("invalid inputs");
-    }
+    chain(new IntensityTransformation().pointOperation(), modelName, newName);
   }
 
 
@@ -151,13 +377,7 @@ public class ImageProcessorTextInstance {
    * @param newName   What the flipped image is stored as.
    */
   public void horizontalFlip(String modelName, String newName) {
-    if (this.images.containsKey(modelName)) {
-      images.put(newName,
-              new ImageProcessingModel(this.images.get(modelName).horizontalFlip()));
-    } else {
-      throw new IllegalArgumentException("invalid inputs");
-
-    }
+    defer(model -> model.horizontalFlip(), modelName, newName);
   }
 
   /**
@@ -168,12 +388,7 @@ public class ImageProcessorTextInstance {
    * @param newName   What the flipped image is stored as.
    */
   public void verticalFlip(String modelName, String newName) {
-    if (this.images.containsKey(modelName)) {
-      images.put(newName,
-              new ImageProcessingModel(this.images.get(modelName).verticalFlip()));
-    } else {
-      throw new IllegalArgumentException("invalid inputs");
-    }
+    defer(model -> model.verticalFlip(), modelName, newName);
   }
 
   /**
@@ -185,12 +400,7 @@ public class ImageProcessorTextInstance {
    * @param newName   The name of the brightened image made.
    */
   public void brighten(int value, String modelName, String newName) {
-    if (this.images.containsKey(modelName)) {
-      images.put(newName,
-              new ImageProcessingModel(this.images.get(modelName).brighten(value)));
-    } else {
-      throw new IllegalArgumentException("invalid inputs");
-    }
+    chain(new BrightenTransformation().pointOperation(value), modelName, newName);
   }
 
 
@@ -203,12 +413,7 @@ public class ImageProcessorTextInstance {
    * @param newName   The name of the darkened image made.
    */
   public void darken(int value, String modelName, String newName) {
-    if (this.images.containsKey(modelName)) {
-      images.put(newName,
-              new ImageProcessingModel(this.images.get(modelName).darken(value)));
-    } else {
-      throw new IllegalArgumentException("invalid inputs");
-    }
+    chain(new DarkenTransformation().pointOperation(value), modelName, newName);
   }
 
   /**
@@ -219,12 +424,22 @@ public class ImageProcessorTextInstance {
    * @param newName   What the blurred image is stored as.
    */
   public void blur(String modelName, String newName) {
-    if (this.images.containsKey(modelName)) {
-      images.put(newName,
-              new ImageProcessingModel(this.images.get(modelName).blur()));
-    } else {
-      throw new IllegalArgumentException("invalid inputs");
+    defer(model -> model.blur(), modelName, newName);
+  }
+
+  /**
+   * Given a standard deviation, the name of the stored image and a name to save the manipulation
+   * this method makes a gaussian blurred image.
+   *
+   * @param sigma     The standard deviation of the blur.
+   * @param modelName Name of image to be blurred.
+   * @param newName   What the blurred image is stored as.
+   */
+  public void gaussian(double sigma, String modelName, String newName) {
+    if (!(sigma > 0) || Double.isInfinite(sigma)) {
+      throw new IllegalArgumentException("Sigma must be a positive number.");
     }
+    defer(model -> model.gaussianBlur(sigma), modelName, newName);
   }
 
   /**
@@ -235,12 +450,7 @@ public class ImageProcessorTextInstance {
    * @param newName   What the sharpened image is stored as.
    */
   public void sharpen(String modelName, String newName) {
-    if (this.images.containsKey(modelName)) {
-      images.put(newName,
-              new ImageProcessingModel(this.images.get(modelName).sharpen()));
-    } else {
-      throw new IllegalArgumentException("invalid inputs");
-    }
+    defer(model -> model.sharpen(), modelName, newName);
   }
 
   /**
@@ -251,12 +461,7 @@ public class ImageProcessorTextInstance {
    * @param newName   What the greyScaled image is stored as.
    */
   public void greyscale(String modelName, String newName) {
-    if (this.images.containsKey(modelName)) {
-      images.put(newName,
-              new ImageProcessingModel(this.images.get(modelName).greyscale()));
-    } else {
-      throw new IllegalArgumentException("invalid inputs");
-    }
+    chain(new GreyscaleTransformationMatrix().pointOperation(), modelName, newName);
   }
 
   /**
@@ -267,11 +472,6 @@ public class ImageProcessorTextInstance {
    * @param newName   What the image after applying sepia is stored as.
    */
   public void sepia(String modelName, String newName) {
-    if (this.images.containsKey(modelName)) {
-      images.put(newName,
-              new ImageProcessingModel(this.images.get(modelName).sepia()));
-    } else {
-      throw new IllegalArgumentException("invalid inputs");
-    }
+    chain(new SepiaTransformation().pointOperation(), modelName, newName);
   }
 }
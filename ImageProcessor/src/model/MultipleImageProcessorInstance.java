@@ -13,19 +13,29 @@ import filters.flippingtransformation.FlipHorizontal;
 import filters.flippingtransformation.FlipVertical;
 import filters.intensitytransformation.BrightenTransformation;
 import filters.intensitytransformation.DarkenTransformation;
+import model.graph.Histogram;
 import model.imaging.PixelImage;
 
+import java.awt.Rectangle;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Class representing the implementation of an image processing model for when we want to load
  * multiple images at once, and hide/show them in something like a GUI. One model contains
  * only one multi layer image, and can have as many layers as it wants. Layers are given names, and
  * the names are then assigned to images in the delegate. The ids of invisible layers are stored in
- * another list.
+ * another list. Layers opened from a layer source are only read from it when their image is first
+ * asked for, until then their id maps to null. The ids of layers that were added or replaced since
+ * the layers were last saved or opened are kept, so that saving can skip the others. Histograms
+ * of the layers are kept once they are asked for, so that a layer replaced by an edit of a region
+ * only needs the region counted again.
  */
 public class MultipleImageProcessorInstance implements IImageProcessorInstance {
 
@@ -33,6 +43,9 @@ public class MultipleImageProcessorInstance implements IImageProcessorInstance {
   private final List<String> layers;
   private final List<String> hidden;
   private final Map<String, PixelImage> images;
+  private ILayerSource source;
+  private final Set<String> changed = new HashSet<>();
+  private final Map<String, Histogram> histograms = new HashMap<>();
 
   /**
    * Creates an instance of the multi layer model.
@@ -78,6 +91,7 @@ public class MultipleImageProcessorInstance implements IImageProcessorInstance {
     }
 
     this.images.putIfAbsent(id, image);
+    this.changed.add(id);
   }
 
   @Override
@@ -89,8 +103,16 @@ public class MultipleImageProcessorInstance implements IImageProcessorInstance {
     if (!this.images.containsKey(id)) {
       throw new IllegalArgumentException("Image with id does not exist.");
     }
-
-    return this.images.get(id);
+    PixelImage image = this.images.get(id);
+    if (image == null) {
+      try {
+        image = this.source.readLayer(id);
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not read layer " + id + ": " + e.getMessage());
+      }
+      this.images.put(id, image);
+    }
+    return image;
   }
 
   @Override
@@ -108,7 +130,43 @@ public class MultipleImageProcessorInstance implements IImageProcessorInstance {
     }
 
     this.images.replace(id, image);
+    this.changed.add(id);
+    this.histograms.remove(id);
+  }
 
+  @Override
+  public void replaceImage(String id, PixelImage image, Rectangle region)
+          throws IllegalArgumentException {
+    if (id == null || image == null || region == null) {
+      throw new IllegalArgumentException("Arguments cannot be null.");
+    }
+    if (region.x < 0 || region.y < 0 || region.width < 0 || region.height < 0
+            || region.x + region.width > image.getWidth()
+            || region.y + region.height > image.getHeight()) {
+      throw new IllegalArgumentException("Region is outside of the image.");
+    }
+    Histogram histogram = this.histograms.get(id);
+    PixelImage before = this.images.get(id);
+    if (histogram != null && before != null && before.getWidth() == image.getWidth()
+            && before.getHeight() == image.getHeight()) {
+      histogram = histogram.replace(before, image, region);
+    } else {
+      histogram = null;
+    }
+    this.replaceImage(id, image);
+    if (histogram != null) {
+      this.histograms.put(id, histogram);
+    }
+  }
+
+  @Override
+  public Histogram getHistogram(String id) throws IllegalArgumentException {
+    Histogram histogram = this.histograms.get(id);
+    if (histogram == null) {
+      histogram = this.getImage(id).getHistogram();
+      this.histograms.put(id, histogram);
+    }
+    return histogram;
   }
 
   /**
@@ -119,9 +177,8 @@ public class MultipleImageProcessorInstance implements IImageProcessorInstance {
    */
   private void sameDimensions(PixelImage image) throws IllegalArgumentException {
     if (!this.layers.isEmpty() && (
-            image.getPixels().size() != this.images.get(this.layers.get(0)).getPixels().size() ||
-                    image.getPixels().get(0).size() != this.images.get(this.layers.get(0))
-                            .getPixels().get(0).size())) {
+            image.getHeight() != this.images.get(this.layers.get(0)).getHeight() ||
+                    image.getWidth() != this.images.get(this.layers.get(0)).getWidth())) {
       throw new IllegalArgumentException("Layers must all be the same dimensions.");
     }
   }
@@ -247,6 +304,8 @@ public class MultipleImageProcessorInstance implements IImageProcessorInstance {
     this.layers.remove(id);
     this.hidden.remove(id);
     this.images.remove(id);
+    this.changed.remove(id);
+    this.histograms.remove(id);
   }
 
 
@@ -296,6 +355,8 @@ public class MultipleImageProcessorInstance implements IImageProcessorInstance {
     }
     this.layers.clear();
     this.hidden.clear();
+    this.histograms.clear();
+    this.source = null;
     for (Map.Entry<String, PixelImage> item : images.entrySet()) {
       this.addImage(item.getKey(), item.getValue());
     }
@@ -303,6 +364,59 @@ public class MultipleImageProcessorInstance implements IImageProcessorInstance {
 
   }
 
+  @Override
+  public void openLayers(ILayerSource source) throws IllegalArgumentException {
+    if (source == null) {
+      throw new IllegalArgumentException("Null parameters.");
+    }
+    this.layers.clear();
+    this.hidden.clear();
+    this.images.clear();
+    this.histograms.clear();
+    for (String id : source.getLayerIds()) {
+      this.layers.add(id);
+      this.images.put(id, null);
+    }
+    this.hidden.addAll(source.getHiddenIds());
+    this.source = source;
+    this.changed.clear();
+  }
+
+  @Override
+  public void rebindLayers(ILayerSource source) throws IllegalArgumentException {
+    if (source == null) {
+      throw new IllegalArgumentException("Null parameters.");
+    }
+    List<String> stored = source.getLayerIds();
+    for (Map.Entry<String, PixelImage> entry : this.images.entrySet()) {
+      if (entry.getValue() == null && !stored.contains(entry.getKey())) {
+        throw new IllegalArgumentException("Layer " + entry.getKey() + " is not in the source.");
+      }
+    }
+    this.source = source;
+  }
+
+  @Override
+  public List<String> getChangedLayers() {
+    List<String> result = new ArrayList<>();
+    for (String id : this.layers) {
+      if (this.changed.contains(id)) {
+        result.add(id);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void markSaved() {
+    this.changed.clear();
+  }
+
+  @Override
+  public List<String> getLayerIds() {
+    return new ArrayList<>(this.layers);
+  }
+
   @Override
   public List<String> getVisibility() {
     return new ArrayList<>(this.hidden);
@@ -310,7 +424,7 @@ public class MultipleImageProcessorInstance implements IImageProcessorInstance {
 
   @Override
   public Map<String, PixelImage> getLayers() throws IllegalArgumentException {
-    Map<String, PixelImage> layersMap = new HashMap<>();
+    Map<String, PixelImage> layersMap = new LinkedHashMap<>();
     for (String id : this.layers) {
       layersMap.put(id, this.getImage(id));
     }
@@ -1,80 +1,198 @@
 package model.graph;
 
+import filters.RowScheduler;
 import java.awt.Color;
+import java.awt.Rectangle;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import model.imaging.PackedColor;
+import model.imaging.PixelImage;
 import model.imaging.pixel.IPixel;
 
 /**
  * Class to represent an image histogram. Gets the frequencies of the RGB values and creates the
- * lines for the view to plot.
+ * lines for the view to plot. The frequencies are counted into plain arrays in one pass over the
+ * pixels. Large images are split into bands of rows that are counted in parallel, each into its
+ * own arrays, which are added together at the end. The lines are only created when they are first
+ * asked for.
  */
 public class Histogram {
-  private List<ArrayList<IPixel>> pixels;
+  // rasters without a width are counted as rows of this many pixels
+  private static final int RASTER_ROW = 1 << 12;
+
   private List<Line> lines;
-  private Map<Integer, Integer> red;
-  private Map<Integer, Integer> blue;
-  private Map<Integer, Integer> green;
-  private Map<Integer, Integer> intensity;
+  private final int[] red = new int[256];
+  private final int[] green = new int[256];
+  private final int[] blue = new int[256];
+  private final int[] intensity = new int[256];
+
+  /**
+   * Creates an empty Histogram, whose frequencies are added with count. This lets a filter count
+   * the colors of its result while it writes them.
+   */
+  public Histogram() {
+    // every frequency starts at zero
+  }
 
   /**
    * Creates a Histogram with the 2d list of pixels that will be used for the histogram.
-   * Initializes the frequency maps for each of the channels to empty maps.
    * @param pixels The 2d list of pixels to be used.
    */
   public Histogram(List<ArrayList<IPixel>> pixels) {
-    this.pixels = pixels;
-    lines = new ArrayList<Line>();
-
-    this.red = new HashMap<>();
-    this.green = new HashMap<>();
-    this.blue = new HashMap<>();
-    this.intensity = new HashMap<>();
-    //initialize maps for storing values
-    for (int i = 0; i < 256; i++) {
-      red.put(i, 0);
-      blue.put(i, 0);
-      green.put(i, 0);
-      intensity.put(i, 0);
-    }
-    this.getFrequencies();
-    this.addLines();
-  }
-
-  //fill all of the maps with corresponding frequencies.
-  private void getFrequencies() {
-    for (List<IPixel> list : this.pixels) {
+    for (List<IPixel> list : pixels) {
       for (IPixel pixel : list) {
         int red = pixel.getColor().getRed();
-        int blue = pixel.getColor().getBlue();
         int green = pixel.getColor().getGreen();
-        int intensity = (red + green + blue) / 3;
+        int blue = pixel.getColor().getBlue();
+        this.red[red]++;
+        this.green[green]++;
+        this.blue[blue]++;
+        this.intensity[(red + green + blue) / 3]++;
+      }
+    }
+  }
+
+  /**
+   * Creates a Histogram from a raster of colors packed as 0xRRGGBB.
+   * @param raster The packed colors to be used.
+   */
+  public Histogram(int[] raster) {
+    int rows = (raster.length + RASTER_ROW - 1) / RASTER_ROW;
+    RowScheduler.forEachBand(RASTER_ROW, rows, (start, end) -> {
+      int[][] bins = new int[4][256];
+      tally(raster, start * RASTER_ROW, Math.min(end * RASTER_ROW, raster.length), bins);
+      this.add(bins);
+    });
+  }
 
-        this.red.put(red, this.red.get(red) + 1);
-        this.blue.put(blue, this.blue.get(blue) + 1);
-        this.green.put(green, this.green.get(green) + 1);
-        this.intensity.put(intensity, this.intensity.get(intensity) + 1);
+  /**
+   * Creates a Histogram from the given image, reading it one row at a time.
+   * @param image The image to be used.
+   */
+  public Histogram(PixelImage image) {
+    RowScheduler.forEachBand(image.getWidth(), image.getHeight(), (start, end) -> {
+      int[][] bins = new int[4][256];
+      int[] row = null;
+      for (int i = start; i < end; i++) {
+        row = image.getRow(i, row);
+        tally(row, 0, image.getWidth(), bins);
+      }
+      this.add(bins);
+    });
+  }
+
+  /**
+   * Adds the given colors to the frequencies. Different threads may count different parts of an
+   * image at the same time.
+   *
+   * @param colors colors packed as 0xRRGGBB.
+   * @param start  index of the first color to count.
+   * @param end    index after the last color to count.
+   * @throws IndexOutOfBoundsException If the range is outside of the colors.
+   */
+  public void count(int[] colors, int start, int end) throws IndexOutOfBoundsException {
+    if (start < 0 || end > colors.length || start > end) {
+      throw new IndexOutOfBoundsException("Range " + start + " to " + end + " is outside of "
+          + colors.length + " colors.");
+    }
+    int[][] bins = new int[4][256];
+    tally(colors, start, end, bins);
+    this.add(bins);
+  }
+
+  /**
+   * Creates the histogram of an image that only differs from an image with this histogram inside
+   * the given region, by taking the colors of the region in the old image out of the frequencies
+   * and adding the colors of the region in the new image. Only the region is read, so the cost
+   * depends on its size and not on the size of the images. This histogram is not changed.
+   *
+   * @param before the image this histogram was counted from.
+   * @param after  the image that replaces it.
+   * @param region the region outside of which the images are the same.
+   * @return the histogram of the new image.
+   * @throws IllegalArgumentException If an argument is null, the images are not the same size, or
+   *                                  the region is not inside them.
+   */
+  public Histogram replace(PixelImage before, PixelImage after, Rectangle region)
+      throws IllegalArgumentException {
+    if (before == null || after == null || region == null) {
+      throw new IllegalArgumentException("Arguments cannot be null.");
+    }
+    if (before.getWidth() != after.getWidth() || before.getHeight() != after.getHeight()) {
+      throw new IllegalArgumentException("Images must be the same size.");
+    }
+    if (region.x < 0 || region.y < 0 || region.width < 0 || region.height < 0
+        || region.x + region.width > before.getWidth()
+        || region.y + region.height > before.getHeight()) {
+      throw new IllegalArgumentException("Region is outside of the image.");
+    }
+    int[][] removed = new int[4][256];
+    int[][] added = new int[4][256];
+    int[] row = null;
+    for (int i = region.y; i < region.y + region.height; i++) {
+      row = before.getRow(i, row);
+      tally(row, region.x, region.x + region.width, removed);
+      row = after.getRow(i, row);
+      tally(row, region.x, region.x + region.width, added);
+    }
+    Histogram result = new Histogram();
+    synchronized (this) {
+      for (int i = 0; i < 256; i++) {
+        result.red[i] = this.red[i] - removed[0][i] + added[0][i];
+        result.green[i] = this.green[i] - removed[1][i] + added[1][i];
+        result.blue[i] = this.blue[i] - removed[2][i] + added[2][i];
+        result.intensity[i] = this.intensity[i] - removed[3][i] + added[3][i];
       }
     }
+    return result;
+  }
+
+  // count the colors from start (inclusive) to end (exclusive) into red, green, blue and
+  // intensity bins
+  private static void tally(int[] colors, int start, int end, int[][] bins) {
+    int[] red = bins[0];
+    int[] green = bins[1];
+    int[] blue = bins[2];
+    int[] intensity = bins[3];
+    for (int i = start; i < end; i++) {
+      int rgb = colors[i];
+      int r = PackedColor.red(rgb);
+      int g = PackedColor.green(rgb);
+      int b = PackedColor.blue(rgb);
+      red[r]++;
+      green[g]++;
+      blue[b]++;
+      intensity[(r + g + b) / 3]++;
+    }
+  }
+
+  // add the counts of one band to the frequencies, bands may finish on several threads at once
+  private synchronized void add(int[][] bins) {
+    for (int i = 0; i < 256; i++) {
+      this.red[i] += bins[0][i];
+      this.green[i] += bins[1][i];
+      this.blue[i] += bins[2][i];
+      this.intensity[i] += bins[3][i];
+    }
+    this.lines = null;
   }
 
   // Adds all of the lines to the maps for the colors.
   private void addLines() {
+    lines = new ArrayList<Line>();
     //create lines
     for (int i = 0; i < 255; i++) {
-      Line redLine = new Line(new Position2D(i, red.get(i)),
-          new Position2D(i + 1, red.get(i + 1)), Color.RED);
+      Line redLine = new Line(new Position2D(i, red[i]),
+          new Position2D(i + 1, red[i + 1]), Color.RED);
 
-      Line greenLine = new Line(new Position2D(i, green.get(i)),
-          new Position2D(i + 1, green.get(i + 1)), Color.GREEN);
+      Line greenLine = new Line(new Position2D(i, green[i]),
+          new Position2D(i + 1, green[i + 1]), Color.GREEN);
 
-      Line blueLine = new Line(new Position2D(i, blue.get(i)),
-          new Position2D(i + 1, blue.get(i + 1)), Color.BLUE);
+      Line blueLine = new Line(new Position2D(i, blue[i]),
+          new Position2D(i + 1, blue[i + 1]), Color.BLUE);
 
-      Line intensityLine = new Line(new Position2D(i, intensity.get(i)),
-          new Position2D(i + 1, intensity.get(i + 1)), Color.BLACK);
+      Line intensityLine = new Line(new Position2D(i, intensity[i]),
+          new Position2D(i + 1, intensity[i + 1]), Color.BLACK);
       this.lines.add(redLine);
       this.lines.add(greenLine);
       this.lines.add(blueLine);
@@ -82,7 +200,15 @@ public class Histogram {
     }
   }
 
-  public List<Line> getLines() {
+  /**
+   * Gets the lines of the histogram, alternating from red, green, blue to intensity.
+   *
+   * @return the lines of the histogram.
+   */
+  public synchronized List<Line> getLines() {
+    if (this.lines == null) {
+      this.addLines();
+    }
     return this.lines;
   }
 }
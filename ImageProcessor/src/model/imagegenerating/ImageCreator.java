@@ -1,14 +1,11 @@
 package model.imagegenerating;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import model.imaging.IColor;
 import model.imaging.Image;
+import model.imaging.PackedColor;
 import model.imaging.PixelImage;
-import model.imaging.Posn;
-import model.imaging.pixel.IPixel;
-import model.imaging.pixel.PixelImpl;
 
 /**
  * Class representing a function object that generates a checkerboard style image where each square
@@ -43,17 +40,15 @@ public class ImageCreator implements IImageGenerator {
 
   @Override
   public PixelImage generateImage() {
-    List<ArrayList<IPixel>> pixels = new ArrayList<>();
+    int[] pixels = new int[this.rows * this.columns];
 
     for (int i = 0; i < this.rows; i++) {
-      ArrayList<IPixel> row = new ArrayList<>();
       for (int j = 0; j < this.columns; j++) {
-        row.add(new PixelImpl(new Posn(j, i), alternateColors(i, j)));
+        pixels[i * this.columns + j] = PackedColor.pack(alternateColors(i, j));
       }
-      pixels.add(row);
     }
 
-    return new Image(pixels);
+    return Image.adopt(this.columns, this.rows, pixels);
   }
 
   /**
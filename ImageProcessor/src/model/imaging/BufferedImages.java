@@ -0,0 +1,159 @@
+package model.imaging;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Utility class for moving pixels between buffered images and packed 0xRRGGBB rasters. Common
+ * layouts, such as the ones ImageIO returns for PNG and JPEG files, are read straight from the
+ * data buffer of the image instead of one pixel at a time. Other layouts fall back to reading the
+ * colors through the color model of the image.
+ */
+public final class BufferedImages {
+
+  /**
+   * Private constructor, this class only contains static methods.
+   */
+  private BufferedImages() {
+    // utility class
+  }
+
+  /**
+   * Gets the colors of the given image as a packed raster, dropping any alpha.
+   *
+   * @param image the image to read.
+   * @return a new raster in row major order, packed as 0xRRGGBB.
+   * @throws IllegalArgumentException If the image is null.
+   */
+  public static int[] toRaster(BufferedImage image) throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("Image can't be null.");
+    }
+    int width = image.getWidth();
+    int height = image.getHeight();
+    int[] pixels = new int[width * height];
+    Raster raster = image.getRaster();
+    SampleModel model = raster.getSampleModel();
+    boolean whole = raster.getSampleModelTranslateX() == 0
+            && raster.getSampleModelTranslateY() == 0
+            && raster.getDataBuffer().getNumBanks() == 1;
+    switch (whole ? image.getType() : BufferedImage.TYPE_CUSTOM) {
+      case BufferedImage.TYPE_INT_RGB:
+      case BufferedImage.TYPE_INT_ARGB:
+        readInts(raster, (SinglePixelPackedSampleModel) model, pixels, width, height);
+        break;
+      case BufferedImage.TYPE_3BYTE_BGR:
+      case BufferedImage.TYPE_4BYTE_ABGR:
+        readBytes(raster, (ComponentSampleModel) model, pixels, width, height);
+        break;
+      default:
+        // other layouts, including grey ones, need their color model to convert them
+        image.getRGB(0, 0, width, height, pixels, 0, width);
+        for (int i = 0; i < pixels.length; i++) {
+          pixels[i] &= 0xFFFFFF;
+        }
+    }
+    return pixels;
+  }
+
+  /**
+   * Creates a new buffered image holding a copy of the colors of the given image. The rows are
+   * copied into the raster of the buffered image in bulk.
+   *
+   * @param image the image to copy.
+   * @return an image of type TYPE_INT_RGB.
+   * @throws IllegalArgumentException If the image is null.
+   */
+  public static BufferedImage toBufferedImage(PixelImage image) throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("Image can't be null.");
+    }
+    int width = image.getWidth();
+    BufferedImage output = new BufferedImage(width, image.getHeight(),
+            BufferedImage.TYPE_INT_RGB);
+    WritableRaster raster = output.getRaster();
+    int[] row = null;
+    for (int i = 0; i < image.getHeight(); i++) {
+      row = image.getRow(i, row);
+      raster.setDataElements(0, i, width, 1, row);
+    }
+    return output;
+  }
+
+  /**
+   * Creates a buffered image backed by the given raster without copying it. The buffered image
+   * must only be read from, since writing to it would change the raster.
+   *
+   * @param width  width of the image.
+   * @param height height of the image.
+   * @param pixels the raster in row major order, packed as 0xRRGGBB.
+   * @return an image of type TYPE_INT_RGB sharing the raster.
+   */
+  static BufferedImage wrap(int width, int height, int[] pixels) {
+    DirectColorModel model = new DirectColorModel(24, 0xFF0000, 0x00FF00, 0x0000FF);
+    WritableRaster raster = Raster.createPackedRaster(
+            new DataBufferInt(pixels, width * height), width, height, width,
+            model.getMasks(), null);
+    return new BufferedImage(model, raster, false, null);
+  }
+
+  /**
+   * Reads an image whose pixels are packed ints with red, green and blue at the usual positions.
+   *
+   * @param raster the raster of the image.
+   * @param model  the sample model of the raster.
+   * @param pixels the array to fill.
+   * @param width  width of the image.
+   * @param height height of the image.
+   */
+  private static void readInts(Raster raster, SinglePixelPackedSampleModel model, int[] pixels,
+                               int width, int height) {
+    DataBuffer buffer = raster.getDataBuffer();
+    int[] data = ((DataBufferInt) buffer).getData();
+    int stride = model.getScanlineStride();
+    for (int i = 0; i < height; i++) {
+      int start = buffer.getOffset() + i * stride;
+      for (int j = 0; j < width; j++) {
+        pixels[i * width + j] = data[start + j] & 0xFFFFFF;
+      }
+    }
+  }
+
+  /**
+   * Reads an image whose pixels are interleaved bytes, taking the position of each channel from
+   * the sample model.
+   *
+   * @param raster the raster of the image.
+   * @param model  the sample model of the raster.
+   * @param pixels the array to fill.
+   * @param width  width of the image.
+   * @param height height of the image.
+   */
+  private static void readBytes(Raster raster, ComponentSampleModel model, int[] pixels,
+                                int width, int height) {
+    DataBuffer buffer = raster.getDataBuffer();
+    byte[] data = ((DataBufferByte) buffer).getData();
+    int[] offsets = model.getBandOffsets();
+    int red = offsets[0];
+    int green = offsets[1];
+    int blue = offsets[2];
+    int pixelStride = model.getPixelStride();
+    int stride = model.getScanlineStride();
+    for (int i = 0; i < height; i++) {
+      int k = buffer.getOffset() + i * stride;
+      for (int j = 0; j < width; j++) {
+        pixels[i * width + j] = PackedColor.pack(data[k + red] & 0xFF, data[k + green] & 0xFF,
+                data[k + blue] & 0xFF);
+        k += pixelStride;
+      }
+    }
+  }
+}
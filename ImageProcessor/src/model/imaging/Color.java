@@ -3,10 +3,23 @@ package model.imaging;
 import java.util.Objects;
 
 /**
- * Class representing a color object.
+ * Class representing a color object. Colors are immutable, so {@link #of(int, int, int)} should be
+ * preferred over the constructor as it shares instances of commonly used colors.
  */
 public class Color implements IColor {
 
+  // every grey is always shared, greyscale results only ever use these 256 colors
+  private static final Color[] GREYS = new Color[256];
+  // direct mapped cache for all other colors, a slot is overwritten on a collision
+  private static final int CACHE_SIZE = 4096;
+  private static final Color[] CACHE = new Color[CACHE_SIZE];
+
+  static {
+    for (int i = 0; i < GREYS.length; i++) {
+      GREYS[i] = new Color(i, i, i);
+    }
+  }
+
   private final int red;
   private final int green;
   private final int blue;
@@ -29,6 +42,33 @@ public class Color implements IColor {
     blue = b;
   }
 
+  /**
+   * Gets a color with the given components, reusing an existing instance where possible.
+   *
+   * @param r red component of the color
+   * @param g green component of the color
+   * @param b blue component of the color
+   * @return a color with the given components
+   * @throws IllegalArgumentException thrown if a value is outside (0,255).
+   */
+  public static Color of(int r, int g, int b) throws IllegalArgumentException {
+    if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
+      throw new IllegalArgumentException("Values must be between 0-255");
+    }
+    if (r == g && g == b) {
+      return GREYS[r];
+    }
+    int rgb = PackedColor.pack(r, g, b);
+    int slot = (rgb ^ (rgb >>> 12)) & (CACHE_SIZE - 1);
+    Color cached = CACHE[slot];
+    if (cached != null && cached.red == r && cached.green == g && cached.blue == b) {
+      return cached;
+    }
+    Color color = new Color(r, g, b);
+    CACHE[slot] = color;
+    return color;
+  }
+
   /**
    * Gets the red component of this color.
    *
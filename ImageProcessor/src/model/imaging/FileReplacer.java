@@ -0,0 +1,62 @@
+package model.imaging;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Utility class for writing a file next to its target and moving it into place once it is
+ * complete. The old file is never truncated, so an image that is still reading from it, such as
+ * a memory mapped image saved back to its own file, keeps its pixels until the move.
+ */
+public final class FileReplacer {
+
+  /**
+   * Private constructor, this class only contains static methods.
+   */
+  private FileReplacer() {
+  }
+
+  /**
+   * Function object that writes the contents of a file.
+   */
+  public interface Contents {
+
+    /**
+     * Writes the whole file.
+     *
+     * @param file the file to write, which exists and is empty.
+     * @throws IOException If writing fails.
+     */
+    void write(Path file) throws IOException;
+  }
+
+  /**
+   * Writes a temporary file in the directory of the given file and moves it over the given file.
+   * The directory is created if needed, and the temporary file is deleted if writing fails.
+   *
+   * @param filename the file to replace.
+   * @param contents writes the new file.
+   * @throws IOException If writing or moving the file fails.
+   */
+  public static void replace(String filename, Contents contents) throws IOException {
+    Path target = Paths.get(filename).toAbsolutePath();
+    Files.createDirectories(target.getParent());
+    Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(),
+        ".tmp");
+    try {
+      contents.write(temporary);
+      try {
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+}
@@ -11,55 +11,153 @@ import javax.imageio.ImageIO;
 import model.graph.Histogram;
 import model.graph.Line;
 import model.imaging.pixel.IPixel;
-import model.imaging.pixel.PixelImpl;
 
 /**
- * Class to represent an image made of pixels.
+ * Class to represent an image made of pixels. The pixels are stored in a single row major raster
+ * where each pixel is packed as 0xRRGGBB, the 2D list of pixels is a read only view of the raster.
+ * The histogram is only computed the first time it is asked for, unless it was handed over with
+ * the raster.
  */
 public class Image implements PixelImage {
-  private final List<ArrayList<IPixel>> pixels;
-  private final Histogram histogram;
+  private final int width;
+  private final int height;
+  private final int[] raster;
+  private volatile Histogram histogram;
 
   /**
    * Constructs an image object from the given 2D list of pixels.
    *
    * @param pixels A 2d array containing pixels of the class IPixel.
+   * @throws IllegalArgumentException If the pixels are null or the rows are not the same length.
    */
   public Image(List<ArrayList<IPixel>> pixels) {
     if (pixels == null) {
       throw new IllegalArgumentException("Pixels cannot be null!");
     }
-    this.pixels = this.replicate(pixels);
-    this.histogram = new Histogram(pixels);
+    this.height = pixels.size();
+    this.width = this.height == 0 ? 0 : pixels.get(0).size();
+    this.raster = new int[this.width * this.height];
+    for (int i = 0; i < this.height; i++) {
+      List<IPixel> row = pixels.get(i);
+      if (row.size() != this.width) {
+        throw new IllegalArgumentException("All rows must be the same length.");
+      }
+      for (int j = 0; j < this.width; j++) {
+        this.raster[i * this.width + j] = PackedColor.pack(row.get(j).getColor());
+      }
+    }
   }
 
+  /**
+   * Constructs an image object from a row major raster of packed 0xRRGGBB colors. The raster is
+   * copied.
+   *
+   * @param width  width of the image.
+   * @param height height of the image.
+   * @param raster packed colors of the image, row by row.
+   * @throws IllegalArgumentException If the raster is null, or does not match the dimensions.
+   */
+  public Image(int width, int height, int[] raster) {
+    this(width, height, raster, true);
+  }
 
   /**
-   * Replicates a 2D list of pixels.
+   * Constructs an image object from a row major raster, copying it only if asked to.
    *
-   * @param pixels the image's pixels
-   * @return a 2D replicated list of the image's pixels.
+   * @param width  width of the image.
+   * @param height height of the image.
+   * @param raster packed colors of the image, row by row.
+   * @param copy   whether the raster should be copied.
+   * @throws IllegalArgumentException If the raster is null, or does not match the dimensions.
    */
-  private List<ArrayList<IPixel>> replicate(List<ArrayList<IPixel>> pixels) {
-    List<ArrayList<IPixel>> tempPixels = new ArrayList<>();
-    for (ArrayList<IPixel> row : pixels) {
-      ArrayList<IPixel> rowCopy = new ArrayList<>();
-      for (IPixel pixel : row) {
-        rowCopy.add(new PixelImpl(pixel.getPosn(), pixel.getColor()));
-      }
-      tempPixels.add(rowCopy);
+  private Image(int width, int height, int[] raster, boolean copy) {
+    if (raster == null) {
+      throw new IllegalArgumentException("Raster cannot be null!");
+    }
+    if (width < 0 || height < 0 || raster.length != width * height) {
+      throw new IllegalArgumentException("Raster does not match the dimensions of the image.");
     }
-    return tempPixels;
+    this.width = width;
+    this.height = height;
+    this.raster = copy ? raster.clone() : raster;
+  }
+
+  /**
+   * Creates an image that takes ownership of the given raster instead of copying it. The caller
+   * must not modify the raster after handing it over, which is what lets a transformation produce
+   * its result with a single allocation.
+   *
+   * @param width  width of the image.
+   * @param height height of the image.
+   * @param raster packed colors of the image, row by row.
+   * @return the image backed by the given raster.
+   * @throws IllegalArgumentException If the raster is null, or does not match the dimensions.
+   */
+  public static Image adopt(int width, int height, int[] raster) {
+    return new Image(width, height, raster, false);
   }
 
   /**
-   * Gets this images pixels.
+   * Creates an image that takes ownership of the given raster, along with a histogram of it that
+   * was counted while the raster was written. The caller must not modify either afterwards.
+   *
+   * @param width     width of the image.
+   * @param height    height of the image.
+   * @param raster    packed colors of the image, row by row.
+   * @param histogram the histogram of the raster, or null to compute it when it is asked for.
+   * @return the image backed by the given raster.
+   * @throws IllegalArgumentException If the raster is null, or does not match the dimensions.
+   */
+  public static Image adopt(int width, int height, int[] raster, Histogram histogram) {
+    Image image = new Image(width, height, raster, false);
+    image.histogram = histogram;
+    return image;
+  }
+
+  /**
+   * Gets this images pixels. The returned list is a read only view of the raster, pixels are only
+   * created when they are accessed.
    *
    * @return a 2D list of an image's pixels.
    */
   @Override
   public List<List<IPixel>> getPixels() {
-    return new ArrayList<>(pixels);
+    return new PixelsView(this);
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getRGB(int x, int y) throws IndexOutOfBoundsException {
+    if (x < 0 || x >= this.width || y < 0 || y >= this.height) {
+      throw new IndexOutOfBoundsException("Pixel (" + x + ", " + y + ") is outside the image.");
+    }
+    return this.raster[y * this.width + x];
+  }
+
+  @Override
+  public int[] getRow(int y, int[] dest) throws IndexOutOfBoundsException {
+    if (y < 0 || y >= this.height) {
+      throw new IndexOutOfBoundsException("Row " + y + " is outside the image.");
+    }
+    if (dest == null || dest.length < this.width) {
+      dest = new int[this.width];
+    }
+    System.arraycopy(this.raster, y * this.width, dest, 0, this.width);
+    return dest;
+  }
+
+  @Override
+  public int[] copyRaster() {
+    return this.raster.clone();
   }
 
   /**
@@ -69,23 +167,20 @@ public class Image implements PixelImage {
    * @throws IOException Thrown if the file output stream does not function correctly.
    */
   public void saveImageAsPPM(String filename) throws IOException {
-    FileOutputStream outputStream = new FileOutputStream(filename);
-    StringBuilder output = new StringBuilder();
-    output.append("P3");
-    output.append("\n" + this.pixels.get(1).size() + " " + this.pixels.size());
-    output.append("\n255");
-    for (List<IPixel> pixelList : this.pixels) {
-      for (IPixel pixel : pixelList) {
-        output.append("\n");
-        output.append(pixel.getColor().getRed());
-        output.append("\n");
-        output.append(pixel.getColor().getGreen());
-        output.append("\n");
-        output.append(pixel.getColor().getBlue());
+    PPMTextOutput output = new PPMTextOutput(new FileOutputStream(filename));
+    try {
+      output.writeText("P3\n" + this.width + " " + this.height + "\n255");
+      for (int rgb : this.raster) {
+        output.writeChar('\n');
+        output.writeValue(PackedColor.red(rgb));
+        output.writeChar('\n');
+        output.writeValue(PackedColor.green(rgb));
+        output.writeChar('\n');
+        output.writeValue(PackedColor.blue(rgb));
       }
+    } finally {
+      output.close();
     }
-    outputStream.write(output.toString().getBytes());
-    outputStream.close();
   }
 
 
@@ -96,19 +191,8 @@ public class Image implements PixelImage {
    * @throws IOException Thrown if the file output stream does not function correctly.
    */
   public void saveImageAs(String outputName) throws IOException {
-    int width = this.pixels.get(1).size();
-    int height = this.pixels.size();
-    BufferedImage output = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-
-    for (List<IPixel> pixelList : this.pixels) {
-      for (IPixel pixel : pixelList) {
-        int red = pixel.getColor().getRed();
-        int green = pixel.getColor().getGreen();
-        int blue = pixel.getColor().getBlue();
-        int value = (red << 16) + (green << 8) + blue;
-        output.setRGB(pixel.getPosn().getX(), pixel.getPosn().getY(), value);
-      }
-    }
+    // the raster is only read while writing, so it can be shared instead of copied
+    BufferedImage output = BufferedImages.wrap(this.width, this.height, this.raster);
     /*
     description: Standard BMP Image Writer     format names: [bmp, BMP]
     description: Standard JPEG Image Writer    format names: [JPEG, jpeg, JPG, jpg]
@@ -121,8 +205,17 @@ public class Image implements PixelImage {
     ImageIO.write(output, splitAtFormat[1], new File(outputName));
   }
 
+  @Override
+  public Histogram getHistogram() {
+    Histogram current = this.histogram;
+    if (current == null) {
+      current = new Histogram(this.raster);
+      this.histogram = current;
+    }
+    return current;
+  }
+
   public List<Line> getLines() {
-    return this.histogram.getLines();
+    return this.getHistogram().getLines();
   }
 }
-
@@ -0,0 +1,232 @@
+package model.imaging;
+
+import java.awt.image.BufferedImage;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+import model.graph.Histogram;
+import model.graph.Line;
+import model.imaging.pixel.IPixel;
+
+/**
+ * Class to represent an image whose pixels are read straight out of a memory mapped binary PPM or
+ * PGM raster, one byte per value. Nothing is decoded up front, so the image can be larger than the
+ * heap; pixels are read from the file as they are asked for. The file is mapped in bands of whole
+ * rows because a single mapping is limited to 2 GB.
+ */
+public class MappedImage implements PixelImage {
+
+  // largest number of bytes mapped by a single band
+  private static final long BAND_BYTES = 1L << 30;
+
+  private final int width;
+  private final int height;
+  private final int channels;
+  private final int rowBytes;
+  private final int rowsPerBand;
+  private final ByteBuffer[] bands;
+  private volatile Histogram histogram;
+
+  /**
+   * Constructs an image over the given mapped bands.
+   *
+   * @param width       width of the image.
+   * @param height      height of the image.
+   * @param channels    3 for color rasters, 1 for greyscale rasters.
+   * @param rowsPerBand number of rows in every band but the last.
+   * @param bands       the mapped rows of the image.
+   */
+  private MappedImage(int width, int height, int channels, int rowsPerBand, ByteBuffer[] bands) {
+    this.width = width;
+    this.height = height;
+    this.channels = channels;
+    this.rowBytes = width * channels;
+    this.rowsPerBand = rowsPerBand;
+    this.bands = bands;
+  }
+
+  /**
+   * Maps the raster of a binary PPM or PGM file with a maximum value of 255. The mapping stays
+   * valid after the channel is closed.
+   *
+   * @param channel  channel of the file.
+   * @param offset   position in the file of the first byte of the raster.
+   * @param width    width of the image.
+   * @param height   height of the image.
+   * @param channels 3 for P6 files, 1 for P5 files.
+   * @return the image backed by the file.
+   * @throws IOException              If the file can't be mapped.
+   * @throws IllegalArgumentException If the arguments are invalid or the file is too short.
+   */
+  public static MappedImage map(FileChannel channel, long offset, int width, int height,
+                                int channels) throws IOException, IllegalArgumentException {
+    if (channel == null) {
+      throw new IllegalArgumentException("Channel cannot be null!");
+    }
+    if (width < 0 || height < 0 || offset < 0 || (channels != 1 && channels != 3)) {
+      throw new IllegalArgumentException("Invalid raster.");
+    }
+    long rowBytes = (long) width * channels;
+    if (rowBytes > BAND_BYTES) {
+      throw new IllegalArgumentException("Rows are too long to be mapped.");
+    }
+    if (channel.size() < offset + rowBytes * height) {
+      throw new IllegalArgumentException("Invalid PPM file: unexpected end of file");
+    }
+    int rowsPerBand = (int) Math.max(1, Math.min(height, BAND_BYTES / Math.max(1, rowBytes)));
+    int bandCount = height == 0 ? 0 : (height + rowsPerBand - 1) / rowsPerBand;
+    ByteBuffer[] bands = new ByteBuffer[bandCount];
+    for (int b = 0; b < bandCount; b++) {
+      int rows = Math.min(rowsPerBand, height - b * rowsPerBand);
+      bands[b] = channel.map(FileChannel.MapMode.READ_ONLY,
+              offset + b * rowsPerBand * rowBytes, rows * rowBytes);
+    }
+    return new MappedImage(width, height, channels, rowsPerBand, bands);
+  }
+
+  /**
+   * Gets this images pixels. The returned list is a read only view of the file, pixels are only
+   * created when they are accessed.
+   *
+   * @return a 2D list of an image's pixels.
+   */
+  @Override
+  public List<List<IPixel>> getPixels() {
+    return new PixelsView(this);
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getRGB(int x, int y) throws IndexOutOfBoundsException {
+    if (x < 0 || x >= this.width || y < 0 || y >= this.height) {
+      throw new IndexOutOfBoundsException("Pixel (" + x + ", " + y + ") is outside the image.");
+    }
+    ByteBuffer band = this.bands[y / this.rowsPerBand];
+    int index = (y % this.rowsPerBand) * this.rowBytes + x * this.channels;
+    if (this.channels == 1) {
+      int grey = band.get(index) & 0xFF;
+      return PackedColor.pack(grey, grey, grey);
+    }
+    return PackedColor.pack(band.get(index) & 0xFF, band.get(index + 1) & 0xFF,
+            band.get(index + 2) & 0xFF);
+  }
+
+  @Override
+  public int[] getRow(int y, int[] dest) throws IndexOutOfBoundsException {
+    if (y < 0 || y >= this.height) {
+      throw new IndexOutOfBoundsException("Row " + y + " is outside the image.");
+    }
+    if (dest == null || dest.length < this.width) {
+      dest = new int[this.width];
+    }
+    // a duplicate has its own position, so rows can be read from several threads at once
+    ByteBuffer band = this.bands[y / this.rowsPerBand].duplicate();
+    band.position((y % this.rowsPerBand) * this.rowBytes);
+    byte[] bytes = new byte[this.rowBytes];
+    band.get(bytes);
+    for (int j = 0, k = 0; j < this.width; j++) {
+      if (this.channels == 1) {
+        int grey = bytes[k++] & 0xFF;
+        dest[j] = PackedColor.pack(grey, grey, grey);
+      } else {
+        dest[j] = PackedColor.pack(bytes[k] & 0xFF, bytes[k + 1] & 0xFF, bytes[k + 2] & 0xFF);
+        k += 3;
+      }
+    }
+    return dest;
+  }
+
+  @Override
+  public int[] copyRaster() {
+    int[] raster = new int[this.width * this.height];
+    int[] row = null;
+    for (int i = 0; i < this.height; i++) {
+      row = this.getRow(i, row);
+      System.arraycopy(row, 0, raster, i * this.width, this.width);
+    }
+    return raster;
+  }
+
+  /**
+   * Saves an image as a plain PPM file given the name of the file to save it as, one row at a
+   * time.
+   *
+   * @param filename The name of the ppm file to create.
+   * @throws IOException Thrown if the file output stream does not function correctly.
+   */
+  @Override
+  public void saveImageAsPPM(String filename) throws IOException {
+    // the file might be the one this image is mapped from, so it is only replaced once written
+    FileReplacer.replace(filename, file -> {
+      PPMTextOutput output = new PPMTextOutput(new FileOutputStream(file.toFile()));
+      try {
+        output.writeText("P3\n" + this.width + " " + this.height + "\n255");
+        int[] row = null;
+        for (int i = 0; i < this.height; i++) {
+          row = this.getRow(i, row);
+          for (int j = 0; j < this.width; j++) {
+            output.writeChar('\n');
+            output.writeValue(PackedColor.red(row[j]));
+            output.writeChar('\n');
+            output.writeValue(PackedColor.green(row[j]));
+            output.writeChar('\n');
+            output.writeValue(PackedColor.blue(row[j]));
+          }
+        }
+      } finally {
+        output.close();
+      }
+    });
+  }
+
+  /**
+   * Saves an image as a file type based on the name of the file to save it as.
+   *
+   * @param outputName The name of the file to create.
+   * @throws IOException Thrown if the file output stream does not function correctly.
+   */
+  @Override
+  public void saveImageAs(String outputName) throws IOException {
+    BufferedImage output = BufferedImages.toBufferedImage(this);
+    String[] splitAtFormat = outputName.split("\\.", 2);
+    FileReplacer.replace(outputName, file -> {
+      if (!ImageIO.write(output, splitAtFormat[1], file.toFile())) {
+        throw new IOException("Cannot write " + splitAtFormat[1] + " files.");
+      }
+    });
+  }
+
+  /**
+   * Returns the histogram of this image. The histogram is only computed the first time it is asked
+   * for, since it has to read the whole file.
+   *
+   * @return the histogram of this image.
+   */
+  @Override
+  public Histogram getHistogram() {
+    Histogram current = this.histogram;
+    if (current == null) {
+      current = new Histogram(this);
+      this.histogram = current;
+    }
+    return current;
+  }
+
+  @Override
+  public List<Line> getLines() {
+    return this.getHistogram().getLines();
+  }
+}
@@ -0,0 +1,135 @@
+package model.imaging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Class that writes the text of a plain PPM file to a stream. Numbers are formatted straight into
+ * a byte buffer which is written out whenever it fills, so the memory used stays the same no
+ * matter how large the image is. Buffers are kept for reuse by the thread that closed them, so
+ * saving many images does not allocate a new buffer each time.
+ */
+public final class PPMTextOutput implements Closeable {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+  // longest text of a single int, "-2147483648"
+  private static final int MAX_DIGITS = 11;
+  private static final ThreadLocal<byte[]> POOL = new ThreadLocal<>();
+
+  private final OutputStream out;
+  private byte[] buffer;
+  private int position;
+
+  /**
+   * Constructs an output over the given stream. Closing the output closes the stream.
+   *
+   * @param out the stream to write to.
+   * @throws IllegalArgumentException If the stream is null.
+   */
+  public PPMTextOutput(OutputStream out) throws IllegalArgumentException {
+    if (out == null) {
+      throw new IllegalArgumentException("Stream can't be null.");
+    }
+    this.out = out;
+    byte[] pooled = POOL.get();
+    if (pooled == null) {
+      pooled = new byte[BUFFER_SIZE];
+    } else {
+      // taken out of the pool so a second output on this thread gets its own buffer
+      POOL.set(null);
+    }
+    this.buffer = pooled;
+    this.position = 0;
+  }
+
+  /**
+   * Writes the given text, such as a header.
+   *
+   * @param text the ASCII text to write.
+   * @throws IOException If the stream can't be written.
+   */
+  public void writeText(String text) throws IOException {
+    byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+    if (this.position + bytes.length > this.buffer.length) {
+      this.flush();
+    }
+    if (bytes.length > this.buffer.length) {
+      this.out.write(bytes);
+    } else {
+      System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+      this.position += bytes.length;
+    }
+  }
+
+  /**
+   * Writes a single character, such as a space or a new line.
+   *
+   * @param c the ASCII character to write.
+   * @throws IOException If the stream can't be written.
+   */
+  public void writeChar(char c) throws IOException {
+    if (this.position == this.buffer.length) {
+      this.flush();
+    }
+    this.buffer[this.position++] = (byte) c;
+  }
+
+  /**
+   * Writes the given number in decimal.
+   *
+   * @param value the number to write.
+   * @throws IOException If the stream can't be written.
+   */
+  public void writeValue(int value) throws IOException {
+    if (this.position + MAX_DIGITS > this.buffer.length) {
+      this.flush();
+    }
+    long remaining = value;
+    if (remaining < 0) {
+      this.buffer[this.position++] = '-';
+      remaining = -remaining;
+    }
+    int start = this.position;
+    do {
+      this.buffer[this.position++] = (byte) ('0' + remaining % 10);
+      remaining /= 10;
+    } while (remaining > 0);
+    // digits were written least significant first
+    for (int i = start, j = this.position - 1; i < j; i++, j--) {
+      byte digit = this.buffer[i];
+      this.buffer[i] = this.buffer[j];
+      this.buffer[j] = digit;
+    }
+  }
+
+  /**
+   * Writes out everything in the buffer.
+   *
+   * @throws IOException If the stream can't be written.
+   */
+  public void flush() throws IOException {
+    this.out.write(this.buffer, 0, this.position);
+    this.position = 0;
+  }
+
+  /**
+   * Writes out the buffer, closes the stream and returns the buffer to the pool.
+   *
+   * @throws IOException If the stream can't be written or closed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (this.buffer == null) {
+      return;
+    }
+    try {
+      this.flush();
+    } finally {
+      this.out.close();
+      POOL.set(this.buffer);
+      this.buffer = null;
+    }
+  }
+}
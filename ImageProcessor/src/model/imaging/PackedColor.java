@@ -0,0 +1,68 @@
+package model.imaging;
+
+/**
+ * Utility class for working with colors packed into a single integer in the form 0xRRGGBB. This
+ * is the format used by the raster of an image.
+ */
+public final class PackedColor {
+
+  /**
+   * Private constructor, this class only contains static methods.
+   */
+  private PackedColor() {
+    // utility class
+  }
+
+  /**
+   * Packs the given components into a single integer. Components are assumed to be in the range
+   * 0-255.
+   *
+   * @param r red component of the color.
+   * @param g green component of the color.
+   * @param b blue component of the color.
+   * @return the packed 0xRRGGBB value.
+   */
+  public static int pack(int r, int g, int b) {
+    return (r << 16) | (g << 8) | b;
+  }
+
+  /**
+   * Packs the given color into a single integer.
+   *
+   * @param color the color to pack.
+   * @return the packed 0xRRGGBB value.
+   */
+  public static int pack(IColor color) {
+    return pack(color.getRed(), color.getGreen(), color.getBlue());
+  }
+
+  /**
+   * Gets the red component of a packed color.
+   *
+   * @param rgb the packed color.
+   * @return the red value of the color.
+   */
+  public static int red(int rgb) {
+    return (rgb >> 16) & 0xFF;
+  }
+
+  /**
+   * Gets the green component of a packed color.
+   *
+   * @param rgb the packed color.
+   * @return the green value of the color.
+   */
+  public static int green(int rgb) {
+    return (rgb >> 8) & 0xFF;
+  }
+
+  /**
+   * Gets the blue component of a packed color.
+   *
+   * @param rgb the packed color.
+   * @return the blue value of the color.
+   */
+  public static int blue(int rgb) {
+    return rgb & 0xFF;
+  }
+}
@@ -3,6 +3,7 @@ package model.imaging;
 import java.io.IOException;
 import java.util.List;
 
+import model.graph.Histogram;
 import model.graph.Line;
 import model.imaging.pixel.IPixel;
 
@@ -18,6 +19,48 @@ public interface PixelImage {
    */
   List<List<IPixel>> getPixels();
 
+  /**
+   * Gets the width (number of columns) of this image.
+   *
+   * @return the width of the image in pixels.
+   */
+  int getWidth();
+
+  /**
+   * Gets the height (number of rows) of this image.
+   *
+   * @return the height of the image in pixels.
+   */
+  int getHeight();
+
+  /**
+   * Gets the color of the pixel at the given position packed as 0xRRGGBB.
+   *
+   * @param x column of the pixel.
+   * @param y row of the pixel.
+   * @return the packed color of the pixel.
+   * @throws IndexOutOfBoundsException If the position is outside of the image.
+   */
+  int getRGB(int x, int y) throws IndexOutOfBoundsException;
+
+  /**
+   * Copies the packed colors of the given row into the given array. If the array is null or too
+   * small to hold the row a new array is allocated.
+   *
+   * @param y    row to copy.
+   * @param dest array to copy the row into, may be null.
+   * @return the array holding the row.
+   * @throws IndexOutOfBoundsException If the row is outside of the image.
+   */
+  int[] getRow(int y, int[] dest) throws IndexOutOfBoundsException;
+
+  /**
+   * Copies the packed colors of the entire image in row major order.
+   *
+   * @return a copy of the raster of this image.
+   */
+  int[] copyRaster();
+
   /**
    * Saves an image as a PPM file given the name of the file to save it as.
    *
@@ -43,4 +86,12 @@ public interface PixelImage {
    *       intensity line segments.
    */
   List<Line> getLines();
-}
\ No newline at end of file
+
+  /**
+   * Returns the histogram of the image. It is computed the first time it is asked for and kept
+   * afterwards.
+   *
+   * @return the histogram of the image.
+   */
+  Histogram getHistogram();
+}
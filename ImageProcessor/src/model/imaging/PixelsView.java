@@ -0,0 +1,60 @@
+package model.imaging;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import model.imaging.pixel.IPixel;
+import model.imaging.pixel.PixelImpl;
+
+/**
+ * Read only view of the rows of an image as lists of pixels. Pixels are only created when they are
+ * accessed.
+ */
+final class PixelsView extends AbstractList<List<IPixel>> {
+  private final PixelImage image;
+
+  /**
+   * Creates a view of the given image.
+   *
+   * @param image the image to view.
+   */
+  PixelsView(PixelImage image) {
+    this.image = image;
+  }
+
+  @Override
+  public List<IPixel> get(int index) {
+    if (index < 0 || index >= this.image.getHeight()) {
+      throw new IndexOutOfBoundsException("Row " + index + " is outside the image.");
+    }
+    return new RowView(index);
+  }
+
+  @Override
+  public int size() {
+    return this.image.getHeight();
+  }
+
+  /**
+   * Read only view of a single row of the image.
+   */
+  private class RowView extends AbstractList<IPixel> {
+    private final int row;
+
+    private RowView(int row) {
+      this.row = row;
+    }
+
+    @Override
+    public IPixel get(int index) {
+      int rgb = image.getRGB(index, this.row);
+      return new PixelImpl(new Posn(index, this.row), Color.of(PackedColor.red(rgb),
+              PackedColor.green(rgb), PackedColor.blue(rgb)));
+    }
+
+    @Override
+    public int size() {
+      return image.getWidth();
+    }
+  }
+}
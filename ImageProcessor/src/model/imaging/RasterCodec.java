@@ -0,0 +1,116 @@
+package model.imaging;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Utility class that compresses the raster of an image into a self contained deflate stream and
+ * back. Each row is stored as red, green and blue bytes, and every byte but the first three of a
+ * row holds the difference from the same channel of the pixel to its left, which turns smooth
+ * parts of an image into runs of small values that deflate compresses well.
+ */
+public final class RasterCodec {
+
+  /**
+   * Private constructor, this class only contains static methods.
+   */
+  private RasterCodec() {
+    // utility class
+  }
+
+  /**
+   * Writes the compressed raster of the given image to the given stream. The stream is not
+   * closed.
+   *
+   * @param image the image to write.
+   * @param out   the stream to write to.
+   * @param level deflate level from 0, no compression, to 9, the smallest output.
+   * @throws IOException              If the stream can't be written.
+   * @throws IllegalArgumentException If an argument is null or the level is not between 0 and 9.
+   */
+  public static void encode(PixelImage image, OutputStream out, int level)
+      throws IOException, IllegalArgumentException {
+    if (image == null || out == null) {
+      throw new IllegalArgumentException("Argument can't be null.");
+    }
+    if (level < 0 || level > 9) {
+      throw new IllegalArgumentException("Compression level must be between 0 and 9.");
+    }
+    int width = image.getWidth();
+    Deflater deflater = new Deflater(level);
+    try {
+      DeflaterOutputStream stream = new DeflaterOutputStream(out, deflater, 1 << 16);
+      int[] row = null;
+      byte[] bytes = new byte[width * 3];
+      for (int i = 0; i < image.getHeight(); i++) {
+        row = image.getRow(i, row);
+        int previous = 0;
+        for (int j = 0; j < width; j++) {
+          int color = row[j];
+          bytes[j * 3] = (byte) ((color >> 16) - (previous >> 16));
+          bytes[j * 3 + 1] = (byte) ((color >> 8) - (previous >> 8));
+          bytes[j * 3 + 2] = (byte) (color - previous);
+          previous = color;
+        }
+        stream.write(bytes);
+      }
+      stream.finish();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Reads a raster written by encode.
+   *
+   * @param data   the compressed raster.
+   * @param width  width of the image.
+   * @param height height of the image.
+   * @return a new raster in row major order, packed as 0xRRGGBB.
+   * @throws IllegalArgumentException If the data is null or is not a raster of the given size.
+   */
+  public static int[] decode(byte[] data, int width, int height) throws IllegalArgumentException {
+    if (data == null) {
+      throw new IllegalArgumentException("Data can't be null.");
+    }
+    int[] pixels = new int[width * height];
+    byte[] bytes = new byte[width * 3];
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      for (int i = 0; i < height; i++) {
+        int read = 0;
+        while (read < bytes.length) {
+          int count = inflater.inflate(bytes, read, bytes.length - read);
+          if (count == 0 && (inflater.finished() || inflater.needsInput()
+              || inflater.needsDictionary())) {
+            throw new IllegalArgumentException("Raster data is too short.");
+          }
+          read += count;
+        }
+        int red = 0;
+        int green = 0;
+        int blue = 0;
+        int start = i * width;
+        for (int j = 0; j < width; j++) {
+          red = (red + bytes[j * 3]) & 0xFF;
+          green = (green + bytes[j * 3 + 1]) & 0xFF;
+          blue = (blue + bytes[j * 3 + 2]) & 0xFF;
+          pixels[start + j] = PackedColor.pack(red, green, blue);
+        }
+      }
+      if (inflater.inflate(new byte[1]) != 0 || !inflater.finished()) {
+        throw new IllegalArgumentException("Raster data is too long.");
+      }
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("Raster data is corrupt.");
+    } finally {
+      inflater.end();
+    }
+    return pixels;
+  }
+}
@@ -9,8 +9,11 @@ import java.util.List;
 import java.util.Scanner;
 import java.io.FileNotFoundException;
 import java.io.FileInputStream;
+import java.io.InputStream;
 
 import javax.imageio.ImageIO;
+import controller.filereading.PPMTokenizer;
+import model.imaging.BufferedImages;
 import model.imaging.Color;
 import model.imaging.Posn;
 import model.imaging.pixel.PixelImpl;
@@ -78,53 +81,52 @@ public class ImageUtil {
    * @return A 2D list of pixels representing this image file.
    */
   public static List getPixels(String filename) {
-    Scanner sc;
+    InputStream in;
 
     try {
-      sc = new Scanner(new FileInputStream(filename));
+      in = new FileInputStream(filename);
     } catch (FileNotFoundException e) {
       throw new IllegalArgumentException("File not Found");
     }
 
-    StringBuilder builder = new StringBuilder();
-    while (sc.hasNextLine()) {
-      String s = sc.nextLine();
-      try {
-        if (s.charAt(0) != '#') {
-          builder.append(s + System.lineSeparator());
-        }
-      } catch (StringIndexOutOfBoundsException e) {
-        throw new IllegalArgumentException("Invalid String");
-      }
-    }
-
-    sc = new Scanner(builder.toString());
+    try {
+      PPMTokenizer tokens = new PPMTokenizer(in);
 
-    String token;
+      String token;
 
-    token = sc.next();
-    if (!token.equals("P3")) {
-      throw new IllegalArgumentException("Invalid PPM file: plain RAW file should begin with P3");
-    }
-    int width = sc.nextInt();
-    int height = sc.nextInt();
-    //TODO NOT BEING USED
-    int maxValue = sc.nextInt();
+      token = tokens.nextToken();
+      if (!token.equals("P3")) {
+        throw new IllegalArgumentException(
+                "Invalid PPM file: plain RAW file should begin with P3");
+      }
+      int width = tokens.nextInt();
+      int height = tokens.nextInt();
+      //TODO NOT BEING USED
+      int maxValue = tokens.nextInt();
 
-    List pixels = new ArrayList();
+      List pixels = new ArrayList();
 
-    for (int i = 0; i < height; i++) {
-      List temp = new ArrayList();
-      for (int j = 0; j < width; j++) {
-        int r = sc.nextInt();
-        int g = sc.nextInt();
-        int b = sc.nextInt();
+      for (int i = 0; i < height; i++) {
+        List temp = new ArrayList();
+        for (int j = 0; j < width; j++) {
+          int r = tokens.nextInt();
+          int g = tokens.nextInt();
+          int b = tokens.nextInt();
 
-        temp.add(new PixelImpl(new Posn(j, i), new Color(r, g, b)));
+          temp.add(new PixelImpl(new Posn(j, i), Color.of(r, g, b)));
+        }
+        pixels.add(temp);
+      }
+      return pixels;
+    } catch (IOException e) {
+      throw new IllegalArgumentException("File could not be read");
+    } finally {
+      try {
+        in.close();
+      } catch (IOException e) {
+        // nothing left to read
       }
-      pixels.add(temp);
     }
-    return pixels;
   }
 
   /**
@@ -161,6 +163,7 @@ public class ImageUtil {
     }
     int height = img.getHeight();
     int width = img.getWidth();
+    int[] raster = BufferedImages.toRaster(img);
 
     List pixels = new ArrayList();
 
@@ -172,12 +175,12 @@ public class ImageUtil {
       List temp = new ArrayList();
       for (int j = 0; j < width; j++) {
 
-        rgb = img.getRGB(j, i);
+        rgb = raster[i * width + j];
         r = (rgb >> 16) & 0xFF;
         g = (rgb >> 8) & 0xFF;
         b = rgb & 0xFF;
         //   System.out.println(b);
-        Color color = new Color(r, g, b);
+        Color color = Color.of(r, g, b);
         temp.add(new PixelImpl(new Posn(j, i), color));
       }
       pixels.add(temp);
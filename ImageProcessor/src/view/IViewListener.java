@@ -24,6 +24,18 @@ public interface IViewListener {
    */
   void handleSaveImageEvent(String fileName, String fileType) throws IOException;
 
+  /**
+   * Handles the logic of saving the topmost layer with the given encoding setting, which is the
+   * quality of JPEG files from 0 to 100 or the compression level of PNG files from 0 to 9. The
+   * setting is ignored for PPM files.
+   *
+   * @param fileName Path of the file to be created.
+   * @param fileType Type of image to create.
+   * @param setting  Quality or compression level of the file, or a negative value for the
+   *                 default.
+   */
+  void handleSaveImageEvent(String fileName, String fileType, int setting) throws IOException;
+
   /**
    * Handles the logic of loading a given image file as a layer into the program. Files loaded can
    * be PNG, JPEG, or PPM.
@@ -43,6 +55,21 @@ public interface IViewListener {
    */
   void handleSaveAllImagesEvent(String fileName, String fileType);
 
+  /**
+   * Handles saving all of the layers to a single layer file.
+   *
+   * @param fileName Path of the layer file.
+   */
+  void handleSaveProjectEvent(String fileName);
+
+  /**
+   * Handles replacing all of the layers with the layers of a layer file. Layers are only read from
+   * the file when they are first shown or edited.
+   *
+   * @param fileName Path of the layer file.
+   */
+  void handleOpenProjectEvent(String fileName);
+
 
   /**
    * Handles blurring the current image in the program.
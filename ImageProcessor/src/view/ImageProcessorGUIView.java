@@ -31,6 +31,11 @@ public interface ImageProcessorGUIView extends ImageProcessorView {
    */
   void updateImages(String imageName);
 
+  /**
+   * Removes every image name from the list of images contained in the GUI.
+   */
+  void clearImages();
+
   /**
    * Given a list of lines this method updates the histogram with the given lines.
    * @param lines A list of lines that are drawn to make a histogram.
@@ -99,9 +99,21 @@ public class ImageProcessorGUIViewImpl extends JFrame implements ImageProcessorG
     saveLayer.addActionListener(this);
     save.add(saveLayer);
 
+    JMenuItem saveProject = new JMenuItem("Save All Layers as a Project");
+    saveProject.getAccessibleContext().setAccessibleDescription("Save All Layers as a Project");
+    saveProject.setActionCommand("Save Project");
+    saveProject.addActionListener(this);
+    save.add(saveProject);
+
     save.setEnabled(false);
     file.add(save);
 
+    JMenuItem openProject = new JMenuItem("Open Project...");
+    openProject.getAccessibleContext().setAccessibleDescription("Open Project");
+    openProject.setActionCommand("Open Project");
+    openProject.addActionListener(this);
+    file.add(openProject);
+
     menuBar.add(file);
 
     JMenu edit = new JMenu("Edit");
@@ -389,6 +401,19 @@ public class ImageProcessorGUIViewImpl extends JFrame implements ImageProcessorG
   }
 
 
+  @Override
+  public void clearImages() {
+    this.images.clear();
+    this.labels.removeAll();
+    this.deleteImage.setEnabled(false);
+    this.filters.setEnabled(false);
+    this.transformations.setEnabled(false);
+    this.showImage.setEnabled(false);
+    this.hideImage.setEnabled(false);
+    repaint();
+    revalidate();
+  }
+
   @Override
   public void updateImages(String imageName) {
     JTextField layerLabel = new JTextField();
@@ -494,6 +519,12 @@ public class ImageProcessorGUIViewImpl extends JFrame implements ImageProcessorG
       case "Save All":
         emitSaveAllEvent();
         break;
+      case "Save Project":
+        emitSaveProjectEvent();
+        break;
+      case "Open Project":
+        emitOpenProjectEvent();
+        break;
       default:
         throw new IllegalStateException("Could not retrieve command");
     }
@@ -520,7 +551,11 @@ public class ImageProcessorGUIViewImpl extends JFrame implements ImageProcessorG
 
         if (retvalue == JFileChooser.APPROVE_OPTION) {
           File f = fileChooser.getSelectedFile();
-          listener.handleSaveImageEvent(f.getAbsolutePath(), optionsFileType[filetypeValue]);
+          Integer setting = askSaveSetting(optionsFileType[filetypeValue]);
+          if (setting != null) {
+            listener.handleSaveImageEvent(f.getAbsolutePath(), optionsFileType[filetypeValue],
+                    setting);
+          }
         }
       }
     } else {
@@ -528,6 +563,37 @@ public class ImageProcessorGUIViewImpl extends JFrame implements ImageProcessorG
     }
   }
 
+  /**
+   * Asks the user for the quality of a JPEG file or the compression level of a PNG file.
+   *
+   * @param filetype Type of file being saved.
+   * @return the setting entered, -1 for PPM files, or null if the user cancelled or did not enter
+   *         an integer.
+   */
+  private Integer askSaveSetting(String filetype) {
+    String question;
+    String initial;
+    if (filetype.equals("JPEG")) {
+      question = "JPEG quality, from 0 (smallest file) to 100 (best image)";
+      initial = "75";
+    } else if (filetype.equals("PNG")) {
+      question = "PNG compression level, from 0 (fastest) to 9 (smallest file)";
+      initial = "4";
+    } else {
+      return -1;
+    }
+    String value = JOptionPane.showInputDialog(this, question, initial);
+    if (value == null) {
+      return null;
+    }
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      JOptionPane.showMessageDialog(null, "Must enter an integer");
+      return null;
+    }
+  }
+
   /**
    * Sets the filter for a file chooser based on the 3 values of either ppm. png. or jpeg.
    *
@@ -730,6 +796,34 @@ public class ImageProcessorGUIViewImpl extends JFrame implements ImageProcessorG
     listener.hideEvent();
   }
 
+  /**
+   * Tells the listener to save all layers to the selected project file.
+   */
+  private void emitSaveProjectEvent() {
+    final JFileChooser fileChooser = new JFileChooser(".");
+    fileChooser.setFileFilter(new FileNameExtensionFilter("Layer project", "layers"));
+    int retvalue = fileChooser.showSaveDialog(this);
+    if (retvalue == JFileChooser.APPROVE_OPTION) {
+      String path = fileChooser.getSelectedFile().getAbsolutePath();
+      if (!path.toLowerCase().endsWith(".layers")) {
+        path = path + ".layers";
+      }
+      listener.handleSaveProjectEvent(path);
+    }
+  }
+
+  /**
+   * Tells the listener to replace all layers with the layers of the selected project file.
+   */
+  private void emitOpenProjectEvent() {
+    final JFileChooser fileChooser = new JFileChooser(".");
+    fileChooser.setFileFilter(new FileNameExtensionFilter("Layer project", "layers"));
+    int retvalue = fileChooser.showOpenDialog(this);
+    if (retvalue == JFileChooser.APPROVE_OPTION) {
+      listener.handleOpenProjectEvent(fileChooser.getSelectedFile().getAbsolutePath());
+    }
+  }
+
   /**
    * Tells the listener to load in the image with the user selected file type and at the selected
    * file path as a layer in the program. The name of the layer is also taken from the user.
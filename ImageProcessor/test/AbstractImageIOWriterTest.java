@@ -1,4 +1,5 @@
 import controller.filewriting.IImageFileWriter;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,6 +34,19 @@ public abstract class AbstractImageIOWriterTest {
         new Color(255, 0, 0), new Color(0, 255, 0)))).generateImage();
   }
 
+  /**
+   * Creates an empty temporary file for a test to write to, deleted when the tests finish.
+   *
+   * @param suffix the extension of the file.
+   * @return the path of the file.
+   * @throws IOException If the file can't be created.
+   */
+  protected static String tempFile(String suffix) throws IOException {
+    File file = File.createTempFile("written", suffix);
+    file.deleteOnExit();
+    return file.getPath();
+  }
+
   // testing a null file name
   @Test(expected = IllegalArgumentException.class)
   public void testNullFilename() throws IOException {
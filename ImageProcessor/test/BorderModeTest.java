@@ -0,0 +1,109 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import filters.BorderMode;
+import filters.FilterBlur;
+import filters.GaussianBlurFilter;
+import filters.SharpenFilter;
+import java.util.Arrays;
+import model.imaging.Image;
+import model.imaging.PackedColor;
+import model.imaging.PixelImage;
+import org.junit.Test;
+
+/**
+ * Testing class for BorderMode and the filters that use it.
+ */
+public class BorderModeTest {
+
+  // indexes inside the image are unchanged by every mode
+  @Test
+  public void testInsideUnchanged() {
+    for (BorderMode mode : BorderMode.values()) {
+      for (int i = 0; i < 5; i++) {
+        assertEquals(i, mode.resolve(i, 5));
+      }
+    }
+  }
+
+  // zero marks indexes outside of the image as black
+  @Test
+  public void testZero() {
+    assertEquals(-1, BorderMode.ZERO.resolve(-1, 5));
+    assertEquals(-1, BorderMode.ZERO.resolve(5, 5));
+  }
+
+  // clamp uses the closest edge
+  @Test
+  public void testClamp() {
+    assertEquals(0, BorderMode.CLAMP.resolve(-3, 5));
+    assertEquals(4, BorderMode.CLAMP.resolve(7, 5));
+  }
+
+  // mirror reflects without repeating the edge
+  @Test
+  public void testMirror() {
+    assertEquals(1, BorderMode.MIRROR.resolve(-1, 5));
+    assertEquals(2, BorderMode.MIRROR.resolve(-2, 5));
+    assertEquals(3, BorderMode.MIRROR.resolve(5, 5));
+    assertEquals(2, BorderMode.MIRROR.resolve(6, 5));
+    assertEquals(0, BorderMode.MIRROR.resolve(8, 5));
+    assertEquals(0, BorderMode.MIRROR.resolve(-4, 1));
+  }
+
+  // wrap takes neighbours from the opposite edge
+  @Test
+  public void testWrap() {
+    assertEquals(4, BorderMode.WRAP.resolve(-1, 5));
+    assertEquals(0, BorderMode.WRAP.resolve(5, 5));
+    assertEquals(2, BorderMode.WRAP.resolve(-8, 5));
+  }
+
+  // with a border mode other than zero a flat image stays flat, edges included. The blur
+  // truncates every tap, so its flat value is the one it gives the interior
+  @Test
+  public void testFlatImageStaysFlat() {
+    int[] raster = new int[12 * 9];
+    Arrays.fill(raster, PackedColor.pack(200, 100, 40));
+    PixelImage image = new Image(12, 9, raster);
+    int[] blurred = new int[raster.length];
+    Arrays.fill(blurred, new FilterBlur().transform(image).getRGB(5, 4));
+    for (BorderMode mode : new BorderMode[]{BorderMode.CLAMP, BorderMode.MIRROR,
+        BorderMode.WRAP}) {
+      assertArrayEquals(blurred, new FilterBlur(mode).transform(image).copyRaster());
+      assertArrayEquals(raster, new GaussianBlurFilter(1.5, mode).transform(image)
+              .copyRaster());
+    }
+  }
+
+  // the zero mode darkens the corners of a flat image
+  @Test
+  public void testZeroDarkensEdges() {
+    int[] raster = new int[4 * 4];
+    Arrays.fill(raster, PackedColor.pack(160, 160, 160));
+    PixelImage blurred = new FilterBlur().transform(new Image(4, 4, raster));
+    assertEquals(PackedColor.pack(90, 90, 90), blurred.getRGB(0, 0));
+    assertEquals(PackedColor.pack(160, 160, 160), blurred.getRGB(1, 1));
+  }
+
+  // the non separable path gives every pixel of a flat wrapped image the interior value
+  @Test
+  public void testSharpenWrap() {
+    int[] raster = new int[5 * 5];
+    Arrays.fill(raster, PackedColor.pack(100, 100, 100));
+    PixelImage image = new Image(5, 5, raster);
+    int interior = new SharpenFilter().transform(image).getRGB(2, 2);
+    PixelImage sharpened = new SharpenFilter(BorderMode.WRAP).transform(image);
+    for (int i = 0; i < 5; i++) {
+      for (int j = 0; j < 5; j++) {
+        assertEquals(interior, sharpened.getRGB(j, i));
+      }
+    }
+  }
+
+  // border modes can't be null
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullBorder() {
+    new FilterBlur(null);
+  }
+}
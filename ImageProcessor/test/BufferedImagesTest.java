@@ -0,0 +1,91 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import controller.filereading.ImageIOFileReader;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import model.imaging.BufferedImages;
+import model.imaging.Image;
+import model.imaging.PixelImage;
+import org.junit.Test;
+
+/**
+ * Testing class for BufferedImages.
+ */
+public class BufferedImagesTest {
+
+  private static final int[] TYPES = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB,
+      BufferedImage.TYPE_INT_BGR, BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR,
+      BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_USHORT_565_RGB};
+
+  // a buffered image of the given type filled with random colors
+  private static BufferedImage randomImage(int type) {
+    Random random = new Random(5);
+    BufferedImage image = new BufferedImage(13, 7, type);
+    for (int i = 0; i < 7; i++) {
+      for (int j = 0; j < 13; j++) {
+        image.setRGB(j, i, random.nextInt());
+      }
+    }
+    return image;
+  }
+
+  // colors read in bulk are the same as colors read one pixel at a time
+  private static void assertSameColors(BufferedImage image) {
+    int[] raster = BufferedImages.toRaster(image);
+    assertEquals(image.getWidth() * image.getHeight(), raster.length);
+    for (int i = 0; i < image.getHeight(); i++) {
+      for (int j = 0; j < image.getWidth(); j++) {
+        assertEquals(image.getRGB(j, i) & 0xFFFFFF, raster[i * image.getWidth() + j]);
+      }
+    }
+  }
+
+  @Test
+  public void testToRasterEveryType() {
+    for (int type : TYPES) {
+      assertSameColors(randomImage(type));
+    }
+  }
+
+  // sub images share the buffer of their parent at an offset
+  @Test
+  public void testToRasterSubimage() {
+    for (int type : TYPES) {
+      assertSameColors(randomImage(type).getSubimage(3, 2, 6, 4));
+    }
+  }
+
+  @Test
+  public void testToBufferedImage() {
+    int[] raster = {0xFF0000, 0x00FF00, 0x0000FF, 0x123456, 0xFEDCBA, 0x000000};
+    PixelImage image = new Image(3, 2, raster);
+    BufferedImage output = BufferedImages.toBufferedImage(image);
+    assertEquals(BufferedImage.TYPE_INT_RGB, output.getType());
+    assertEquals(0x123456, output.getRGB(0, 1) & 0xFFFFFF);
+    assertArrayEquals(raster, BufferedImages.toRaster(output));
+  }
+
+  // images saved through a buffered image sharing their raster read back the same
+  @Test
+  public void testSaveImageAsRoundTrip() throws IOException {
+    int[] raster = {0xFF0000, 0x00FF00, 0x0000FF, 0x123456, 0xFEDCBA, 0x000000};
+    File file = File.createTempFile("shared", ".png");
+    file.deleteOnExit();
+    new Image(3, 2, raster).saveImageAs(file.getPath());
+    assertArrayEquals(raster, new ImageIOFileReader().readImageFromFile(file.getPath())
+        .copyRaster());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testToRasterNull() {
+    BufferedImages.toRaster(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testToBufferedImageNull() {
+    BufferedImages.toBufferedImage(null);
+  }
+}
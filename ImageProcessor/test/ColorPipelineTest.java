@@ -0,0 +1,160 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import controller.filereading.PPMFileReader;
+import filters.ColorPipeline;
+import filters.LookupTable;
+import filters.RowScheduler;
+import filters.colortransformation.GreyscaleTransformationMatrix;
+import filters.colortransformation.SepiaTransformation;
+import filters.colortransformation.greyscale.RedComponent;
+import filters.intensitytransformation.BrightenTransformation;
+import filters.intensitytransformation.DarkenTransformation;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import model.ImageProcessorTextInstance;
+import model.graph.Histogram;
+import model.graph.Line;
+import model.imaging.Image;
+import model.imaging.PackedColor;
+import model.imaging.PixelImage;
+import org.junit.Test;
+
+/**
+ * Testing class for ColorPipeline and the fusing of commands in ImageProcessorTextInstance.
+ */
+public class ColorPipelineTest {
+
+  // a random image that covers every channel value
+  private static PixelImage randomImage() {
+    Random random = new Random(11);
+    int[] raster = new int[40 * 30];
+    for (int i = 0; i < raster.length; i++) {
+      raster[i] = random.nextInt(1 << 24);
+    }
+    return new Image(40, 30, raster);
+  }
+
+  // composing lookup tables gives the same result as applying them in turn
+  @Test
+  public void testLookupTableThen() {
+    LookupTable first = LookupTable.map(value -> value * 2);
+    LookupTable second = LookupTable.select(LookupTable.GREEN);
+    LookupTable third = LookupTable.map(value -> value - 30);
+    LookupTable composed = first.then(second).then(third);
+    Random random = new Random(5);
+    for (int i = 0; i < 1000; i++) {
+      int rgb = random.nextInt(1 << 24);
+      assertEquals(third.apply(second.apply(first.apply(rgb))), composed.apply(rgb));
+    }
+  }
+
+  // consecutive lookup tables become one stage, other operations stay separate
+  @Test
+  public void testStageCount() {
+    ColorPipeline pipeline = ColorPipeline.of(new BrightenTransformation().pointOperation(10))
+            .then(new RedComponent().pointOperation())
+            .then(new DarkenTransformation().pointOperation(5));
+    assertEquals(1, pipeline.getStageCount());
+    pipeline = pipeline.then(new SepiaTransformation().pointOperation())
+            .then(new BrightenTransformation().pointOperation(3));
+    assertEquals(3, pipeline.getStageCount());
+  }
+
+  // a pipeline gives the same image as applying every transformation one image at a time
+  @Test
+  public void testMatchesSequential() {
+    PixelImage image = randomImage();
+    PixelImage expected = new BrightenTransformation().applyTransformation(image, 40);
+    expected = new SepiaTransformation().transform(expected);
+    expected = new GreyscaleTransformationMatrix().transform(expected);
+    expected = new DarkenTransformation().applyTransformation(expected, 25);
+    expected = new RedComponent().applyColorTransformation(expected);
+
+    ColorPipeline pipeline = ColorPipeline.of(new BrightenTransformation().pointOperation(40))
+            .then(new SepiaTransformation().pointOperation())
+            .then(new GreyscaleTransformationMatrix().pointOperation())
+            .then(new DarkenTransformation().pointOperation(25))
+            .then(new RedComponent().pointOperation());
+    assertArrayEquals(expected.copyRaster(), pipeline.apply(image));
+  }
+
+  // chained commands in a text session save the same image as running them one at a time
+  @Test
+  public void testTextInstanceFusion() throws IOException {
+    File source = File.createTempFile("pipeline", ".ppm");
+    File saved = File.createTempFile("pipeline-out", ".ppm");
+    File middle = File.createTempFile("pipeline-middle", ".ppm");
+    source.deleteOnExit();
+    saved.deleteOnExit();
+    middle.deleteOnExit();
+    PixelImage image = randomImage();
+    image.saveImageAsPPM(source.getPath());
+
+    ImageProcessorTextInstance instance = new ImageProcessorTextInstance();
+    instance.load(source.getPath(), "img");
+    instance.brighten(30, "img", "a");
+    instance.sepia("a", "b");
+    instance.red("b", "c");
+    instance.save(saved.getPath(), "c");
+    instance.save(middle.getPath(), "a");
+
+    PixelImage brightened = new BrightenTransformation().applyTransformation(image, 30);
+    PixelImage expected = new RedComponent().applyColorTransformation(
+            new SepiaTransformation().transform(brightened));
+    assertArrayEquals(expected.copyRaster(),
+            new PPMFileReader().readImageFromFile(saved.getPath()).copyRaster());
+    assertArrayEquals(brightened.copyRaster(),
+            new PPMFileReader().readImageFromFile(middle.getPath()).copyRaster());
+  }
+
+  // chaining onto an image that does not exist fails straight away
+  @Test(expected = IllegalArgumentException.class)
+  public void testChainMissingImage() {
+    new ImageProcessorTextInstance().sepia("missing", "new");
+  }
+
+  // the histogram counted during a pass is the same as one counted from the result
+  @Test
+  public void testHistogramWhileApplying() {
+    Random random = new Random(13);
+    int[] raster = new int[300 * 200];
+    for (int i = 0; i < raster.length; i++) {
+      raster[i] = random.nextInt(1 << 24);
+    }
+    PixelImage image = new Image(300, 200, raster);
+    ColorPipeline[] pipelines = {
+        ColorPipeline.of(new BrightenTransformation().pointOperation(10)),
+        ColorPipeline.of(new BrightenTransformation().pointOperation(10))
+            .then(new SepiaTransformation().pointOperation())};
+    int parallelism = RowScheduler.getParallelism();
+    try {
+      RowScheduler.setParallelism(4);
+      for (ColorPipeline pipeline : pipelines) {
+        Histogram counted = new Histogram();
+        int[] result = pipeline.apply(image, counted);
+        List<Line> expected = new Histogram(result).getLines();
+        List<Line> actual = Image.adopt(300, 200, result, counted).getLines();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+          assertEquals(expected.get(i).getStart(), actual.get(i).getStart());
+          assertEquals(expected.get(i).getEnd(), actual.get(i).getEnd());
+        }
+      }
+    } finally {
+      RowScheduler.setParallelism(parallelism);
+    }
+  }
+
+  // an image only counts its histogram once, when it is first asked for
+  @Test
+  public void testHistogramIsCached() {
+    PixelImage image = randomImage();
+    assertSame(image.getHistogram(), image.getHistogram());
+    Histogram histogram = new Histogram();
+    assertSame(histogram, Image.adopt(1, 1, new int[1], histogram).getHistogram());
+  }
+}
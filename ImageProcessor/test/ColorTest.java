@@ -1,8 +1,15 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import filters.colortransformation.greyscale.RedComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import model.imagegenerating.ImageCreator;
+import model.imaging.PixelImage;
+
 import model.imaging.Color;
 import model.imaging.IColor;
 import org.junit.Before;
@@ -310,4 +317,47 @@ public class ColorTest {
     assertNotEquals(this.blue.hashCode(), this.white.hashCode());
   }
 
-}
\ No newline at end of file
+  /*
+        ------------------
+       | Color.of Tests   |
+        ------------------
+  */
+
+  // of gives a color equal to the constructor
+  @Test
+  public void testOfEqualsConstructor() {
+    assertEquals(this.red, Color.of(255, 0, 0));
+    assertEquals(new Color(12, 200, 7), Color.of(12, 200, 7));
+  }
+
+  // greys are always the same instance
+  @Test
+  public void testOfSharesGreys() {
+    for (int i = 0; i < 256; i++) {
+      assertSame(Color.of(i, i, i), Color.of(i, i, i));
+    }
+  }
+
+  // a recently used color is reused
+  @Test
+  public void testOfSharesRecentColor() {
+    assertSame(Color.of(10, 20, 30), Color.of(10, 20, 30));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOfOutOfRange() {
+    Color.of(0, 256, 0);
+  }
+
+  // every pixel of a greyscale image shares its color with the other pixels of the same shade
+  @Test
+  public void testGreyscalePixelsShareColors() {
+    PixelImage image = new RedComponent().applyColorTransformation(new ImageCreator(4, 4,
+        new ArrayList<>(Arrays.asList(new Color(200, 1, 2), new Color(50, 3, 4))))
+        .generateImage());
+    assertSame(image.getPixels().get(0).get(0).getColor(),
+        image.getPixels().get(1).get(1).getColor());
+    assertSame(image.getPixels().get(0).get(1).getColor(),
+        image.getPixels().get(3).get(2).getColor());
+  }
+}
@@ -39,6 +39,15 @@ public class ControllerMock implements ImageProcessorController, IViewListener,
     }
   }
 
+  @Override
+  public void handleSaveImageEvent(String fileName, String fileType, int setting) {
+    try {
+      this.log.append("handleSaveImageEvent");
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
   @Override
   public void handleLoadImageEvent(String fileName, String fileType, String layerName) {
     try {
@@ -57,6 +66,24 @@ public class ControllerMock implements ImageProcessorController, IViewListener,
     }
   }
 
+  @Override
+  public void handleSaveProjectEvent(String fileName) {
+    try {
+      this.log.append("handleSaveProjectEvent");
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Override
+  public void handleOpenProjectEvent(String fileName) {
+    try {
+      this.log.append("handleOpenProjectEvent");
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
 
   @Override
   public void handleBlurEvent() {
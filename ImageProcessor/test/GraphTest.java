@@ -1,16 +1,27 @@
+import filters.RowScheduler;
 import java.awt.Color;
+import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import model.MultipleImageProcessorInstance;
 import model.graph.Histogram;
 import model.graph.Line;
 import model.graph.Position2D;
 import model.imaging.IColor;
+import model.imaging.Image;
+import model.imaging.PackedColor;
+import model.imaging.PixelImage;
 import model.imaging.Posn;
 import model.imaging.pixel.IPixel;
 import model.imaging.pixel.PixelImpl;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 /**
  * A test class that ensures that a histogram can b e created correctly.
@@ -63,5 +74,112 @@ public class GraphTest {
       assertEquals(expected.get(i).color, actual.get(i).color);
     }
   }
-}
 
+  // the packed and image constructors count large images in bands, and must count every pixel
+  // once
+  @Test
+  public void testHistogramOfRaster() {
+    int width = 300;
+    int height = 250;
+    int[] raster = new int[width * height];
+    int[][] expected = new int[4][256];
+    Random random = new Random(3);
+    for (int i = 0; i < raster.length; i++) {
+      int red = random.nextInt(256);
+      int green = random.nextInt(256);
+      int blue = random.nextInt(256);
+      raster[i] = PackedColor.pack(red, green, blue);
+      expected[0][red]++;
+      expected[1][green]++;
+      expected[2][blue]++;
+      expected[3][(red + green + blue) / 3]++;
+    }
+    int parallelism = RowScheduler.getParallelism();
+    try {
+      RowScheduler.setParallelism(4);
+      assertBins(expected, new Histogram(raster).getLines());
+      assertBins(expected, new Histogram(new Image(width, height, raster)).getLines());
+    } finally {
+      RowScheduler.setParallelism(parallelism);
+    }
+  }
+
+  private static void assertBins(int[][] expected, List<Line> lines) {
+    assertEquals(255 * 4, lines.size());
+    for (int i = 0; i < 255; i++) {
+      for (int channel = 0; channel < 4; channel++) {
+        Line line = lines.get(i * 4 + channel);
+        assertEquals(new Position2D(i, expected[channel][i]), line.getStart());
+        assertEquals(new Position2D(i + 1, expected[channel][i + 1]), line.getEnd());
+      }
+    }
+  }
+
+  // replacing a region gives the same histogram as counting the new image
+  @Test
+  public void testReplaceRegion() {
+    int[] raster = new int[60 * 40];
+    Random random = new Random(9);
+    for (int i = 0; i < raster.length; i++) {
+      raster[i] = random.nextInt(1 << 24);
+    }
+    Image before = new Image(60, 40, raster);
+    for (int y = 10; y < 25; y++) {
+      for (int x = 5; x < 17; x++) {
+        raster[y * 60 + x] = random.nextInt(1 << 24);
+      }
+    }
+    Image after = new Image(60, 40, raster);
+    Histogram replaced = before.getHistogram().replace(before, after,
+        new Rectangle(5, 10, 12, 15));
+    assertLines(after.getLines(), replaced.getLines());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReplaceOutside() {
+    Image image = new Image(4, 4, new int[16]);
+    image.getHistogram().replace(image, image, new Rectangle(2, 2, 3, 1));
+  }
+
+  // the model updates a layer's histogram from the region it is told changed
+  @Test
+  public void testModelReplaceRegion() {
+    MultipleImageProcessorInstance model = new MultipleImageProcessorInstance();
+    int[] raster = new int[8 * 8];
+    model.addImage("layer", new Image(8, 8, raster));
+    Histogram first = model.getHistogram("layer");
+    raster[3 * 8 + 2] = 0xFFFFFF;
+    Image edited = new Image(8, 8, raster);
+    model.replaceImage("layer", edited, new Rectangle(2, 3, 1, 1));
+    assertNotSame(first, model.getHistogram("layer"));
+    assertNotSame(edited.getHistogram(), model.getHistogram("layer"));
+    assertLines(edited.getLines(), model.getHistogram("layer").getLines());
+
+    // without a known histogram the new image's own is used
+    model.replaceImage("layer", new Image(8, 8, new int[64]));
+    model.replaceImage("layer", edited, new Rectangle(0, 0, 8, 8));
+    assertSame(edited.getHistogram(), model.getHistogram("layer"));
+  }
+
+  // replacing every layer forgets the histograms of the old layers
+  @Test
+  public void testModelAddMultipleImages() {
+    MultipleImageProcessorInstance model = new MultipleImageProcessorInstance();
+    model.addImage("layer", new Image(2, 2, new int[4]));
+    model.getHistogram("layer");
+    Image replacement = new Image(2, 2, new int[]{0xFFFFFF, 0xFFFFFF, 0xFFFFFF, 0xFFFFFF});
+    Map<String, PixelImage> layers = new HashMap<>();
+    layers.put("layer", replacement);
+    model.addMultipleImages(layers, new ArrayList<>());
+    assertSame(replacement.getHistogram(), model.getHistogram("layer"));
+  }
+
+  private static void assertLines(List<Line> expected, List<Line> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getStart(), actual.get(i).getStart());
+      assertEquals(expected.get(i).getEnd(), actual.get(i).getEnd());
+      assertEquals(expected.get(i).color, actual.get(i).color);
+    }
+  }
+}
@@ -1,15 +1,20 @@
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import controller.filereading.DecodeOptions;
 import controller.filereading.IFileReader;
 import controller.filereading.ImageIOFileReader;
+import controller.filereading.ImageInfo;
 import controller.filewriting.JPEGImageIOWriter;
 import controller.filewriting.PNGImageIOWriter;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 
 import model.imagegenerating.ImageCreator;
 import model.imaging.Color;
+import model.imaging.Image;
 import model.imaging.PixelImage;
 import org.junit.Before;
 import org.junit.Test;
@@ -26,6 +31,19 @@ public class ImageIOFileReaderTest {
     reader = new ImageIOFileReader();
   }
 
+  /**
+   * Creates an empty temporary file for a test to write to, deleted when the tests finish.
+   *
+   * @param suffix the extension of the file.
+   * @return the path of the file.
+   * @throws IOException If the file can't be created.
+   */
+  private static String tempFile(String suffix) throws IOException {
+    File file = File.createTempFile("written", suffix);
+    file.deleteOnExit();
+    return file.getPath();
+  }
+
   // tests exception for null filename
   @Test(expected = IllegalArgumentException.class)
   public void nullFileName() throws IOException {
@@ -47,11 +65,12 @@ public class ImageIOFileReaderTest {
   //test reading in a png file
   @Test
   public void goodPNGFileTest() throws IOException {
+    String path = tempFile(".png");
     new PNGImageIOWriter()
-        .writeFile("res\\checkerboard.png", new ImageCreator(2, 2, new ArrayList<>(
+        .writeFile(path, new ImageCreator(2, 2, new ArrayList<>(
             Arrays.asList(new Color(255, 0, 0), new Color(255, 255, 255))))
             .generateImage());
-    PixelImage board = reader.readImageFromFile("res\\checkerboard.png");
+    PixelImage board = reader.readImageFromFile(path);
     assertEquals(2, board.getPixels().size());
     assertEquals(2, board.getPixels().get(0).size());
     assertEquals(new Color(255, 0, 0), board.getPixels().get(0).get(0).getColor());
@@ -60,13 +79,53 @@ public class ImageIOFileReaderTest {
   //test reading in a jpeg file, Colors change due tp jpeg compression.
   @Test
   public void goodJPEGFileTest() throws IOException {
+    String path = tempFile(".jpeg");
     new JPEGImageIOWriter()
-        .writeFile("res\\checkerboard.jpeg", new ImageCreator(2, 2, new ArrayList<>(
+        .writeFile(path, new ImageCreator(2, 2, new ArrayList<>(
             Arrays.asList(new Color(255, 0, 0), new Color(255, 255, 255))))
             .generateImage());
-    PixelImage board = reader.readImageFromFile("res\\checkerboard.jpeg");
+    PixelImage board = reader.readImageFromFile(path);
     assertEquals(2, board.getPixels().size());
     assertEquals(2, board.getPixels().get(0).size());
     assertEquals(new Color(161, 35, 36), board.getPixels().get(0).get(0).getColor());
   }
-}
\ No newline at end of file
+
+  // probing reads the size and format from the header of the file
+  @Test
+  public void probeTest() throws IOException {
+    File file = File.createTempFile("probe", ".png");
+    file.deleteOnExit();
+    new PNGImageIOWriter()
+        .writeFile(file.getPath(), new ImageCreator(2, 3, new ArrayList<>(
+            Arrays.asList(new Color(255, 0, 0), new Color(255, 255, 255))))
+            .generateImage());
+    ImageInfo info = reader.probe(file.getPath());
+    assertEquals(3, info.getWidth());
+    assertEquals(2, info.getHeight());
+    assertEquals("png", info.getFormat());
+    assertEquals(8, info.getBitDepth());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void probeBadFileType() throws IOException {
+    reader.probe("res\\bug.ppm");
+  }
+
+  // ImageIO decodes only the region, keeping every n-th pixel of it
+  @Test
+  public void regionAndSubsamplingTest() throws IOException {
+    int[] raster = new int[7 * 5];
+    for (int i = 0; i < raster.length; i++) {
+      raster[i] = i * 0x050301;
+    }
+    File file = File.createTempFile("region", ".png");
+    file.deleteOnExit();
+    new PNGImageIOWriter().writeFile(file.getPath(), new Image(7, 5, raster));
+    PixelImage part = reader.readImageFromFile(file.getPath(),
+        DecodeOptions.full().withRegion(2, 1, 10, 3).withSubsampling(2));
+    assertEquals(3, part.getWidth());
+    assertEquals(2, part.getHeight());
+    assertArrayEquals(new int[]{raster[9], raster[11], raster[13], raster[23], raster[25],
+        raster[27]}, part.copyRaster());
+  }
+}
@@ -1,3 +1,4 @@
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
@@ -6,6 +7,7 @@ import java.util.Arrays;
 
 import model.imagegenerating.ImageCreator;
 import model.imaging.Color;
+import model.imaging.Image;
 import model.imaging.PixelImage;
 import org.junit.Test;
 
@@ -38,7 +40,78 @@ public class ImageImplTest {
             new Color(0, 255, 0)))).generateImage()));
   }
 
+  @Test
+  public void testDimensions() {
+    assertEquals(10, this.checkerboard.getWidth());
+    assertEquals(10, this.checkerboard.getHeight());
+  }
+
+  @Test
+  public void testGetRGB() {
+    assertEquals(0xFF0000, this.checkerboard.getRGB(0, 0));
+    assertEquals(0x00FF00, this.checkerboard.getRGB(1, 0));
+    assertEquals(0x00FF00, this.checkerboard.getRGB(0, 1));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetRGBOutOfBounds() {
+    this.checkerboard.getRGB(10, 0);
+  }
+
+  @Test
+  public void testGetRowReusesArray() {
+    int[] row = new int[10];
+    assertEquals(row, this.checkerboard.getRow(1, row));
+    assertEquals(0x00FF00, row[0]);
+    assertEquals(0xFF0000, row[1]);
+  }
+
+  // the raster is copied in and out of the image
+  @Test
+  public void testRasterIsCopied() {
+    int[] raster = new int[]{0x010203, 0x040506};
+    PixelImage image = new Image(2, 1, raster);
+    raster[0] = 0;
+    assertArrayEquals(new int[]{0x010203, 0x040506}, image.copyRaster());
+    image.copyRaster()[1] = 0;
+    assertEquals(0x040506, image.getRGB(1, 0));
+  }
+
+  // the pixels view agrees with the raster
+  @Test
+  public void testPixelsMatchRaster() {
+    PixelImage image = new Image(2, 1, new int[]{0x010203, 0x040506});
+    assertEquals(new Color(4, 5, 6), image.getPixels().get(0).get(1).getColor());
+    assertEquals(1, image.getPixels().get(0).get(1).getPosn().getX());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRasterWrongSize() {
+    new Image(2, 2, new int[3]);
+  }
 
+  // adopting a raster does not copy it
+  @Test
+  public void testAdoptSharesRaster() {
+    int[] raster = new int[]{0x010203, 0x040506};
+    PixelImage image = Image.adopt(2, 1, raster);
+    raster[0] = 0x0A0B0C;
+    assertEquals(0x0A0B0C, image.getRGB(0, 0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAdoptWrongSize() {
+    Image.adopt(3, 1, new int[2]);
+  }
 
+  // the pixels are a read only view
+  @Test(expected = UnsupportedOperationException.class)
+  public void testPixelsReadOnly() {
+    this.checkerboard.getPixels().get(0).remove(0);
+  }
 
-}
\ No newline at end of file
+  @Test(expected = UnsupportedOperationException.class)
+  public void testPixelRowsReadOnly() {
+    this.checkerboard.getPixels().clear();
+  }
+}
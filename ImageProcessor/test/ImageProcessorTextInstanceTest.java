@@ -0,0 +1,185 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import controller.filereading.ImageIOFileReader;
+import controller.filereading.PPMFileReader;
+import controller.filewriting.PPMFormat;
+import controller.filewriting.SaveOptions;
+import filters.FilterBlur;
+import filters.SharpenFilter;
+import filters.colortransformation.SepiaTransformation;
+import filters.colortransformation.greyscale.BlueComponent;
+import filters.colortransformation.greyscale.RedComponent;
+import filters.flippingtransformation.FlipHorizontal;
+import filters.intensitytransformation.DarkenTransformation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import model.ImageProcessorTextInstance;
+import model.imaging.Image;
+import model.imaging.PixelImage;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Testing class for the deferred evaluation of ImageProcessorTextInstance.
+ */
+public class ImageProcessorTextInstanceTest {
+
+  private PixelImage image;
+  private ImageProcessorTextInstance instance;
+
+  @Before
+  public void setUp() throws IOException {
+    Random random = new Random(17);
+    int[] raster = new int[23 * 19];
+    for (int i = 0; i < raster.length; i++) {
+      raster[i] = random.nextInt(1 << 24);
+    }
+    image = new Image(23, 19, raster);
+    File source = File.createTempFile("session", ".ppm");
+    source.deleteOnExit();
+    image.saveImageAsPPM(source.getPath());
+    instance = new ImageProcessorTextInstance();
+    instance.load(source.getPath(), "img");
+  }
+
+  // saves the image of the given name and reads it back in
+  private PixelImage saved(String modelName) throws IOException {
+    File file = File.createTempFile("session-out", ".ppm");
+    file.deleteOnExit();
+    instance.save(file.getPath(), modelName);
+    return new PPMFileReader().readImageFromFile(file.getPath());
+  }
+
+  // a mix of point operations and filters gives the same image as running them eagerly
+  @Test
+  public void testMixedCommands() throws IOException {
+    instance.sepia("img", "a");
+    instance.horizontalFlip("a", "b");
+    instance.darken(20, "b", "c");
+    instance.blur("c", "d");
+    instance.blue("d", "e");
+
+    PixelImage expected = new SepiaTransformation().transform(image);
+    expected = new FlipHorizontal().flipTransform(expected);
+    expected = new DarkenTransformation().applyTransformation(expected, 20);
+    expected = new FilterBlur().transform(expected);
+    expected = new BlueComponent().applyColorTransformation(expected);
+    assertArrayEquals(expected.copyRaster(), saved("e").copyRaster());
+  }
+
+  // overwriting a name does not change images that were made from it
+  @Test
+  public void testOverwrittenInput() throws IOException {
+    instance.sharpen("img", "a");
+    instance.blur("a", "b");
+    instance.sepia("img", "a");
+
+    PixelImage expected = new FilterBlur().transform(new SharpenFilter().transform(image));
+    assertArrayEquals(expected.copyRaster(), saved("b").copyRaster());
+    assertArrayEquals(new SepiaTransformation().transform(image).copyRaster(),
+            saved("a").copyRaster());
+  }
+
+  // an image can be used after it has been materialized, and by more than one command
+  @Test
+  public void testMaterializeAndShare() throws IOException {
+    instance.horizontalFlip("img", "a");
+    instance.materialize("a");
+    instance.blur("a", "b");
+    instance.sepia("a", "c");
+
+    PixelImage flipped = new FlipHorizontal().flipTransform(image);
+    assertArrayEquals(new FilterBlur().transform(flipped).copyRaster(), saved("b").copyRaster());
+    assertArrayEquals(new SepiaTransformation().transform(flipped).copyRaster(),
+            saved("c").copyRaster());
+    assertArrayEquals(flipped.copyRaster(), saved("a").copyRaster());
+  }
+
+  // an unnamed image shared by several commands is released as they are computed or dropped,
+  // without changing any of their images
+  @Test
+  public void testSharedInputReleased() throws IOException {
+    instance.sharpen("img", "a");
+    instance.blur("a", "b");
+    instance.sepia("a", "c");
+    instance.red("a", "d");
+    instance.darken(10, "img", "a");
+    instance.red("img", "d");
+    instance.materialize("b");
+
+    PixelImage sharpened = new SharpenFilter().transform(image);
+    assertArrayEquals(new SepiaTransformation().transform(sharpened).copyRaster(),
+            saved("c").copyRaster());
+    assertArrayEquals(new FilterBlur().transform(sharpened).copyRaster(),
+            saved("b").copyRaster());
+    assertArrayEquals(new RedComponent().applyColorTransformation(image).copyRaster(),
+            saved("d").copyRaster());
+    assertArrayEquals(new DarkenTransformation().applyTransformation(image, 10).copyRaster(),
+            saved("a").copyRaster());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaterializeMissing() {
+    instance.materialize("missing");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBlurMissing() {
+    instance.blur("missing", "new");
+  }
+
+  // invalid arguments are reported when the command is given, not when the image is saved
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadSigma() {
+    instance.gaussian(-1, "img", "new");
+  }
+
+  // a binary format can be chosen when saving, and reads back to the same image
+  @Test
+  public void testSaveBinary() throws IOException {
+    File file = File.createTempFile("session-binary", ".ppm");
+    file.deleteOnExit();
+    instance.save(file.getPath(), "img", PPMFormat.BINARY);
+    assertEquals('6', Files.readAllBytes(file.toPath())[1]);
+    assertArrayEquals(image.copyRaster(),
+            new PPMFileReader().readImageFromFile(file.getPath()).copyRaster());
+  }
+
+  // pgm files are saved as binary greyscale files and can be loaded again
+  @Test
+  public void testSavePgm() throws IOException {
+    File file = File.createTempFile("session-grey", ".pgm");
+    file.deleteOnExit();
+    instance.red("img", "red");
+    instance.save(file.getPath(), "red");
+    assertEquals('5', Files.readAllBytes(file.toPath())[1]);
+    instance.load(file.getPath(), "loaded");
+    assertArrayEquals(new RedComponent().applyColorTransformation(image).copyRaster(),
+            saved("loaded").copyRaster());
+  }
+
+  // formats only apply to ppm and pgm files
+  @Test(expected = IllegalArgumentException.class)
+  public void testFormatForPng() throws IOException {
+    instance.save("out.png", "img", PPMFormat.BINARY);
+  }
+
+  // png settings are used for png files
+  @Test
+  public void testSavePngCompression() throws IOException {
+    File file = File.createTempFile("session-level", ".png");
+    file.deleteOnExit();
+    instance.save(file.getPath(), "img", SaveOptions.defaults().withCompressionLevel(9));
+    assertArrayEquals(image.copyRaster(),
+            new ImageIOFileReader().readImageFromFile(file.getPath()).copyRaster());
+  }
+
+  // jpeg settings only apply to jpeg files
+  @Test(expected = IllegalArgumentException.class)
+  public void testQualityForPpm() throws IOException {
+    instance.save("out.ppm", "img", SaveOptions.defaults().withQuality(0.5f));
+  }
+}
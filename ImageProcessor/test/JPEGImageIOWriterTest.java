@@ -1,11 +1,15 @@
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.IOException;
 
 import controller.filereading.ImageIOFileReader;
 import controller.filewriting.IImageFileWriter;
 import controller.filewriting.JPEGImageIOWriter;
 import model.imaging.Color;
+import model.imaging.Image;
 import model.imaging.PixelImage;
 import model.imaging.Posn;
 import org.junit.Test;
@@ -23,9 +27,10 @@ public class JPEGImageIOWriterTest extends AbstractImageIOWriterTest {
   // tests writing to a jpeg file and reading it back in
   @Test
   public void testWritingToJPEG() throws IOException {
-    writer.writeFile("test\\testreaderfiles\\writtenJPEG.jpeg", testCheckerboard);
+    String path = tempFile(".jpeg");
+    writer.writeFile(path, testCheckerboard);
     PixelImage testImage = new ImageIOFileReader()
-        .readImageFromFile("test\\testreaderfiles\\writtenJPEG.jpeg");
+        .readImageFromFile(path);
     assertEquals(new Color(98, 99, 0), testImage.getPixels().get(0).get(0).getColor());
     assertEquals(new Color(148, 149, 22), testImage.getPixels().get(0).get(1).getColor());
     assertEquals(new Color(148, 149, 22), testImage.getPixels().get(0).get(1).getColor());
@@ -37,4 +42,31 @@ public class JPEGImageIOWriterTest extends AbstractImageIOWriterTest {
       }
     }
   }
-}
\ No newline at end of file
+
+  // lower qualities give smaller files, and progressive files read back to the same image
+  @Test
+  public void testQualityAndProgressive() throws IOException {
+    int[] raster = new int[64 * 64];
+    for (int i = 0; i < raster.length; i++) {
+      raster[i] = (i * 7919) & 0xFFFFFF;
+    }
+    PixelImage image = new Image(64, 64, raster);
+    File low = File.createTempFile("low", ".jpeg");
+    low.deleteOnExit();
+    File high = File.createTempFile("high", ".jpeg");
+    high.deleteOnExit();
+    File progressive = File.createTempFile("progressive", ".jpeg");
+    progressive.deleteOnExit();
+    new JPEGImageIOWriter(0.1f, false).writeFile(low.getPath(), image);
+    new JPEGImageIOWriter(0.95f, false).writeFile(high.getPath(), image);
+    new JPEGImageIOWriter(0.95f, true).writeFile(progressive.getPath(), image);
+    assertTrue(low.length() < high.length());
+    assertArrayEquals(new ImageIOFileReader().readImageFromFile(high.getPath()).copyRaster(),
+        new ImageIOFileReader().readImageFromFile(progressive.getPath()).copyRaster());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadQuality() {
+    new JPEGImageIOWriter(1.5f, false);
+  }
+}
@@ -0,0 +1,161 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import filters.FilterBlur;
+import filters.GaussianBlurFilter;
+import filters.IKernel;
+import filters.Kernel;
+import model.imaging.Image;
+import model.imaging.PixelImage;
+import org.junit.Test;
+
+/**
+ * Testing class for Kernel and the separable filters that use it.
+ */
+public class KernelTest {
+
+  // the blur kernel is found to be separable
+  @Test
+  public void testBlurKernelSeparable() {
+    IKernel kernel = new Kernel(3, 3, new double[][]{{0.0625, 0.125, 0.0625},
+        {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}});
+    assertTrue(kernel.isSeparable());
+    double[] row = kernel.getRowVector();
+    double[] column = kernel.getColumnVector();
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 3; j++) {
+        assertEquals(kernel.getValueAt(j, i), column[i] * row[j], 1e-12);
+      }
+    }
+  }
+
+  // the sharpen kernel is not separable
+  @Test
+  public void testSharpenKernelNotSeparable() {
+    IKernel kernel = new Kernel(3, 3, new double[][]{{-0.125, -0.125, -0.125},
+        {-0.125, 1, -0.125}, {-0.125, -0.125, -0.125}});
+    assertFalse(kernel.isSeparable());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRowVectorNotSeparable() {
+    new Kernel(3, 3, new double[][]{{0, 1, 0}, {1, 1, 1}, {0, 1, 0}}).getRowVector();
+  }
+
+  // a kernel made from two vectors holds their outer product
+  @Test
+  public void testKernelFromVectors() {
+    IKernel kernel = new Kernel(new double[]{1, 2, 1}, new double[]{0.5, 0.25, 0.5});
+    assertTrue(kernel.isSeparable());
+    assertEquals(3, kernel.getWidth());
+    assertEquals(3, kernel.getHeight());
+    assertEquals(0.5, kernel.getValueAt(1, 1), 1e-12);
+    assertArrayEquals(new double[]{1, 2, 1}, kernel.getColumnVector(), 1e-12);
+  }
+
+  // blurring a single bright pixel spreads it out with the kernel weights
+  @Test
+  public void testBlurImpulse() {
+    int[] raster = new int[25];
+    raster[12] = 0xC8C8C8;
+    PixelImage blurred = new FilterBlur().transform(new Image(5, 5, raster));
+    assertEquals(50, blurred.getRGB(2, 2) & 0xFF);
+    assertEquals(25, blurred.getRGB(1, 2) & 0xFF);
+    assertEquals(12, blurred.getRGB(1, 1) & 0xFF);
+    assertEquals(0, blurred.getRGB(0, 0) & 0xFF);
+  }
+
+  // a gaussian blur of a flat image does not change the middle of the image
+  @Test
+  public void testGaussianFlatImage() {
+    int[] raster = new int[41 * 41];
+    java.util.Arrays.fill(raster, 0x646464);
+    PixelImage blurred = new GaussianBlurFilter(3).transform(new Image(41, 41, raster));
+    assertEquals(0x646464, blurred.getRGB(20, 20));
+  }
+
+  // the flattened values are in row major order
+  @Test
+  public void testFlattenedValues() {
+    IKernel kernel = new Kernel(3, 2, new double[][]{{1, 2, 3}, {4, 5, 6}});
+    assertArrayEquals(new double[]{1, 2, 3, 4, 5, 6}, kernel.getFlattenedValues(), 0);
+  }
+
+  // missing entries of a ragged kernel are flattened as 0
+  @Test
+  public void testFlattenedRagged() {
+    IKernel kernel = new Kernel(3, 2, new double[][]{{1, 2}, {4, 5, 6}});
+    assertArrayEquals(new double[]{1, 2, 0, 4, 5, 6}, kernel.getFlattenedValues(), 0);
+  }
+
+  // the factors of a kernel larger than its matrix have the declared width and height
+  @Test
+  public void testFactorsOfPaddedKernel() {
+    IKernel kernel = new Kernel(5, 4, new double[][]{{1, 2, 1}, {2, 4, 2}, {1, 2, 1}});
+    assertTrue(kernel.isSeparable());
+    assertEquals(5, kernel.getRowVector().length);
+    assertEquals(4, kernel.getColumnVector().length);
+    double[] flat = kernel.getFlattenedValues();
+    double[] row = kernel.getRowVector();
+    double[] column = kernel.getColumnVector();
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 5; j++) {
+        assertEquals(flat[i * 5 + j], column[i] * row[j], 1e-12);
+      }
+    }
+  }
+
+  // changing the matrix given to or taken from a kernel does not change the kernel
+  @Test
+  public void testValuesCopied() {
+    double[][] values = {{1, 2, 1}, {2, 4, 2}, {1, 2, 1}};
+    IKernel kernel = new Kernel(3, 3, values);
+    values[1][1] = 100;
+    kernel.getValues()[0][0] = 100;
+    assertEquals(4, kernel.getValueAt(1, 1), 0);
+    assertEquals(1, kernel.getValues()[0][0], 0);
+    assertTrue(kernel.isSeparable());
+  }
+
+  // a kernel that only gives its size and values is flattened from them and is not separable
+  @Test
+  public void testDefaultMethods() {
+    IKernel kernel = new IKernel() {
+      @Override
+      public int getHeight() {
+        return 2;
+      }
+
+      @Override
+      public int getWidth() {
+        return 3;
+      }
+
+      @Override
+      public double[][] getValues() {
+        return new double[][]{{1, 2, 3}, {4, 5, 6}};
+      }
+
+      @Override
+      public double getValueAt(int x, int y) {
+        return this.getValues()[y][x];
+      }
+    };
+    assertArrayEquals(new double[]{1, 2, 3, 4, 5, 6}, kernel.getFlattenedValues(), 0);
+    assertFalse(kernel.isSeparable());
+    try {
+      kernel.getRowVector();
+      fail("Expected the kernel not to be separable.");
+    } catch (IllegalStateException e) {
+      assertEquals("Kernel is not separable.", e.getMessage());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGaussianBadSigma() {
+    new GaussianBlurFilter(0);
+  }
+}
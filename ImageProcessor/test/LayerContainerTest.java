@@ -0,0 +1,268 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import controller.filereading.LayerContainerReader;
+import controller.filewriting.LayerContainerWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import model.ILayerSource;
+import model.MultipleImageProcessorInstance;
+import model.imaging.Image;
+import model.imaging.PixelImage;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Testing class for LayerContainerWriter, LayerContainerReader and the lazy layers of
+ * MultipleImageProcessorInstance.
+ */
+public class LayerContainerTest {
+
+  private File file;
+  private Map<String, PixelImage> layers;
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile("project", ".layers");
+    file.deleteOnExit();
+    Random random = new Random(5);
+    layers = new LinkedHashMap<>();
+    int[] noise = new int[37 * 23];
+    for (int i = 0; i < noise.length; i++) {
+      noise[i] = random.nextInt(1 << 24);
+    }
+    layers.put("noise", new Image(37, 23, noise));
+    int[] gradient = new int[64 * 48];
+    for (int i = 0; i < gradient.length; i++) {
+      gradient[i] = ((i % 64) * 4) << 16 | ((i / 64) * 5) << 8 | 0x80;
+    }
+    layers.put("gradient", new Image(64, 48, gradient));
+    layers.put("empty", new Image(0, 0, new int[0]));
+  }
+
+  // every layer reads back exactly, in order, with its visibility
+  @Test
+  public void testRoundTrip() throws IOException {
+    new LayerContainerWriter().writeFile(file.getPath(), layers,
+        Collections.singletonList("gradient"));
+    LayerContainerReader reader = LayerContainerReader.open(file.getPath());
+    assertEquals(Arrays.asList("noise", "gradient", "empty"), reader.getLayerIds());
+    assertEquals(Collections.singletonList("gradient"), reader.getHiddenIds());
+    for (Map.Entry<String, PixelImage> layer : layers.entrySet()) {
+      PixelImage read = reader.readLayer(layer.getKey());
+      assertEquals(layer.getValue().getWidth(), read.getWidth());
+      assertEquals(layer.getValue().getHeight(), read.getHeight());
+      assertArrayEquals(layer.getValue().copyRaster(), read.copyRaster());
+    }
+  }
+
+  // every compression level gives the same image back
+  @Test
+  public void testLevels() throws IOException {
+    for (int level = 0; level <= 9; level++) {
+      new LayerContainerWriter(level).writeFile(file.getPath(), layers, new ArrayList<>());
+      assertArrayEquals(layers.get("gradient").copyRaster(),
+          LayerContainerReader.open(file.getPath()).readLayer("gradient").copyRaster());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadLevel() {
+    new LayerContainerWriter(10);
+  }
+
+  // a changed byte in a raster is caught by its checksum
+  @Test
+  public void testCorruptLayer() throws IOException {
+    new LayerContainerWriter().writeFile(file.getPath(), layers, new ArrayList<>());
+    try (RandomAccessFile data = new RandomAccessFile(file, "rw")) {
+      data.seek(data.length() - 40);
+      int value = data.read();
+      data.seek(data.length() - 40);
+      data.write(value ^ 0xFF);
+    }
+    LayerContainerReader reader = LayerContainerReader.open(file.getPath());
+    reader.readLayer("noise");
+    try {
+      reader.readLayer("gradient");
+      fail("Expected the corrupt layer to be rejected.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Layer gradient is corrupt.", e.getMessage());
+    }
+  }
+
+  // a file cut short is rejected when it is opened
+  @Test(expected = IllegalArgumentException.class)
+  public void testTruncatedFile() throws IOException {
+    new LayerContainerWriter().writeFile(file.getPath(), layers, new ArrayList<>());
+    try (RandomAccessFile data = new RandomAccessFile(file, "rw")) {
+      data.setLength(data.length() - 10);
+    }
+    LayerContainerReader.open(file.getPath());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotAContainer() throws IOException {
+    new Image(2, 2, new int[4]).saveImageAsPPM(file.getPath());
+    LayerContainerReader.open(file.getPath());
+  }
+
+  // layers are only read from the source when the model is asked for them
+  @Test
+  public void testLazyLayers() throws IOException {
+    new LayerContainerWriter().writeFile(file.getPath(), layers,
+        Collections.singletonList("empty"));
+    LayerContainerReader reader = LayerContainerReader.open(file.getPath());
+    List<String> reads = new ArrayList<>();
+    ILayerSource source = new ILayerSource() {
+      @Override
+      public List<String> getLayerIds() {
+        return reader.getLayerIds();
+      }
+
+      @Override
+      public List<String> getHiddenIds() {
+        return reader.getHiddenIds();
+      }
+
+      @Override
+      public PixelImage readLayer(String id) throws IOException {
+        reads.add(id);
+        return reader.readLayer(id);
+      }
+    };
+    MultipleImageProcessorInstance model = new MultipleImageProcessorInstance();
+    model.addImage("old", new Image(1, 1, new int[1]));
+    model.openLayers(source);
+    assertEquals(Arrays.asList("noise", "gradient", "empty"), model.getLayerIds());
+    assertEquals(Collections.singletonList("empty"), model.getVisibility());
+    assertEquals(Collections.emptyList(), reads);
+
+    assertArrayEquals(layers.get("gradient").copyRaster(),
+        model.getImage("gradient").copyRaster());
+    model.getImage("gradient");
+    assertEquals(Collections.singletonList("gradient"), reads);
+
+    // a layer replaced or removed before it is read is never read
+    model.replaceImage("noise", new Image(1, 1, new int[1]));
+    model.removeImage("empty");
+    model.getLayers();
+    assertEquals(Collections.singletonList("gradient"), reads);
+  }
+
+  // unchanged layers are copied from the existing file without asking for their image
+  @Test
+  public void testIncrementalWrite() throws IOException {
+    LayerContainerWriter writer = new LayerContainerWriter();
+    writer.writeFile(file.getPath(), layers, new ArrayList<>());
+    List<String> asked = new ArrayList<>();
+    int[] changed = new int[64 * 48];
+    Arrays.fill(changed, 0x123456);
+    Map<String, PixelImage> next = new LinkedHashMap<>(layers);
+    next.put("gradient", new Image(64, 48, changed));
+    writer.writeFile(file.getPath(), new ArrayList<>(next.keySet()), id -> {
+      asked.add(id);
+      return next.get(id);
+    }, Collections.singletonList("noise"), Arrays.asList("noise", "empty"));
+    assertEquals(Collections.singletonList("gradient"), asked);
+    LayerContainerReader reader = LayerContainerReader.open(file.getPath());
+    assertEquals(Collections.singletonList("noise"), reader.getHiddenIds());
+    for (Map.Entry<String, PixelImage> layer : next.entrySet()) {
+      assertArrayEquals(layer.getValue().copyRaster(),
+          reader.readLayer(layer.getKey()).copyRaster());
+    }
+  }
+
+  // an unchanged layer is compressed again if the existing file doesn't hold a good copy of it
+  @Test
+  public void testIncrementalWriteFallsBack() throws IOException {
+    LayerContainerWriter writer = new LayerContainerWriter();
+    Map<String, PixelImage> first = new LinkedHashMap<>();
+    first.put("gradient", layers.get("gradient"));
+    first.put("noise", layers.get("noise"));
+    writer.writeFile(file.getPath(), first, new ArrayList<>());
+    // corrupt the last byte of the noise layer
+    try (RandomAccessFile data = new RandomAccessFile(file, "rw")) {
+      data.seek(data.length() - 1);
+      int value = data.read();
+      data.seek(data.length() - 1);
+      data.write(value ^ 0xFF);
+    }
+    List<String> asked = new ArrayList<>();
+    writer.writeFile(file.getPath(), new ArrayList<>(layers.keySet()), id -> {
+      asked.add(id);
+      return layers.get(id);
+    }, new ArrayList<>(), new ArrayList<>(layers.keySet()));
+    assertEquals(Arrays.asList("noise", "empty"), asked);
+    LayerContainerReader reader = LayerContainerReader.open(file.getPath());
+    for (Map.Entry<String, PixelImage> layer : layers.entrySet()) {
+      assertArrayEquals(layer.getValue().copyRaster(),
+          reader.readLayer(layer.getKey()).copyRaster());
+    }
+  }
+
+  // layers count as changed once added or replaced, until they are saved or opened
+  @Test
+  public void testChangedLayers() throws IOException {
+    MultipleImageProcessorInstance model = new MultipleImageProcessorInstance();
+    model.addImage("a", new Image(1, 1, new int[1]));
+    model.addImage("b", new Image(1, 1, new int[1]));
+    assertEquals(Arrays.asList("a", "b"), model.getChangedLayers());
+    model.markSaved();
+    assertEquals(Collections.emptyList(), model.getChangedLayers());
+    model.replaceImage("b", new Image(1, 1, new int[1]));
+    model.hideImage("a");
+    assertEquals(Collections.singletonList("b"), model.getChangedLayers());
+    model.removeImage("b");
+    assertEquals(Collections.emptyList(), model.getChangedLayers());
+
+    new LayerContainerWriter().writeFile(file.getPath(), layers, new ArrayList<>());
+    model.openLayers(LayerContainerReader.open(file.getPath()));
+    assertEquals(Collections.emptyList(), model.getChangedLayers());
+  }
+
+  // saving over the opened file keeps the layers that were never read readable
+  @Test
+  public void testSaveOverOpenedFile() throws IOException {
+    Map<String, PixelImage> first = new LinkedHashMap<>();
+    first.put("a", layers.get("gradient"));
+    first.put("b", layers.get("noise"));
+    LayerContainerWriter writer = new LayerContainerWriter();
+    writer.writeFile(file.getPath(), first, new ArrayList<>());
+    MultipleImageProcessorInstance model = new MultipleImageProcessorInstance();
+    model.openLayers(LayerContainerReader.open(file.getPath()));
+
+    int[] noise = new int[64 * 48];
+    Random random = new Random(8);
+    for (int i = 0; i < noise.length; i++) {
+      noise[i] = random.nextInt(1 << 24);
+    }
+    model.replaceImage("a", new Image(64, 48, noise));
+    writer.writeFile(file.getPath(), model.getLayerIds(), model::getImage, model.getVisibility(),
+        Collections.singletonList("b"));
+    model.rebindLayers(LayerContainerReader.open(file.getPath()));
+
+    assertArrayEquals(layers.get("noise").copyRaster(), model.getImage("b").copyRaster());
+    assertArrayEquals(noise, model.getImage("a").copyRaster());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRebindMissingLayer() throws IOException {
+    new LayerContainerWriter().writeFile(file.getPath(), layers, new ArrayList<>());
+    MultipleImageProcessorInstance model = new MultipleImageProcessorInstance();
+    model.openLayers(LayerContainerReader.open(file.getPath()));
+    Map<String, PixelImage> other = new LinkedHashMap<>();
+    other.put("noise", layers.get("noise"));
+    new LayerContainerWriter().writeFile(file.getPath(), other, new ArrayList<>());
+    model.rebindLayers(LayerContainerReader.open(file.getPath()));
+  }
+}
@@ -0,0 +1,92 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import filters.LookupTable;
+import filters.colortransformation.greyscale.BlueComponent;
+import filters.colortransformation.greyscale.GreenComponent;
+import filters.colortransformation.greyscale.RedComponent;
+import filters.intensitytransformation.BrightenTransformation;
+import filters.intensitytransformation.DarkenTransformation;
+import java.util.Random;
+import model.imaging.Image;
+import model.imaging.PackedColor;
+import model.imaging.PixelImage;
+import org.junit.Test;
+
+/**
+ * Testing class for LookupTable and the transformations that use it.
+ */
+public class LookupTableTest {
+
+  // a random image that covers every channel value
+  private static PixelImage randomImage() {
+    Random random = new Random(3);
+    int[] raster = new int[64 * 48];
+    for (int i = 0; i < raster.length; i++) {
+      raster[i] = random.nextInt(1 << 24);
+    }
+    return new Image(64, 48, raster);
+  }
+
+  // the mapping is applied to every channel and clamped
+  @Test
+  public void testMapClamps() {
+    LookupTable table = LookupTable.map(value -> value + 100);
+    assertEquals(PackedColor.pack(110, 255, 255), table.apply(PackedColor.pack(10, 155, 200)));
+    table = LookupTable.map(value -> value - 100);
+    assertEquals(PackedColor.pack(0, 55, 100), table.apply(PackedColor.pack(10, 155, 200)));
+  }
+
+  // selecting a channel copies it into every channel
+  @Test
+  public void testSelect() {
+    int rgb = PackedColor.pack(10, 155, 200);
+    assertEquals(PackedColor.pack(10, 10, 10), LookupTable.select(LookupTable.RED).apply(rgb));
+    assertEquals(PackedColor.pack(155, 155, 155),
+            LookupTable.select(LookupTable.GREEN).apply(rgb));
+    assertEquals(PackedColor.pack(200, 200, 200),
+            LookupTable.select(LookupTable.BLUE).apply(rgb));
+  }
+
+  // applying to an image matches applying to each pixel
+  @Test
+  public void testApplyImage() {
+    PixelImage image = randomImage();
+    LookupTable table = LookupTable.map(value -> 255 - value);
+    int[] raster = image.copyRaster();
+    int[] expected = new int[raster.length];
+    for (int i = 0; i < raster.length; i++) {
+      expected[i] = table.apply(raster[i]);
+    }
+    assertArrayEquals(expected, table.apply(image));
+  }
+
+  // the transformations agree with their per pixel definitions
+  @Test
+  public void testTransformationsMatchPerPixel() {
+    PixelImage image = randomImage();
+    int[] raster = image.copyRaster();
+    int[] brightened = new BrightenTransformation().applyTransformation(image, 40).copyRaster();
+    int[] darkened = new DarkenTransformation().applyTransformation(image, 40).copyRaster();
+    int[] red = new RedComponent().applyColorTransformation(image).copyRaster();
+    int[] green = new GreenComponent().applyColorTransformation(image).copyRaster();
+    int[] blue = new BlueComponent().applyColorTransformation(image).copyRaster();
+    for (int i = 0; i < raster.length; i++) {
+      int r = PackedColor.red(raster[i]);
+      int g = PackedColor.green(raster[i]);
+      int b = PackedColor.blue(raster[i]);
+      assertEquals(PackedColor.pack(Math.min(255, r + 40), Math.min(255, g + 40),
+              Math.min(255, b + 40)), brightened[i]);
+      assertEquals(PackedColor.pack(Math.max(0, r - 40), Math.max(0, g - 40),
+              Math.max(0, b - 40)), darkened[i]);
+      assertEquals(PackedColor.pack(r, r, r), red[i]);
+      assertEquals(PackedColor.pack(g, g, g), green[i]);
+      assertEquals(PackedColor.pack(b, b, b), blue[i]);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadChannel() {
+    LookupTable.select(3);
+  }
+}
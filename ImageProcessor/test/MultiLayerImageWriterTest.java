@@ -0,0 +1,151 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import controller.filereading.PPMFileReader;
+import controller.filewriting.MultiLayerImageWriter;
+import controller.filewriting.PPMFormat;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import model.imaging.Image;
+import model.imaging.PixelImage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Testing class for MultiLayerImageWriter.
+ */
+public class MultiLayerImageWriterTest {
+
+  private Path root;
+  private Path directory;
+  private Map<String, PixelImage> layers;
+
+  @Before
+  public void setUp() throws IOException {
+    root = Files.createTempDirectory("layers");
+    directory = root.resolve("project");
+    layers = new LinkedHashMap<>();
+    for (int i = 0; i < 12; i++) {
+      int[] raster = new int[30 * 20];
+      for (int j = 0; j < raster.length; j++) {
+        raster[j] = (i * 31 + j * 7) & 0xFFFFFF;
+      }
+      layers.put("layer" + i, new Image(30, 20, raster));
+    }
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> files = Files.walk(root)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  // every layer is written next to a txt file that lists them in order
+  @Test
+  public void testWritesLayersAndManifest() throws IOException {
+    new MultiLayerImageWriter(PPMFormat.BINARY).writeFile(directory.toString(), "ppm", layers,
+        Collections.singletonList("layer3"));
+    List<String> lines = Files.readAllLines(directory.resolve("project.txt"));
+    assertEquals(13, lines.size());
+    assertEquals("ppm", lines.get(0));
+    int i = 1;
+    for (Map.Entry<String, PixelImage> layer : layers.entrySet()) {
+      Path file = directory.resolve(layer.getKey() + ".ppm");
+      assertEquals(file + " " + layer.getKey() + (i == 4 ? " invisible" : " visible"),
+          lines.get(i));
+      assertArrayEquals(layer.getValue().copyRaster(),
+          new PPMFileReader().readImageFromFile(file.toString()).copyRaster());
+      i++;
+    }
+    File[] files = directory.toFile().listFiles();
+    assertEquals(13, files.length);
+  }
+
+  // writing again replaces the txt file
+  @Test
+  public void testReplacesManifest() throws IOException {
+    MultiLayerImageWriter writer = new MultiLayerImageWriter();
+    writer.writeFile(directory.toString(), "png", layers, Collections.emptyList());
+    Map<String, PixelImage> fewer = new LinkedHashMap<>();
+    fewer.put("layer0", layers.get("layer0"));
+    writer.writeFile(directory.toString(), "png", fewer, Collections.emptyList());
+    assertEquals(Arrays.asList("png", directory.resolve("layer0.png") + " layer0 visible"),
+        Files.readAllLines(directory.resolve("project.txt")));
+  }
+
+  // if a layer can't be written no txt file is written, and the earlier one is kept
+  @Test
+  public void testFailedLayerKeepsManifest() throws IOException {
+    MultiLayerImageWriter writer = new MultiLayerImageWriter(PPMFormat.BINARY);
+    Map<String, PixelImage> first = new LinkedHashMap<>();
+    first.put("layer0", layers.get("layer0"));
+    writer.writeFile(directory.toString(), "ppm", first, Collections.emptyList());
+    List<String> before = Files.readAllLines(directory.resolve("project.txt"));
+    // a directory in the way of a layer file makes its write fail
+    Files.createDirectories(directory.resolve("layer5.ppm"));
+    try {
+      writer.writeFile(directory.toString(), "ppm", layers, Collections.emptyList());
+      fail("Expected the layer write to fail.");
+    } catch (IOException e) {
+      // expected
+    }
+    assertEquals(before, Files.readAllLines(directory.resolve("project.txt")));
+    List<String> names = new ArrayList<>();
+    for (File file : directory.toFile().listFiles()) {
+      names.add(file.getName());
+    }
+    assertFalse(names.toString(), names.stream().anyMatch(name -> name.endsWith(".tmp")));
+  }
+
+  // an invalid type is rejected before anything is written
+  @Test
+  public void testInvalidType() {
+    try {
+      new MultiLayerImageWriter().writeFile(directory.toString(), "gif", layers,
+          Collections.emptyList());
+      fail("Expected an invalid type to be rejected.");
+    } catch (IllegalArgumentException | IOException e) {
+      assertTrue(e instanceof IllegalArgumentException);
+    }
+    assertFalse(Files.exists(directory));
+  }
+
+  // layers that have not changed keep their files, missing files are written again
+  @Test
+  public void testSkipsUnchangedLayers() throws IOException {
+    MultiLayerImageWriter writer = new MultiLayerImageWriter(PPMFormat.BINARY);
+    writer.writeFile(directory.toString(), "ppm", layers, Collections.emptyList());
+    Files.delete(directory.resolve("layer2.ppm"));
+    List<String> ids = new ArrayList<>(layers.keySet());
+    List<String> unchanged = new ArrayList<>(ids);
+    unchanged.remove("layer7");
+    List<String> asked = Collections.synchronizedList(new ArrayList<>());
+    writer.writeFile(directory.toString(), "ppm", ids, id -> {
+      asked.add(id);
+      return layers.get(id);
+    }, Collections.emptyList(), unchanged);
+    Collections.sort(asked);
+    assertEquals(Arrays.asList("layer2", "layer7"), asked);
+    assertEquals(13, Files.readAllLines(directory.resolve("project.txt")).size());
+    assertArrayEquals(layers.get("layer2").copyRaster(), new PPMFileReader()
+        .readImageFromFile(directory.resolve("layer2.ppm").toString()).copyRaster());
+  }
+}
@@ -1,12 +1,16 @@
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import controller.filereading.ImageIOFileReader;
 import controller.filewriting.IImageFileWriter;
 import controller.filewriting.PNGImageIOWriter;
 
+import java.io.File;
 import java.io.IOException;
 
 import model.imaging.Color;
+import model.imaging.Image;
 import model.imaging.PixelImage;
 import model.imaging.Posn;
 import org.junit.Test;
@@ -24,9 +28,10 @@ public class PNGImageIOWriterTest extends AbstractImageIOWriterTest {
   // tests writing to a png
   @Test
   public void testWritingPNG() throws IOException {
-    writer.writeFile("test\\testreaderfiles\\writtenPNG.png", testCheckerboard);
+    String path = tempFile(".png");
+    writer.writeFile(path, testCheckerboard);
     PixelImage testImage = new ImageIOFileReader()
-            .readImageFromFile("test\\testreaderfiles\\writtenPNG.png");
+            .readImageFromFile(path);
     assertEquals(new Color(255, 0, 0), testImage.getPixels().get(0).get(0).getColor());
     assertEquals(new Color(0, 255, 0), testImage.getPixels().get(0).get(1).getColor());
     assertEquals(new Color(0, 255, 0), testImage.getPixels().get(1).get(0).getColor());
@@ -38,4 +43,30 @@ public class PNGImageIOWriterTest extends AbstractImageIOWriterTest {
       }
     }
   }
-}
\ No newline at end of file
+
+  // every compression level keeps the image, higher levels give smaller files
+  @Test
+  public void testCompressionLevels() throws IOException {
+    int[] raster = new int[64 * 64];
+    for (int i = 0; i < raster.length; i++) {
+      raster[i] = (i % 64) * 0x030201 + (i / 64);
+    }
+    PixelImage image = new Image(64, 64, raster);
+    long[] sizes = new long[10];
+    for (int level = 0; level <= 9; level++) {
+      File file = File.createTempFile("level", ".png");
+      file.deleteOnExit();
+      new PNGImageIOWriter(level).writeFile(file.getPath(), image);
+      sizes[level] = file.length();
+      assertArrayEquals(raster,
+          new ImageIOFileReader().readImageFromFile(file.getPath()).copyRaster());
+    }
+    assertTrue(sizes[0] > sizes[1]);
+    assertTrue(sizes[1] >= sizes[9]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadCompressionLevel() {
+    new PNGImageIOWriter(10);
+  }
+}
@@ -1,8 +1,30 @@
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
 
+import controller.filereading.DecodeOptions;
 import controller.filereading.IFileReader;
+import controller.filereading.ImageIOFileReader;
+import controller.filereading.ImageInfo;
+import controller.filereading.ImageLoader;
 import controller.filereading.PPMFileReader;
+import controller.filereading.PPMTokenizer;
+import controller.filewriting.PPMFileWriter;
+import controller.filewriting.PPMFormat;
+import model.imaging.Image;
+import model.imaging.PackedColor;
+import model.imaging.PixelImage;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -35,4 +57,173 @@ public class PPMFileReaderTest {
   public void testBadPPMFile() throws IOException {
     reader.readImageFromFile("test\\testreaderfiles\\badfile.txt");
   }
-}
\ No newline at end of file
+
+  // writes the given text to a temporary file
+  private static String write(String contents) throws IOException {
+    File file = File.createTempFile("reader", ".ppm");
+    file.deleteOnExit();
+    try (OutputStream out = new FileOutputStream(file)) {
+      out.write(contents.getBytes(StandardCharsets.US_ASCII));
+    }
+    return file.getPath();
+  }
+
+  // comments are skipped anywhere, including in the middle of a line and right after a number
+  @Test
+  public void testCommentsAnywhere() throws IOException {
+    PixelImage image = reader.readImageFromFile(write("P3 # a comment\n"
+        + "# a comment line\n2 1 255#max\n"
+        + "\n"
+        + "255 0 0 # first pixel\r\n0 12\t34"));
+    assertEquals(2, image.getWidth());
+    assertEquals(1, image.getHeight());
+    assertArrayEquals(new int[]{0xFF0000, 0x000C22}, image.copyRaster());
+  }
+
+  // the tokenizer reads tokens and numbers straight from the bytes
+  @Test
+  public void testTokenizer() throws IOException {
+    PPMTokenizer tokens = new PPMTokenizer(new ByteArrayInputStream(
+        "P3\n#c\n  12#x\n 0 2147483647".getBytes(StandardCharsets.US_ASCII)));
+    assertEquals("P3", tokens.nextToken());
+    assertEquals(12, tokens.nextInt());
+    assertEquals(0, tokens.nextInt());
+    assertEquals(Integer.MAX_VALUE, tokens.nextInt());
+  }
+
+  // a file that ends before every pixel is read is invalid
+  @Test(expected = IllegalArgumentException.class)
+  public void testTruncatedFile() throws IOException {
+    reader.readImageFromFile(write("P3 2 2 255 1 2 3 4 5 6"));
+  }
+
+  // values must be numbers
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotANumber() throws IOException {
+    reader.readImageFromFile(write("P3 1 1 255 1 2x 3"));
+  }
+
+  // values over 255 are rejected
+  @Test(expected = IllegalArgumentException.class)
+  public void testValueTooLarge() throws IOException {
+    reader.readImageFromFile(write("P3 1 1 255 1 256 3"));
+  }
+
+  // the file must be a plain PPM file
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongMagicNumber() throws IOException {
+    reader.readImageFromFile(write("P2 1 1 255 1"));
+  }
+
+  // probing reads the size and depth from the header without reading the pixels
+  @Test
+  public void testProbe() throws IOException {
+    ImageInfo info = reader.probe(write("P3 # size\n4 3 255 1 2"));
+    assertEquals(4, info.getWidth());
+    assertEquals(3, info.getHeight());
+    assertEquals("P3", info.getFormat());
+    assertEquals(8, info.getBitDepth());
+    assertEquals(48, info.getDecodedSize());
+    ImageInfo deep = reader.probe(write("P6 2 1 65535\n"));
+    assertEquals("P6", deep.getFormat());
+    assertEquals(16, deep.getBitDepth());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testProbeWrongMagicNumber() throws IOException {
+    reader.probe(write("P2 1 1 255 1"));
+  }
+
+  // images that could never be held in a raster are rejected from their header alone
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadTooLarge() throws IOException {
+    ImageLoader.load(write("P6 100000 100000 255\n"));
+  }
+
+  // images too large for the heap are mapped, so a short file is caught without decoding it
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadLargerThanHeap() throws IOException {
+    ImageLoader.load(write("P6 46000 46000 255\n"));
+  }
+
+  // only files that need no scaling are mapped, others go through the normal decode checks
+  @Test
+  public void testLoadLargerThanHeapScaled() throws IOException {
+    try {
+      ImageLoader.load(write("P6 46000 46000 100\n"));
+      fail("Expected the image to be rejected.");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Image is too large to load"));
+    }
+    assertEquals(100, reader.probe(write("P6 2 1 100\n")).getMaxValue());
+  }
+
+  @Test
+  public void testLoadPicksReader() throws IOException {
+    assertArrayEquals(new int[]{0xFF0000, 0x000C22},
+        ImageLoader.load(write("P3 2 1 255 255 0 0 0 12 34")).copyRaster());
+    assertEquals(PPMFileReader.class, ImageLoader.readerFor("a.b.PGM").getClass());
+    assertEquals(ImageIOFileReader.class, ImageLoader.readerFor("a.ppm.png").getClass());
+  }
+
+  // the pixels kept by the options, taken from a full decode
+  private static int[] crop(PixelImage image, int x, int y, int width, int height, int step) {
+    width = Math.min(width, image.getWidth() - x);
+    height = Math.min(height, image.getHeight() - y);
+    int decodedWidth = (width + step - 1) / step;
+    int decodedHeight = (height + step - 1) / step;
+    int[] raster = image.copyRaster();
+    int[] expected = new int[decodedWidth * decodedHeight];
+    for (int i = 0; i < decodedHeight; i++) {
+      for (int j = 0; j < decodedWidth; j++) {
+        expected[i * decodedWidth + j] = raster[(y + i * step) * image.getWidth() + x + j * step];
+      }
+    }
+    return expected;
+  }
+
+  // regions and subsampling decode the same pixels as a full decode, in every format
+  @Test
+  public void testRegionAndSubsampling() throws IOException {
+    Random random = new Random(9);
+    int[] raster = new int[17 * 11];
+    for (int i = 0; i < raster.length; i++) {
+      raster[i] = random.nextInt(1 << 24);
+    }
+    PixelImage image = new Image(17, 11, raster);
+    int[][] cases = {{0, 0, 100, 100, 1}, {3, 2, 5, 4, 1}, {0, 0, 100, 100, 3},
+        {4, 1, 9, 8, 2}, {16, 10, 5, 5, 4}, {2, 3, 15, 8, 5}};
+    for (PPMFormat format : PPMFormat.values()) {
+      File file = File.createTempFile("region", ".ppm");
+      file.deleteOnExit();
+      new PPMFileWriter(format).writeFile(file.getPath(), image);
+      PixelImage full = reader.readImageFromFile(file.getPath());
+      for (int[] c : cases) {
+        PixelImage part = reader.readImageFromFile(file.getPath(), DecodeOptions.full()
+            .withRegion(c[0], c[1], c[2], c[3]).withSubsampling(c[4]));
+        assertArrayEquals(format + " " + Arrays.toString(c),
+            crop(full, c[0], c[1], c[2], c[3], c[4]), part.copyRaster());
+        assertEquals((Math.min(c[2], 17 - c[0]) + c[4] - 1) / c[4], part.getWidth());
+      }
+    }
+  }
+
+  // the rows after the region are never read, so a file cut short after it still loads
+  @Test
+  public void testRegionStopsEarly() throws IOException {
+    PixelImage part = reader.readImageFromFile(write("P3 2 3 255 1 2 3 4 5 6 7 8 9"),
+        DecodeOptions.full().withRegion(1, 0, 1, 1));
+    assertArrayEquals(new int[]{PackedColor.pack(4, 5, 6)}, part.copyRaster());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRegionOutsideImage() throws IOException {
+    reader.readImageFromFile(write("P3 1 1 255 1 2 3"),
+        DecodeOptions.full().withRegion(1, 0, 1, 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadSubsampling() {
+    DecodeOptions.full().withSubsampling(0);
+  }
+}
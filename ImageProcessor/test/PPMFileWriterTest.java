@@ -1,10 +1,15 @@
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import controller.filereading.PPMFileReader;
 import controller.filewriting.IImageFileWriter;
 import controller.filewriting.PPMFileWriter;
+import controller.filewriting.PPMFormat;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -12,6 +17,8 @@ import filters.FilterBlur;
 import filters.colortransformation.greyscale.GreyscaleTransformation;
 import model.imagegenerating.ImageCreator;
 import model.imaging.Color;
+import model.imaging.Image;
+import model.imaging.PPMTextOutput;
 import model.imaging.PixelImage;
 import model.imaging.Posn;
 import org.junit.Before;
@@ -32,6 +39,19 @@ public class PPMFileWriterTest {
         new Color(255, 0, 0), new Color(0, 255, 0)))).generateImage();
   }
 
+  /**
+   * Creates an empty temporary file for a test to write to, deleted when the tests finish.
+   *
+   * @param suffix the extension of the file.
+   * @return the path of the file.
+   * @throws IOException If the file can't be created.
+   */
+  private static String tempFile(String suffix) throws IOException {
+    File file = File.createTempFile("written", suffix);
+    file.deleteOnExit();
+    return file.getPath();
+  }
+
   // test that exception is thrown when the filename is null
   @Test(expected = IllegalArgumentException.class)
   public void testNullFileName() throws IOException {
@@ -48,9 +68,10 @@ public class PPMFileWriterTest {
   // the same information after being read in again as a PPM file.
   @Test
   public void testWritingToFileAsPPM() throws IOException {
-    writer.writeFile("test\\testreaderfiles\\writtenfile.txt", testCheckerboard);
+    String path = tempFile(".ppm");
+    writer.writeFile(path, testCheckerboard);
     PixelImage testImage = new PPMFileReader()
-        .readImageFromFile("test\\testreaderfiles\\writtenfile.txt");
+        .readImageFromFile(path);
     assertEquals(new Color(255, 0, 0), testImage.getPixels().get(0).get(0).getColor());
     assertEquals(new Color(0, 255, 0), testImage.getPixels().get(0).get(1).getColor());
     assertEquals(new Color(0, 255, 0), testImage.getPixels().get(1).get(0).getColor());
@@ -67,9 +88,10 @@ public class PPMFileWriterTest {
   @Test
   public void testWritingToFileAsPPMFiltered() throws IOException {
     PixelImage blurredCheckerboard = new FilterBlur().transform(testCheckerboard);
-    writer.writeFile("test\\testreaderfiles\\writtenfile1.txt", blurredCheckerboard);
+    String path = tempFile(".ppm");
+    writer.writeFile(path, blurredCheckerboard);
     PixelImage testImage = new PPMFileReader()
-        .readImageFromFile("test\\testreaderfiles\\writtenfile1.txt");
+        .readImageFromFile(path);
     assertEquals(new Color(78, 62, 0), testImage.getPixels().get(0).get(0).getColor());
     assertEquals(new Color(62, 78, 0), testImage.getPixels().get(0).get(1).getColor());
     assertEquals(new Color(62, 78, 0), testImage.getPixels().get(1).get(0).getColor());
@@ -87,9 +109,10 @@ public class PPMFileWriterTest {
   public void testWritingToFileAsPPMGray() throws IOException {
     PixelImage grayCheckerboard = new GreyscaleTransformation()
         .applyColorTransformation(testCheckerboard);
-    writer.writeFile("test\\testreaderfiles\\writtenfile2.txt", grayCheckerboard);
+    String path = tempFile(".ppm");
+    writer.writeFile(path, grayCheckerboard);
     PixelImage testImage = new PPMFileReader()
-        .readImageFromFile("test\\testreaderfiles\\writtenfile2.txt");
+        .readImageFromFile(path);
     assertEquals(new Color(54, 54, 54), testImage.getPixels().get(0).get(0).getColor());
     assertEquals(new Color(182, 182, 182), testImage.getPixels().get(0).get(1).getColor());
     assertEquals(new Color(182, 182, 182), testImage.getPixels().get(1).get(0).getColor());
@@ -101,4 +124,183 @@ public class PPMFileWriterTest {
       }
     }
   }
-}
\ No newline at end of file
+
+  // binary color files read back to the same image
+  @Test
+  public void testBinaryRoundTrip() throws IOException {
+    int[] raster = {0xFF0000, 0x00FF00, 0x0000FF, 0x123456, 0xFEDCBA, 0x000000};
+    PixelImage image = new Image(3, 2, raster);
+    for (PPMFormat format : new PPMFormat[]{PPMFormat.BINARY, PPMFormat.BINARY_16}) {
+      File file = File.createTempFile("binary", ".ppm");
+      file.deleteOnExit();
+      new PPMFileWriter(format).writeFile(file.getPath(), image);
+      assertArrayEquals(raster, new PPMFileReader().readImageFromFile(file.getPath())
+          .copyRaster());
+    }
+  }
+
+  // a binary file is a short header followed by the raw bytes
+  @Test
+  public void testBinaryLayout() throws IOException {
+    File file = File.createTempFile("binary", ".ppm");
+    file.deleteOnExit();
+    new PPMFileWriter(PPMFormat.BINARY).writeFile(file.getPath(), testCheckerboard);
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    byte[] header = "P6\n2 2\n255\n".getBytes();
+    assertEquals(header.length + 12, bytes.length);
+    assertEquals((byte) 255, bytes[header.length]);
+    assertEquals(0, bytes[header.length + 1]);
+  }
+
+  // greyscale files keep grey values and use the luma of colors
+  @Test
+  public void testGreyRoundTrip() throws IOException {
+    PixelImage image = new Image(2, 1, new int[]{0x7F7F7F, 0xFF0000});
+    for (PPMFormat format : new PPMFormat[]{PPMFormat.GREY, PPMFormat.GREY_16}) {
+      File file = File.createTempFile("grey", ".pgm");
+      file.deleteOnExit();
+      new PPMFileWriter(format).writeFile(file.getPath(), image);
+      assertArrayEquals(new int[]{0x7F7F7F, 0x363636},
+          new PPMFileReader().readImageFromFile(file.getPath()).copyRaster());
+    }
+  }
+
+  // values of files with a maximum other than 255 are scaled
+  @Test
+  public void testReadScaledMaxValue() throws IOException {
+    File file = File.createTempFile("scaled", ".pgm");
+    file.deleteOnExit();
+    byte[] header = "P5 3 1 1023\n".getBytes();
+    byte[] bytes = new byte[header.length + 6];
+    System.arraycopy(header, 0, bytes, 0, header.length);
+    int[] values = {0, 512, 1023};
+    for (int i = 0; i < 3; i++) {
+      bytes[header.length + 2 * i] = (byte) (values[i] >> 8);
+      bytes[header.length + 2 * i + 1] = (byte) values[i];
+    }
+    Files.write(file.toPath(), bytes);
+    assertArrayEquals(new int[]{0x000000, 0x808080, 0xFFFFFF},
+        new PPMFileReader().readImageFromFile(file.getPath()).copyRaster());
+  }
+
+  // a binary file that ends early is invalid
+  @Test(expected = IllegalArgumentException.class)
+  public void testReadTruncatedBinary() throws IOException {
+    File file = File.createTempFile("truncated", ".ppm");
+    file.deleteOnExit();
+    Files.write(file.toPath(), "P6 2 2 255\n123456".getBytes());
+    new PPMFileReader().readImageFromFile(file.getPath());
+  }
+
+  // mapped files read and write the same pixels as streamed files
+  @Test
+  public void testMappedRoundTrip() throws IOException {
+    int[] raster = {0xFF0000, 0x00FF00, 0x0000FF, 0x123456, 0xFEDCBA, 0x000000};
+    PixelImage image = new Image(3, 2, raster);
+    File file = File.createTempFile("mapped", ".ppm");
+    file.deleteOnExit();
+    new PPMFileWriter(PPMFormat.BINARY).writeFileMapped(file.getPath(), image);
+    PixelImage mapped = new PPMFileReader().mapImageFromFile(file.getPath());
+    assertArrayEquals(raster, mapped.copyRaster());
+    assertArrayEquals(raster, new PPMFileReader().readImageFromFile(file.getPath())
+        .copyRaster());
+    assertEquals(0x123456, mapped.getRGB(0, 1));
+    assertEquals(image.getLines(), mapped.getLines());
+  }
+
+  // a mapped image can be saved over the file it is read from, in any format
+  @Test
+  public void testSaveOverMappedSource() throws IOException {
+    int[] raster = new int[64 * 48];
+    for (int i = 0; i < raster.length; i++) {
+      raster[i] = i * 0x010203 & 0xFFFFFF;
+    }
+    PixelImage image = new Image(64, 48, raster);
+    for (PPMFormat format : new PPMFormat[]{PPMFormat.PLAIN, PPMFormat.BINARY,
+        PPMFormat.BINARY_16}) {
+      File file = File.createTempFile("mapped", ".ppm");
+      file.deleteOnExit();
+      new PPMFileWriter(PPMFormat.BINARY).writeFile(file.getPath(), image);
+      PixelImage mapped = new PPMFileReader().mapImageFromFile(file.getPath());
+      new PPMFileWriter(format).writeFile(file.getPath(), mapped);
+      assertArrayEquals(format.toString(), raster,
+          new PPMFileReader().readImageFromFile(file.getPath()).copyRaster());
+      assertArrayEquals(raster, mapped.copyRaster());
+    }
+    File file = File.createTempFile("mapped", ".ppm");
+    file.deleteOnExit();
+    new PPMFileWriter(PPMFormat.BINARY).writeFile(file.getPath(), image);
+    PixelImage mapped = new PPMFileReader().mapImageFromFile(file.getPath());
+    new PPMFileWriter(PPMFormat.BINARY).writeFileMapped(file.getPath(), mapped);
+    assertArrayEquals(raster, new PPMFileReader().mapImageFromFile(file.getPath()).copyRaster());
+    mapped = new PPMFileReader().mapImageFromFile(file.getPath());
+    mapped.saveImageAsPPM(file.getPath());
+    assertArrayEquals(raster, new PPMFileReader().readImageFromFile(file.getPath()).copyRaster());
+  }
+
+  // mapped greyscale files give grey pixels
+  @Test
+  public void testMappedGrey() throws IOException {
+    File file = File.createTempFile("mapped", ".pgm");
+    file.deleteOnExit();
+    new PPMFileWriter(PPMFormat.GREY).writeFileMapped(file.getPath(),
+        new Image(2, 1, new int[]{0x7F7F7F, 0xFF0000}));
+    assertArrayEquals(new int[]{0x7F7F7F, 0x363636},
+        new PPMFileReader().mapImageFromFile(file.getPath()).copyRaster());
+  }
+
+  // plain files have no raster of raw bytes to map
+  @Test(expected = IllegalArgumentException.class)
+  public void testMapPlainFile() throws IOException {
+    File file = File.createTempFile("plain", ".ppm");
+    file.deleteOnExit();
+    new PPMFileWriter().writeFile(file.getPath(), testCheckerboard);
+    new PPMFileReader().mapImageFromFile(file.getPath());
+  }
+
+  // only files with one byte per value can be mapped
+  @Test(expected = IllegalArgumentException.class)
+  public void testMapSixteenBitFile() throws IOException {
+    File file = File.createTempFile("deep", ".ppm");
+    file.deleteOnExit();
+    new PPMFileWriter(PPMFormat.BINARY_16).writeFile(file.getPath(), testCheckerboard);
+    new PPMFileReader().mapImageFromFile(file.getPath());
+  }
+
+  // a mapped file that ends early is invalid
+  @Test(expected = IllegalArgumentException.class)
+  public void testMapTruncatedFile() throws IOException {
+    File file = File.createTempFile("truncated", ".ppm");
+    file.deleteOnExit();
+    Files.write(file.toPath(), "P6 2 2 255\n123456".getBytes());
+    new PPMFileReader().mapImageFromFile(file.getPath());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMapPlainFormatWriter() throws IOException {
+    new PPMFileWriter().writeFileMapped("mapped.ppm", testCheckerboard);
+  }
+
+  // text longer than the buffer of the output is written out in full and in order
+  @Test
+  public void testTextOutputPastBuffer() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    StringBuilder expected = new StringBuilder("P3\n");
+    PPMTextOutput output = new PPMTextOutput(bytes);
+    output.writeText("P3\n");
+    for (int i = -5; i < 100000; i++) {
+      output.writeValue(i * 37);
+      output.writeChar(' ');
+      expected.append(i * 37).append(' ');
+    }
+    output.writeValue(Integer.MIN_VALUE);
+    expected.append(Integer.MIN_VALUE);
+    output.close();
+    assertEquals(expected.toString(), bytes.toString("US-ASCII"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadFormatOption() {
+    PPMFormat.fromOption("p7");
+  }
+}
@@ -0,0 +1,99 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import filters.FilterBlur;
+import filters.RowScheduler;
+import filters.colortransformation.SepiaTransformation;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import model.imaging.Image;
+import model.imaging.PixelImage;
+import org.junit.Test;
+
+/**
+ * Testing class for RowScheduler.
+ */
+public class RowSchedulerTest {
+
+  // every row is processed exactly once
+  @Test
+  public void testEveryRowOnce() {
+    AtomicIntegerArray counts = new AtomicIntegerArray(1000);
+    RowScheduler.forEachBand(500, 1000, (start, end) -> {
+      for (int i = start; i < end; i++) {
+        counts.incrementAndGet(i);
+      }
+    });
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(1, counts.get(i));
+    }
+  }
+
+  // running on many threads gives the same image as running on one
+  @Test
+  public void testParallelMatchesSequential() {
+    int[] raster = new int[300 * 200];
+    Random random = new Random(7);
+    for (int i = 0; i < raster.length; i++) {
+      raster[i] = random.nextInt(0x1000000);
+    }
+    PixelImage image = new Image(300, 200, raster);
+    int parallelism = RowScheduler.getParallelism();
+    try {
+      RowScheduler.setParallelism(4);
+      int[] parallelBlur = new FilterBlur().transform(image).copyRaster();
+      int[] parallelSepia = new SepiaTransformation().transform(image).copyRaster();
+      RowScheduler.setParallelism(1);
+      assertArrayEquals(new FilterBlur().transform(image).copyRaster(), parallelBlur);
+      assertArrayEquals(new SepiaTransformation().transform(image).copyRaster(), parallelSepia);
+    } finally {
+      RowScheduler.setParallelism(parallelism);
+    }
+  }
+
+  // changing the parallelism while images are being processed lets them finish on the old pool
+  @Test
+  public void testChangeParallelismWhileRunning() throws InterruptedException {
+    int parallelism = RowScheduler.getParallelism();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicIntegerArray counts = new AtomicIntegerArray(400);
+    Thread worker = new Thread(() -> {
+      try {
+        while (!done.get()) {
+          RowScheduler.forEachBand(500, 400, (start, end) -> {
+            for (int i = start; i < end; i++) {
+              counts.incrementAndGet(i);
+            }
+          });
+        }
+      } catch (Throwable e) {
+        failure.set(e);
+      }
+    });
+    try {
+      RowScheduler.setParallelism(2);
+      worker.start();
+      for (int i = 0; i < 200; i++) {
+        RowScheduler.setParallelism(2 + i % 3);
+        Thread.yield();
+      }
+    } finally {
+      done.set(true);
+      worker.join();
+      RowScheduler.setParallelism(parallelism);
+    }
+    assertNull(failure.get());
+    for (int i = 1; i < 400; i++) {
+      assertEquals(counts.get(0), counts.get(i));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadParallelism() {
+    RowScheduler.setParallelism(0);
+  }
+}
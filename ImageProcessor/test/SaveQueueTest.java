@@ -0,0 +1,214 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import controller.ImageControllerImpl;
+import controller.filereading.PPMFileReader;
+import controller.filewriting.SaveQueue;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.ImageProcessorTextInstance;
+import model.imaging.Image;
+import model.imaging.PixelImage;
+import org.junit.Test;
+import view.ImageProcessorTextView;
+
+/**
+ * Testing class for SaveQueue and the background saves of ImageControllerImpl.
+ */
+public class SaveQueueTest {
+
+  // flushing waits for writes that are still running
+  @Test
+  public void testFlushWaits() throws InterruptedException, IOException {
+    SaveQueue queue = new SaveQueue(2);
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicInteger done = new AtomicInteger();
+    queue.submit("a.png", () -> {
+      started.countDown();
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+      done.incrementAndGet();
+    });
+    started.await();
+    assertEquals(0, done.get());
+    assertEquals(Collections.emptyList(), queue.flush());
+    assertEquals(1, done.get());
+    queue.shutdown();
+  }
+
+  // writes to the same file run in the order they were submitted
+  @Test
+  public void testSameFileInOrder() throws IOException {
+    SaveQueue queue = new SaveQueue(4);
+    List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+    for (int i = 0; i < 20; i++) {
+      int index = i;
+      queue.submit("same.png", () -> {
+        try {
+          Thread.sleep(20 - index);
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+        order.add(index);
+      });
+    }
+    queue.shutdown();
+    for (int i = 0; i < 20; i++) {
+      assertEquals(i, (int) order.get(i));
+    }
+  }
+
+  // failures are reported once, by the next flush
+  @Test
+  public void testFailuresReported() throws IOException {
+    SaveQueue queue = new SaveQueue(1);
+    queue.submit("bad.png", () -> {
+      throw new IOException("disk full");
+    });
+    queue.submit("good.png", () -> { });
+    assertEquals(Collections.singletonList("Could not save bad.png: disk full"), queue.flush());
+    assertEquals(Collections.emptyList(), queue.flush());
+    queue.shutdown();
+  }
+
+  // without threads, or once shut down, writes run on the calling thread
+  @Test
+  public void testCallingThread() throws IOException {
+    Thread caller = Thread.currentThread();
+    List<Thread> threads = new ArrayList<>();
+    SaveQueue direct = new SaveQueue(0);
+    assertTrue(direct.submit("a.png", () -> threads.add(Thread.currentThread())));
+    SaveQueue stopped = new SaveQueue(2);
+    stopped.shutdown();
+    assertTrue(stopped.submit("b.png", () -> threads.add(Thread.currentThread())));
+    assertEquals(2, threads.size());
+    assertTrue(threads.get(0) == caller && threads.get(1) == caller);
+  }
+
+  // a write on the calling thread fails straight away instead of at the next flush
+  @Test
+  public void testCallingThreadFailure() {
+    SaveQueue direct = new SaveQueue(0);
+    try {
+      direct.submit("bad.png", () -> {
+        throw new IOException("disk full");
+      });
+      fail("Expected the write to fail.");
+    } catch (IOException e) {
+      assertEquals("disk full", e.getMessage());
+    }
+    assertEquals(Collections.emptyList(), direct.flush());
+  }
+
+  // when the queue is full the write runs on the calling thread, and its failure is not held back
+  @Test
+  public void testFullQueue() throws InterruptedException, IOException {
+    SaveQueue queue = new SaveQueue(1);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    assertFalse(queue.submit("a.png", () -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+    }));
+    started.await();
+    assertFalse(queue.submit("b.png", () -> { }));
+    Thread caller = Thread.currentThread();
+    List<Thread> threads = new ArrayList<>();
+    assertTrue(queue.submit("c.png", () -> threads.add(Thread.currentThread())));
+    assertEquals(Collections.singletonList(caller), threads);
+    try {
+      queue.submit("d.png", () -> {
+        throw new IOException("disk full");
+      });
+      fail("Expected the write to fail.");
+    } catch (IOException e) {
+      assertEquals("disk full", e.getMessage());
+    }
+    release.countDown();
+    assertEquals(Collections.emptyList(), queue.shutdown());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeThreads() {
+    new SaveQueue(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullJob() throws IOException {
+    new SaveQueue(1).submit("a.png", null);
+  }
+
+  // a script's saves are written by the time the controller returns, can be loaded back while
+  // they are still pending, and failed saves are reported at the end
+  @Test
+  public void testControllerFlushesSaves() throws IOException {
+    String threads = System.getProperty("imageprocessor.savethreads");
+    try {
+      System.setProperty("imageprocessor.savethreads", "2");
+      String out = runControllerScript();
+      assertTrue(out, out.contains("Image queued for saving"));
+      // the failure is only known once the queue is flushed, after the last command
+      assertTrue(out, out.lastIndexOf("Could not save ") > out.lastIndexOf("Image queued"));
+
+      System.setProperty("imageprocessor.savethreads", "0");
+      out = runControllerScript();
+      assertFalse(out, out.contains("queued"));
+      assertFalse(out, out.contains("Could not save "));
+      // every save but the failed one is reported as saved, the failure as it happens
+      assertEquals(2, out.split("Image saved", -1).length - 1);
+    } finally {
+      if (threads == null) {
+        System.clearProperty("imageprocessor.savethreads");
+      } else {
+        System.setProperty("imageprocessor.savethreads", threads);
+      }
+    }
+  }
+
+  // runs a script with a failing save through the controller and returns its output
+  private static String runControllerScript() throws IOException {
+    int[] raster = new int[40 * 30];
+    for (int i = 0; i < raster.length; i++) {
+      raster[i] = i * 977;
+    }
+    File source = File.createTempFile("queue-in", ".ppm");
+    File first = File.createTempFile("queue-out", ".ppm");
+    File second = File.createTempFile("queue-copy", ".ppm");
+    // a file in the way of the directory of a save makes it fail
+    File blocker = new File(first.getParent(), "queue-blocker");
+    blocker.createNewFile();
+    source.deleteOnExit();
+    first.deleteOnExit();
+    second.deleteOnExit();
+    blocker.deleteOnExit();
+    new Image(40, 30, raster).saveImageAsPPM(source.getPath());
+    String script = "load " + source.getPath() + " img\n"
+        + "save -p6 " + first.getPath() + " img\n"
+        + "load " + first.getPath() + " copy\n"
+        + "save " + second.getPath() + " copy\n"
+        + "save " + new File(blocker, "out.png").getPath() + " img\n"
+        + "exit\n";
+    StringBuilder out = new StringBuilder();
+    new ImageControllerImpl(new ImageProcessorTextInstance(), new ImageProcessorTextView(out),
+        new StringReader(script)).start();
+    PixelImage copy = new PPMFileReader().readImageFromFile(second.getPath());
+    assertArrayEquals(raster, copy.copyRaster());
+    return out.toString();
+  }
+}
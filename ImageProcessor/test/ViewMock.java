@@ -54,6 +54,15 @@ public class ViewMock implements ImageProcessorGUIView {
     }
   }
 
+  @Override
+  public void clearImages() {
+    try {
+      ap.append("cleared layers ");
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
   @Override
   public void updateGraph(List<Line> lines) {
     // updating graph doesn't need to be tested.